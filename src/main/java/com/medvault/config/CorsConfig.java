@@ -33,7 +33,7 @@ public class CorsConfig {
         config.setAllowedMethods(Arrays.asList("GET", "POST", "PUT", "DELETE", "OPTIONS", "PATCH"));
 
         // Allow these headers to be exposed
-        config.setExposedHeaders(Arrays.asList("Authorization"));
+        config.setExposedHeaders(Arrays.asList("Authorization", "Idempotent-Replayed"));
 
         source.registerCorsConfiguration("/**", config);
         return new CorsFilter(source);
@@ -0,0 +1,99 @@
+package com.medvault.config;
+
+import com.medvault.exception.ServiceBusyException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Runs the independent queries behind a dashboard side by side, so the page
+ * costs as much as its slowest query rather than the sum of all of them.
+ * The pool and its queue are bounded; when both are full the request thread
+ * runs the query itself, which degrades to the sequential behaviour instead
+ * of failing.
+ */
+@Component
+@Slf4j
+public class DashboardQueryPool implements DisposableBean {
+
+    private final ThreadPoolExecutor executor;
+    private final long timeoutMillis;
+    private final Counter callerRunsCounter;
+
+    public DashboardQueryPool(
+            @Value("${dashboard.query-pool.threads:8}") int threads,
+            @Value("${dashboard.query-pool.queue-capacity:64}") int queueCapacity,
+            @Value("${dashboard.query-pool.timeout-millis:5000}") long timeoutMillis,
+            MeterRegistry meterRegistry) {
+        this.timeoutMillis = timeoutMillis;
+        this.callerRunsCounter = Counter.builder("medvault.dashboard.queries.caller-runs")
+                .description("Dashboard queries run on the request thread because the pool was saturated")
+                .register(meterRegistry);
+
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "dashboard-query-" + threadNumber.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                (runnable, pool) -> {
+                    callerRunsCounter.increment();
+                    if (!pool.isShutdown()) {
+                        runnable.run();
+                    }
+                });
+
+        Gauge.builder("medvault.dashboard.queries.queue.depth", executor, e -> e.getQueue().size())
+                .register(meterRegistry);
+        Gauge.builder("medvault.dashboard.queries.active", executor, ThreadPoolExecutor::getActiveCount)
+                .register(meterRegistry);
+    }
+
+    public <T> CompletableFuture<T> submit(Supplier<T> query) {
+        return CompletableFuture.supplyAsync(query, executor);
+    }
+
+    // Wait for every query; the first failure is rethrown as-is so e.g. ResourceNotFoundException still maps to 404
+    public void awaitAll(CompletableFuture<?>... queries) {
+        CompletableFuture<Void> all = CompletableFuture.allOf(queries);
+        try {
+            all.get(timeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            for (CompletableFuture<?> query : queries) {
+                query.cancel(true);
+            }
+            log.warn("Dashboard queries did not finish within {} ms", timeoutMillis);
+            throw new ServiceBusyException("Server is busy, please retry shortly", 1);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while loading dashboard", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause() instanceof CompletionException ? e.getCause().getCause() : e.getCause();
+            if (cause instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new IllegalStateException("Dashboard query failed", cause);
+        }
+    }
+
+    @Override
+    public void destroy() {
+        executor.shutdown();
+    }
+}
@@ -0,0 +1,46 @@
+package com.medvault.config;
+
+import org.apache.catalina.valves.RemoteIpValve;
+import org.springframework.boot.autoconfigure.web.ServerProperties;
+import org.springframework.boot.web.embedded.tomcat.TomcatServletWebServerFactory;
+import org.springframework.boot.web.server.WebServerFactoryCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Resolves the client address from {@code X-Forwarded-For} when the request comes
+ * through a trusted proxy, so {@code request.getRemoteAddr()} is the client and not the
+ * load balancer. {@link RateLimitFilter} keys its per-IP buckets on it.
+ *
+ * This is what {@code server.forward-headers-strategy=native} does, applied by default:
+ * trusted proxies are {@code server.tomcat.remoteip.internal-proxies} (private and
+ * loopback ranges unless set). An explicit {@code server.forward-headers-strategy}
+ * takes over, and {@code none} turns it off.
+ */
+@Configuration
+public class ForwardedHeadersConfig {
+
+    @Bean
+    public WebServerFactoryCustomizer<TomcatServletWebServerFactory> remoteIpValveCustomizer(
+            ServerProperties serverProperties) {
+        return factory -> {
+            if (serverProperties.getForwardHeadersStrategy() != null) {
+                return;
+            }
+            ServerProperties.Tomcat.Remoteip remoteIp = serverProperties.getTomcat().getRemoteip();
+            RemoteIpValve valve = new RemoteIpValve();
+            valve.setRemoteIpHeader(remoteIp.getRemoteIpHeader());
+            valve.setProtocolHeader(remoteIp.getProtocolHeader());
+            if (remoteIp.getInternalProxies() != null) {
+                valve.setInternalProxies(remoteIp.getInternalProxies());
+            }
+            if (remoteIp.getTrustedProxies() != null) {
+                valve.setTrustedProxies(remoteIp.getTrustedProxies());
+            }
+            valve.setPortHeader(remoteIp.getPortHeader());
+            valve.setProtocolHeaderHttpsValue(remoteIp.getProtocolHeaderHttpsValue());
+            valve.setHostHeader(remoteIp.getHostHeader());
+            factory.addEngineValves(valve);
+        };
+    }
+}
@@ -0,0 +1,292 @@
+package com.medvault.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.medvault.dto.response.ApiResponse;
+import com.medvault.model.AuthenticatedUser;
+import com.medvault.util.TokenDigest;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletInputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletRequestWrapper;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.lang.NonNull;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.util.AntPathMatcher;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * {@code Idempotency-Key} support for the requests a client may retry after a timeout
+ * without knowing whether the first attempt went through: payment order creation, which
+ * calls the gateway, and booking.
+ *
+ * The first request with a key runs normally and, if it succeeds, its response is kept
+ * for {@code idempotency.ttl-hours}; a retry with the same key and the same request gets
+ * that response back without reaching the controller. A retry arriving while the first
+ * is still running gets 409, and reusing a key for a different request gets 422. Failed
+ * responses aren't kept, so the client can retry with the same key. Keys are scoped to
+ * the user and held per instance. Keys in flight are tracked apart from the size-bounded
+ * cache of responses, so eviction can never let a retry run alongside the first attempt.
+ * The body is buffered for the fingerprint, so it is capped at {@code idempotency.max-body-bytes}
+ * and a body without a Content-Length is refused; both get 413.
+ * Runs right after {@link JwtAuthenticationFilter}, and before rate limiting so replays
+ * aren't charged.
+ */
+@Component
+@Slf4j
+public class IdempotencyFilter extends OncePerRequestFilter {
+
+    public static final String HEADER = "Idempotency-Key";
+    private static final String REPLAYED_HEADER = "Idempotent-Replayed";
+    private static final int MAX_KEY_LENGTH = 255;
+
+    private static final List<String> ROUTES = List.of(
+            "POST /api/payments/create-order/*",
+            "POST /api/appointments/book");
+
+    private final AntPathMatcher pathMatcher = new AntPathMatcher();
+    private final Cache<String, Entry> entries;
+    // Fingerprints of requests still running, by key; each is removed when its request finishes
+    private final Map<String, String> inFlight = new ConcurrentHashMap<>();
+    private final ObjectMapper objectMapper;
+    private final MeterRegistry meterRegistry;
+    private final int maxBodyBytes;
+
+    public IdempotencyFilter(
+            MeterRegistry meterRegistry,
+            ObjectMapper objectMapper,
+            @Value("${idempotency.max-entries:100000}") long maxEntries,
+            @Value("${idempotency.ttl-hours:24}") long ttlHours,
+            @Value("${idempotency.max-body-bytes:65536}") int maxBodyBytes) {
+        this.meterRegistry = meterRegistry;
+        this.objectMapper = objectMapper;
+        this.maxBodyBytes = maxBodyBytes;
+        this.entries = Caffeine.newBuilder()
+                .maximumSize(maxEntries)
+                .expireAfterWrite(Duration.ofHours(ttlHours))
+                .build();
+        Gauge.builder("medvault.idempotency.entries", entries, Cache::estimatedSize)
+                .description("Idempotency keys with a stored response")
+                .register(meterRegistry);
+        Gauge.builder("medvault.idempotency.in-flight", inFlight, Map::size)
+                .description("Idempotency keys whose first request is still running")
+                .register(meterRegistry);
+    }
+
+    @Override
+    protected boolean shouldNotFilter(@NonNull HttpServletRequest request) {
+        if (request.getHeader(HEADER) == null) {
+            return true;
+        }
+        String route = request.getMethod() + " " + request.getRequestURI();
+        return ROUTES.stream().noneMatch(pattern -> pathMatcher.match(pattern, route));
+    }
+
+    @Override
+    protected void doFilterInternal(
+            @NonNull HttpServletRequest request,
+            @NonNull HttpServletResponse response,
+            @NonNull FilterChain filterChain
+    ) throws ServletException, IOException {
+        Long userId = currentUserId();
+        if (userId == null) {
+            // Left to the authorization rules to refuse
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        String idempotencyKey = request.getHeader(HEADER);
+        if (idempotencyKey.isBlank() || idempotencyKey.length() > MAX_KEY_LENGTH) {
+            reject(response, HttpStatus.BAD_REQUEST, "Idempotency-Key must be 1 to " + MAX_KEY_LENGTH + " characters");
+            return;
+        }
+
+        long declaredLength = request.getContentLengthLong();
+        boolean unknownLength = declaredLength < 0 && request.getHeader(HttpHeaders.TRANSFER_ENCODING) != null;
+        if (unknownLength || declaredLength > maxBodyBytes) {
+            rejectTooLarge(response);
+            return;
+        }
+        BufferedRequest bufferedRequest = new BufferedRequest(request, maxBodyBytes);
+        if (bufferedRequest.body.length > maxBodyBytes) {
+            rejectTooLarge(response);
+            return;
+        }
+        String fingerprint = TokenDigest.of(request.getMethod() + " " + request.getRequestURI() + "\n"
+                + new String(bufferedRequest.body, StandardCharsets.UTF_8)).key();
+        String key = userId + ":" + idempotencyKey;
+
+        Entry completed = entries.getIfPresent(key);
+        if (completed != null) {
+            replay(response, completed, fingerprint);
+            return;
+        }
+        String running = inFlight.putIfAbsent(key, fingerprint);
+        if (running != null) {
+            rejectInFlight(response, running, fingerprint);
+            return;
+        }
+        // The first attempt stores its response before leaving inFlight, so it may have finished in between
+        completed = entries.getIfPresent(key);
+        if (completed != null) {
+            inFlight.remove(key);
+            replay(response, completed, fingerprint);
+            return;
+        }
+
+        ContentCachingResponseWrapper cachingResponse = new ContentCachingResponseWrapper(response);
+        try {
+            filterChain.doFilter(bufferedRequest, cachingResponse);
+            int status = cachingResponse.getStatus();
+            if (status >= 200 && status < 300) {
+                entries.put(key, new Entry(fingerprint, new StoredResponse(status,
+                        cachingResponse.getContentType(), cachingResponse.getContentAsByteArray())));
+                count("stored");
+            }
+        } finally {
+            inFlight.remove(key);
+            cachingResponse.copyBodyToResponse();
+        }
+    }
+
+    private void rejectInFlight(HttpServletResponse response, String running, String fingerprint) throws IOException {
+        if (!running.equals(fingerprint)) {
+            rejectMismatch(response);
+            return;
+        }
+        count("in-flight");
+        response.setHeader(HttpHeaders.RETRY_AFTER, "1");
+        reject(response, HttpStatus.CONFLICT, "A request with this Idempotency-Key is still in progress");
+    }
+
+    private void rejectMismatch(HttpServletResponse response) throws IOException {
+        count("mismatch");
+        reject(response, HttpStatus.UNPROCESSABLE_ENTITY, "Idempotency-Key was already used for a different request");
+    }
+
+    private void replay(HttpServletResponse response, Entry entry, String fingerprint) throws IOException {
+        if (!entry.fingerprint().equals(fingerprint)) {
+            rejectMismatch(response);
+            return;
+        }
+        StoredResponse stored = entry.response();
+        count("replayed");
+        response.setStatus(stored.status());
+        response.setHeader(REPLAYED_HEADER, "true");
+        if (stored.contentType() != null) {
+            response.setContentType(stored.contentType());
+        }
+        response.setContentLength(stored.body().length);
+        response.getOutputStream().write(stored.body());
+    }
+
+    private void rejectTooLarge(HttpServletResponse response) throws IOException {
+        reject(response, HttpStatus.PAYLOAD_TOO_LARGE,
+                "Request body must have a Content-Length of at most " + maxBodyBytes + " bytes");
+    }
+
+    private void reject(HttpServletResponse response, HttpStatus status, String message) throws IOException {
+        response.setStatus(status.value());
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        objectMapper.writeValue(response.getOutputStream(), ApiResponse.error(message));
+    }
+
+    private void count(String outcome) {
+        Counter.builder("medvault.idempotency.requests")
+                .tag("outcome", outcome)
+                .register(meterRegistry)
+                .increment();
+    }
+
+    private static Long currentUserId() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication != null && authentication.getPrincipal() instanceof AuthenticatedUser principal) {
+            return principal.getId();
+        }
+        return null;
+    }
+
+    private record Entry(String fingerprint, StoredResponse response) {
+    }
+
+    private record StoredResponse(int status, String contentType, byte[] body) {
+    }
+
+    // The body is read up front for the fingerprint, then served again to the controller
+    private static class BufferedRequest extends HttpServletRequestWrapper {
+
+        private final byte[] body;
+
+        // Reads one byte past the limit, so an oversized body is detected without buffering the rest
+        BufferedRequest(HttpServletRequest request, int maxBytes) throws IOException {
+            super(request);
+            this.body = request.getInputStream().readNBytes(maxBytes + 1);
+        }
+
+        @Override
+        public ServletInputStream getInputStream() {
+            ByteArrayInputStream input = new ByteArrayInputStream(body);
+            return new ServletInputStream() {
+                @Override
+                public boolean isFinished() {
+                    return input.available() == 0;
+                }
+
+                @Override
+                public boolean isReady() {
+                    return true;
+                }
+
+                // Everything is already in memory, so the listener hears about all of it at once
+                @Override
+                public void setReadListener(ReadListener listener) {
+                    try {
+                        listener.onDataAvailable();
+                        listener.onAllDataRead();
+                    } catch (IOException e) {
+                        listener.onError(e);
+                    }
+                }
+
+                @Override
+                public int read() {
+                    return input.read();
+                }
+
+                @Override
+                public int read(byte[] buffer, int offset, int length) {
+                    return input.read(buffer, offset, length);
+                }
+            };
+        }
+
+        @Override
+        public BufferedReader getReader() {
+            return new BufferedReader(new InputStreamReader(getInputStream(), StandardCharsets.UTF_8));
+        }
+    }
+}
@@ -0,0 +1,90 @@
+package com.medvault.config;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.medvault.event.UserAccountChangedEvent;
+import com.medvault.util.TokenDigest;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Holds principals for JWTs that have already been verified, keyed by a SHA-256
+ * digest of the token, so repeat requests skip signature checks and the user lookup.
+ * An entry lives until the token expires or {@code jwt.auth-cache.max-ttl-seconds},
+ * whichever comes first. The token's issue time is kept with it, because eviction can
+ * race an in-flight request re-adding the entry; callers check the per-user revocation
+ * cutoff on every hit.
+ */
+@Component
+@Slf4j
+public class JwtAuthenticationCache {
+
+    private final Cache<String, CachedAuthentication> cache;
+
+    public JwtAuthenticationCache(
+            @Value("${jwt.auth-cache.max-size:10000}") long maxSize,
+            @Value("${jwt.auth-cache.max-ttl-seconds:600}") long maxTtlSeconds,
+            MeterRegistry meterRegistry) {
+        long maxTtlNanos = TimeUnit.SECONDS.toNanos(maxTtlSeconds);
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfter(new Expiry<String, CachedAuthentication>() {
+                    @Override
+                    public long expireAfterCreate(String key, CachedAuthentication value, long currentTime) {
+                        long untilExpiry = TimeUnit.MILLISECONDS.toNanos(
+                                value.expiresAtMillis() - System.currentTimeMillis());
+                        return Math.max(0, Math.min(untilExpiry, maxTtlNanos));
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(String key, CachedAuthentication value,
+                            long currentTime, long currentDuration) {
+                        return expireAfterCreate(key, value, currentTime);
+                    }
+
+                    @Override
+                    public long expireAfterRead(String key, CachedAuthentication value,
+                            long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "jwtAuthentication");
+    }
+
+    public CachedAuthentication get(TokenDigest token) {
+        return cache.getIfPresent(token.key());
+    }
+
+    public void put(TokenDigest token, UserDetails principal, Date issuedAt, Date expiresAt) {
+        cache.put(token.key(), new CachedAuthentication(principal, issuedAt, expiresAt.getTime()));
+    }
+
+    public void evict(TokenDigest token) {
+        cache.invalidate(token.key());
+    }
+
+    // Drop every cached token belonging to a user whose account changed
+    public void evictUser(String email) {
+        cache.asMap().values().removeIf(cached -> cached.principal().getUsername().equals(email));
+        log.debug("Evicted cached authentications for user: {}", email);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onUserAccountChanged(UserAccountChangedEvent event) {
+        evictUser(event.email());
+    }
+
+    public record CachedAuthentication(UserDetails principal, Date issuedAt, long expiresAtMillis) {
+    }
+}
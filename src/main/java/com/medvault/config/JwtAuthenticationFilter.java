@@ -1,6 +1,10 @@
 package com.medvault. config;
 
+import com.medvault.model.AuthenticatedUser;
 import com.medvault.service.JwtService;
+import com.medvault.service.ParsedToken;
+import com.medvault.service.TokenRevocationService;
+import com.medvault.util.TokenDigest;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http. HttpServletRequest;
@@ -25,6 +29,8 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
     private final JwtService jwtService;
     private final UserDetailsService userDetailsService;
+    private final JwtAuthenticationCache authenticationCache;
+    private final TokenRevocationService revocationService;
 
     @Override
     protected void doFilterInternal(
@@ -37,8 +43,8 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         String requestPath = request.getRequestURI();
         log.debug("Processing request: {} {}", request.getMethod(), requestPath);
 
-        if (requestPath.startsWith("/api/auth/")) {
-            log.debug("Skipping JWT validation for public auth endpoint");
+        if (requestPath.startsWith("/api/auth/") || requestPath.equals("/api/payments/webhook")) {
+            log.debug("Skipping JWT validation for public endpoint");
             filterChain.doFilter(request, response);
             return;
         }
@@ -54,29 +60,49 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
         try {
             final String jwt = authHeader.substring(7);
-            final String userEmail = jwtService.extractUsername(jwt);
-
-            log.debug("JWT token found for user: {}", userEmail);
-
-            // If we successfully extracted the username and no authentication exists
-            if (userEmail != null && SecurityContextHolder.getContext(). getAuthentication() == null) {
-                UserDetails userDetails = this.userDetailsService.loadUserByUsername(userEmail);
-
-                log.debug("User authorities: {}", userDetails.getAuthorities());
-
-                // Validate the token
-                if (jwtService.isTokenValid(jwt, userDetails)) {
-                    UsernamePasswordAuthenticationToken authToken = new UsernamePasswordAuthenticationToken(
-                            userDetails,
-                            null,
-                            userDetails.getAuthorities()
-                    );
-                    authToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
-                    SecurityContextHolder.getContext().setAuthentication(authToken);
-                    log.debug("✓ User authenticated successfully: {} with roles: {}",
-                            userEmail, userDetails.getAuthorities());
+            final TokenDigest tokenDigest = TokenDigest.of(jwt);
+
+            // Fast path: token already verified by an earlier request
+            JwtAuthenticationCache.CachedAuthentication cached =
+                    SecurityContextHolder.getContext().getAuthentication() == null
+                    ? authenticationCache.get(tokenDigest)
+                    : null;
+
+            if (revocationService.isRevoked(tokenDigest)) {
+                log.warn("✗ Revoked JWT token presented for: {}", requestPath);
+            } else if (cached != null) {
+                // The entry may have been re-added by a request in flight when the account changed
+                String cachedEmail = cached.principal().getUsername();
+                if (revocationService.isRevokedForUser(cachedEmail, cached.issuedAt())) {
+                    authenticationCache.evict(tokenDigest);
+                    log.warn("✗ JWT token issued before account change for user: {}", cachedEmail);
                 } else {
-                    log.warn("✗ Invalid JWT token for user: {}", userEmail);
+                    authenticate(request, cached.principal());
+                    log.debug("✓ User authenticated from token cache: {}", cachedEmail);
+                }
+            } else {
+                final ParsedToken parsedToken = jwtService.parseToken(jwt);
+                final String userEmail = parsedToken.subject();
+
+                log.debug("JWT token found for user: {}", userEmail);
+
+                if (userEmail != null && revocationService.isRevokedForUser(userEmail, parsedToken.issuedAt())) {
+                    log.warn("✗ JWT token issued before account change for user: {}", userEmail);
+                } else if (userEmail != null && SecurityContextHolder.getContext(). getAuthentication() == null) {
+                    // We successfully extracted the username and no authentication exists
+                    UserDetails userDetails = this.userDetailsService.loadUserByUsername(userEmail);
+
+                    log.debug("User authorities: {}", userDetails.getAuthorities());
+
+                    // Validate the token
+                    if (jwtService.isTokenValid(parsedToken, userDetails) && matchesClaims(parsedToken, userDetails)) {
+                        authenticationCache.put(tokenDigest, userDetails, parsedToken.issuedAt(), parsedToken.expiration());
+                        authenticate(request, userDetails);
+                        log.debug("✓ User authenticated successfully: {} with roles: {}",
+                                userEmail, userDetails.getAuthorities());
+                    } else {
+                        log.warn("✗ Invalid JWT token for user: {}", userEmail);
+                    }
                 }
             }
         } catch (Exception e) {
@@ -89,4 +115,28 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         // Always continue with the filter chain
         filterChain.doFilter(request, response);
     }
-}
\ No newline at end of file
+
+    // Refresh tokens are not access tokens, and tokens minted before a role change no longer describe the account
+    private boolean matchesClaims(ParsedToken token, UserDetails userDetails) {
+        if (!(userDetails instanceof AuthenticatedUser principal)) {
+            return true;
+        }
+        if (token.isRefreshToken()) {
+            return false;
+        }
+        if (token.userId() != null && !token.userId().equals(principal.getId())) {
+            return false;
+        }
+        return token.role() == null || token.role().equals(principal.getRole().name());
+    }
+
+    private void authenticate(HttpServletRequest request, UserDetails userDetails) {
+        UsernamePasswordAuthenticationToken authToken = new UsernamePasswordAuthenticationToken(
+                userDetails,
+                null,
+                userDetails.getAuthorities()
+        );
+        authToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
+        SecurityContextHolder.getContext().setAuthentication(authToken);
+    }
+}
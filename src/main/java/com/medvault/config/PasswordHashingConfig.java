@@ -0,0 +1,94 @@
+package com.medvault.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+@Configuration
+@Slf4j
+public class PasswordHashingConfig {
+
+    private static final int MIN_STRENGTH = 4;
+    private static final int MAX_STRENGTH = 16;
+
+    @Value("${password.bcrypt.strength:10}")
+    private int strength;
+
+    // When enabled, pick the BCrypt strength whose hash time is closest to the target on this host
+    @Value("${password.bcrypt.calibrate:false}")
+    private boolean calibrate;
+
+    @Value("${password.bcrypt.target-millis:250}")
+    private long targetMillis;
+
+    @Value("${password.hashing.threads:0}")
+    private int threads;
+
+    @Value("${password.hashing.queue-capacity:64}")
+    private int queueCapacity;
+
+    // 0 derives it from the hash time on this host: long enough for a caller at the back of a full
+    // queue to get its turn, so the queue actually absorbs bursts instead of timing them out
+    @Value("${password.hashing.max-wait-millis:0}")
+    private long maxWaitMillis;
+
+    @Value("${password.hashing.retry-after-seconds:2}")
+    private long retryAfterSeconds;
+
+    @Bean
+    public PasswordEncoder passwordEncoder(MeterRegistry meterRegistry) {
+        int bcryptStrength = calibrate ? calibrateStrength() : strength;
+        int poolSize = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        long maxWait = maxWaitMillis > 0 ? maxWaitMillis : derivedMaxWaitMillis(bcryptStrength, poolSize);
+
+        log.info("Password hashing: BCrypt strength {}, {} threads, queue capacity {}, max wait {} ms",
+                bcryptStrength, poolSize, queueCapacity, maxWait);
+
+        return new BoundedPasswordEncoder(
+                new BCryptPasswordEncoder(bcryptStrength),
+                poolSize,
+                queueCapacity,
+                maxWait,
+                retryAfterSeconds,
+                meterRegistry);
+    }
+
+    // Each strength step doubles the cost, so stop at the first one that overshoots the target
+    private int calibrateStrength() {
+        int chosen = MIN_STRENGTH;
+        long chosenMillis = Long.MAX_VALUE;
+        for (int candidate = MIN_STRENGTH; candidate <= MAX_STRENGTH; candidate++) {
+            long elapsed = measureHashMillis(candidate);
+            log.info("BCrypt calibration: strength {} took {} ms", candidate, elapsed);
+            if (elapsed <= targetMillis) {
+                chosen = candidate;
+                chosenMillis = elapsed;
+                continue;
+            }
+            if (chosenMillis == Long.MAX_VALUE || elapsed - targetMillis < targetMillis - chosenMillis) {
+                chosen = candidate;
+            }
+            break;
+        }
+        log.info("BCrypt calibration picked strength {} for a {} ms target", chosen, targetMillis);
+        return chosen;
+    }
+
+    // Each thread works through its share of the queue before the caller's own hash runs
+    private long derivedMaxWaitMillis(int bcryptStrength, int poolSize) {
+        long hashesAhead = (queueCapacity + poolSize - 1) / poolSize;
+        return Math.max(50, (hashesAhead + 1) * measureHashMillis(bcryptStrength));
+    }
+
+    private long measureHashMillis(int candidateStrength) {
+        BCryptPasswordEncoder encoder = new BCryptPasswordEncoder(candidateStrength);
+        encoder.encode("calibration-warmup");
+        long start = System.nanoTime();
+        encoder.encode("calibration-sample");
+        return (System.nanoTime() - start) / 1_000_000;
+    }
+}
@@ -0,0 +1,150 @@
+package com.medvault.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.medvault.dto.response.ApiResponse;
+import com.medvault.model.AuthenticatedUser;
+import com.medvault.util.TokenBucket;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.lang.NonNull;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Token-bucket throttling for the expensive endpoints (BCrypt on login and
+ * registration, booking, Cloudinary uploads). Each request is charged against a
+ * per-IP bucket and, once authenticated, a per-user bucket for its route.
+ * Runs after {@link JwtAuthenticationFilter} so the user is known.
+ *
+ * The IP is {@code request.getRemoteAddr()}, which is the real client only because
+ * {@link ForwardedHeadersConfig} resolves {@code X-Forwarded-For} from trusted proxies.
+ * A load balancer outside the private ranges must be listed in
+ * {@code server.tomcat.remoteip.internal-proxies}; otherwise every client behind it
+ * shares the balancer's bucket.
+ */
+@Component
+@Slf4j
+public class RateLimitFilter extends OncePerRequestFilter {
+
+    private final Map<String, Route> routes;
+    private final Map<String, TokenBucket> buckets = new ConcurrentHashMap<>();
+    private final MeterRegistry meterRegistry;
+    private final ObjectMapper objectMapper;
+    private final boolean enabled;
+
+    public RateLimitFilter(
+            MeterRegistry meterRegistry,
+            ObjectMapper objectMapper,
+            @Value("${rate-limit.enabled:true}") boolean enabled,
+            @Value("${rate-limit.login.capacity:10}") long loginCapacity,
+            @Value("${rate-limit.login.refill-per-minute:10}") long loginRefill,
+            @Value("${rate-limit.register.capacity:5}") long registerCapacity,
+            @Value("${rate-limit.register.refill-per-minute:5}") long registerRefill,
+            @Value("${rate-limit.booking.capacity:10}") long bookingCapacity,
+            @Value("${rate-limit.booking.refill-per-minute:10}") long bookingRefill,
+            @Value("${rate-limit.upload.capacity:5}") long uploadCapacity,
+            @Value("${rate-limit.upload.refill-per-minute:5}") long uploadRefill) {
+        this.meterRegistry = meterRegistry;
+        this.objectMapper = objectMapper;
+        this.enabled = enabled;
+        this.routes = Map.of(
+                "POST /api/auth/login", new Route("login", loginCapacity, loginRefill),
+                "POST /api/auth/register/patient", new Route("register", registerCapacity, registerRefill),
+                "POST /api/appointments/book", new Route("booking", bookingCapacity, bookingRefill),
+                "POST /api/medical-records/upload", new Route("upload", uploadCapacity, uploadRefill));
+    }
+
+    @Override
+    protected boolean shouldNotFilter(@NonNull HttpServletRequest request) {
+        return !enabled || !routes.containsKey(routeKey(request));
+    }
+
+    @Override
+    protected void doFilterInternal(
+            @NonNull HttpServletRequest request,
+            @NonNull HttpServletResponse response,
+            @NonNull FilterChain filterChain
+    ) throws ServletException, IOException {
+        Route route = routes.get(routeKey(request));
+
+        long waitNanos = consume(route, "ip", request.getRemoteAddr());
+        if (waitNanos == 0) {
+            Long userId = currentUserId();
+            if (userId != null) {
+                waitNanos = consume(route, "user", userId.toString());
+            }
+        }
+
+        if (waitNanos > 0) {
+            reject(response, route, waitNanos);
+            return;
+        }
+
+        filterChain.doFilter(request, response);
+    }
+
+    private long consume(Route route, String scope, String subject) {
+        TokenBucket bucket = buckets.computeIfAbsent(route.name() + ":" + scope + ":" + subject,
+                key -> new TokenBucket(route.capacity(), route.refillPerMinute()));
+        long waitNanos = bucket.tryConsume();
+        if (waitNanos > 0) {
+            rejectedCounter(route, scope).increment();
+            log.warn("Rate limit exceeded on {} for {} {}", route.name(), scope, subject);
+        }
+        return waitNanos;
+    }
+
+    private void reject(HttpServletResponse response, Route route, long waitNanos) throws IOException {
+        long retryAfterSeconds = Math.max(1, TimeUnit.NANOSECONDS.toSeconds(waitNanos) + 1);
+        response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfterSeconds));
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        objectMapper.writeValue(response.getOutputStream(),
+                ApiResponse.error("Too many " + route.name() + " requests. Please retry later."));
+    }
+
+    private Counter rejectedCounter(Route route, String scope) {
+        return Counter.builder("medvault.ratelimit.rejected")
+                .tag("route", route.name())
+                .tag("scope", scope)
+                .register(meterRegistry);
+    }
+
+    private static Long currentUserId() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication != null && authentication.getPrincipal() instanceof AuthenticatedUser principal) {
+            return principal.getId();
+        }
+        return null;
+    }
+
+    private static String routeKey(HttpServletRequest request) {
+        return request.getMethod() + " " + request.getRequestURI();
+    }
+
+    // Refilled buckets are equivalent to new ones, so drop them to keep the map small
+    @Scheduled(fixedDelayString = "${rate-limit.cleanup-interval-ms:60000}")
+    public void evictIdleBuckets() {
+        buckets.values().removeIf(TokenBucket::isFull);
+    }
+
+    private record Route(String name, long capacity, long refillPerMinute) {
+    }
+}
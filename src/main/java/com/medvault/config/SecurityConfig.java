@@ -13,7 +13,6 @@ import org. springframework.security.config.annotation. web.configuration.Enable
 import org.springframework.security.config.annotation.web.configurers.AbstractHttpConfigurer;
 import org.springframework.security.config.http.SessionCreationPolicy;
 import org.springframework.security. core.userdetails.UserDetailsService;
-import org.springframework. security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
 import org.springframework.security. web.authentication.UsernamePasswordAuthenticationFilter;
@@ -25,7 +24,10 @@ import org.springframework.security. web.authentication.UsernamePasswordAuthenti
 public class SecurityConfig {
 
     private final JwtAuthenticationFilter jwtAuthFilter;
+    private final IdempotencyFilter idempotencyFilter;
+    private final RateLimitFilter rateLimitFilter;
     private final UserDetailsService userDetailsService;
+    private final PasswordEncoder passwordEncoder;
 
     @Bean
     public SecurityFilterChain securityFilterChain(HttpSecurity http) throws Exception {
@@ -36,6 +38,7 @@ public class SecurityConfig {
                         .requestMatchers("/api/auth/**").permitAll()
                         . requestMatchers("/api/doctor/all").permitAll()
                         .requestMatchers("/api/feedbacks/doctor/**").permitAll()
+                        .requestMatchers("/api/payments/webhook").permitAll()
 
                         // Patient endpoints
                         .requestMatchers("/api/patient/**").hasRole("PATIENT")
@@ -44,6 +47,7 @@ public class SecurityConfig {
                         .requestMatchers("/api/medical-records/**").hasAnyRole("PATIENT", "DOCTOR")
 
                         // Doctor endpoints
+                        .requestMatchers("/api/doctor/slots/search").hasAnyRole("PATIENT", "DOCTOR", "ADMIN")
                         .requestMatchers("/api/doctor/**").hasRole("DOCTOR")
 
                         // Admin endpoints
@@ -56,7 +60,9 @@ public class SecurityConfig {
                         .sessionCreationPolicy(SessionCreationPolicy.STATELESS)
                 )
                 .authenticationProvider(authenticationProvider())
-                .addFilterBefore(jwtAuthFilter, UsernamePasswordAuthenticationFilter.class);
+                .addFilterBefore(jwtAuthFilter, UsernamePasswordAuthenticationFilter.class)
+                .addFilterAfter(idempotencyFilter, JwtAuthenticationFilter.class)
+                .addFilterAfter(rateLimitFilter, IdempotencyFilter.class);
 
         return http.build();
     }
@@ -65,7 +71,7 @@ public class SecurityConfig {
     public AuthenticationProvider authenticationProvider() {
         DaoAuthenticationProvider authProvider = new DaoAuthenticationProvider();
         authProvider.setUserDetailsService(userDetailsService);
-        authProvider.setPasswordEncoder(passwordEncoder());
+        authProvider.setPasswordEncoder(passwordEncoder);
         return authProvider;
     }
 
@@ -73,9 +79,4 @@ public class SecurityConfig {
     public AuthenticationManager authenticationManager(AuthenticationConfiguration config) throws Exception {
         return config.getAuthenticationManager();
     }
-
-    @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
-    }
 }
\ No newline at end of file
@@ -0,0 +1,42 @@
+package com.medvault.controller;
+
+import com.medvault.dto.response.AnalyticsRow;
+import com.medvault.dto.response.ApiResponse;
+import com.medvault.model.enums.AnalyticsGroupBy;
+import com.medvault.service.AnalyticsRollupService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/admin/analytics")
+@RequiredArgsConstructor
+@CrossOrigin(origins = "*")
+@PreAuthorize("hasRole('ADMIN')")
+public class AnalyticsController {
+
+    private final AnalyticsRollupService analyticsRollupService;
+
+    @GetMapping
+    public ResponseEntity<ApiResponse<List<AnalyticsRow>>> getAnalytics(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(defaultValue = "DAY") AnalyticsGroupBy groupBy,
+            @RequestParam(required = false) String specialization) {
+        List<AnalyticsRow> rows = analyticsRollupService.query(from, to, groupBy, specialization);
+        return ResponseEntity.ok(ApiResponse.success("Analytics retrieved successfully", rows));
+    }
+
+    @PostMapping("/backfill")
+    public ResponseEntity<ApiResponse<Integer>> backfill(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        int rows = analyticsRollupService.backfill(from, to);
+        return ResponseEntity.ok(ApiResponse.success("Backfill completed. Wrote " + rows + " rollup rows", rows));
+    }
+}
@@ -1,20 +1,23 @@
 package com.medvault.controller;
 
 import com. medvault.dto.request. AppointmentRequest;
+import com.medvault.dto.request.BulkStatusUpdateRequest;
 import com.medvault.dto.response.ApiResponse;
 import com. medvault.dto.response.AppointmentResponse;
-import com.medvault. model.User;
+import com.medvault.dto.response.BulkStatusUpdateResponse;
+import com.medvault.dto.response.CursorPage;
+import com.medvault.exception.BadRequestException;
+import com.medvault.model.AuthenticatedUser;
 import com.medvault.model.enums.AppointmentStatus;
 import com.medvault.service.AppointmentService;
 import com.medvault.service. AuthenticationService;
+import jakarta.validation.Valid;
 import lombok. RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 
-import java.util.List;
-
 @RestController
 @RequestMapping("/api/appointments")
 @CrossOrigin(origins = "*")
@@ -27,20 +30,22 @@ public class AppointmentController {
 
     @GetMapping("/my-appointments")
     @PreAuthorize("hasAnyRole('PATIENT', 'DOCTOR')")
-    public ResponseEntity<ApiResponse<List<AppointmentResponse>>> getMyAppointments() {
+    public ResponseEntity<ApiResponse<CursorPage<AppointmentResponse>>> getMyAppointments(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit) {
         try {
-            User currentUser = authenticationService. getCurrentUser();
+            AuthenticatedUser currentUser = authenticationService.getCurrentPrincipal();
             log.info("Fetching appointments for user: {} with role: {}",
                     currentUser.getEmail(), currentUser.getRole());
 
-            List<AppointmentResponse> appointments;
+            CursorPage<AppointmentResponse> appointments;
 
             switch (currentUser.getRole()) {
                 case PATIENT:
-                    appointments = appointmentService.getPatientAppointments(currentUser.getId());
+                    appointments = appointmentService.getPatientAppointments(currentUser.getId(), cursor, limit);
                     break;
                 case DOCTOR:
-                    appointments = appointmentService.getDoctorAppointments(currentUser.getId());
+                    appointments = appointmentService.getDoctorAppointments(currentUser.getId(), cursor, limit);
                     break;
                 default:
                     return ResponseEntity.badRequest()
@@ -48,6 +53,8 @@ public class AppointmentController {
             }
 
             return ResponseEntity. ok(ApiResponse. success("Appointments retrieved", appointments));
+        } catch (BadRequestException e) {
+            return ResponseEntity.badRequest().body(ApiResponse.error(e.getMessage()));
         } catch (Exception e) {
             log.error("Error fetching appointments", e);
             return ResponseEntity.internalServerError()
@@ -104,6 +111,22 @@ public class AppointmentController {
         }
     }
 
+    @PutMapping("/bulk-status")
+    @PreAuthorize("hasRole('DOCTOR')")
+    public ResponseEntity<ApiResponse<BulkStatusUpdateResponse>> bulkUpdateStatus(
+            @Valid @RequestBody BulkStatusUpdateRequest request) {
+        try {
+            Long doctorId = authenticationService.getCurrentUserId();
+            BulkStatusUpdateResponse result = appointmentService.bulkUpdateStatus(doctorId, request.getItems());
+            return ResponseEntity.ok(ApiResponse.success(
+                    String.format("Updated %d of %d appointments", result.getUpdated(), result.getRequested()), result));
+        } catch (Exception e) {
+            log.error("Error bulk updating appointment status", e);
+            return ResponseEntity.badRequest()
+                    .body(ApiResponse.error("Error updating status: " + e.getMessage()));
+        }
+    }
+
     @GetMapping("/{id}")
     @PreAuthorize("hasAnyRole('PATIENT', 'DOCTOR', 'ADMIN')")
     public ResponseEntity<ApiResponse<AppointmentResponse>> getAppointmentById(@PathVariable Long id) {
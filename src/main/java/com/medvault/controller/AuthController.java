@@ -2,9 +2,11 @@ package com.medvault.controller;
 
 import com.medvault.dto.request.LoginRequest;
 import com.medvault.dto.request.PatientRegistrationRequest;
+import com.medvault.dto.request.RefreshTokenRequest;
 import com.medvault.dto.request.SetPasswordRequest;
 import com.medvault.dto.response.ApiResponse;
 import com.medvault.dto.response.LoginResponse;
+import com.medvault.dto.response.TokenRefreshResponse;
 import com.medvault.dto.response.UserResponse;
 import com.medvault.model.User;
 import com.medvault.service.AuthService;
@@ -29,6 +31,23 @@ public class AuthController {
         return ResponseEntity.ok(ApiResponse.success("Login successful", response));
     }
 
+    @PostMapping("/refresh")
+    public ResponseEntity<ApiResponse<TokenRefreshResponse>> refresh(@Valid @RequestBody RefreshTokenRequest request) {
+        TokenRefreshResponse response = authService.refresh(request.getRefreshToken());
+        return ResponseEntity.ok(ApiResponse.success("Token refreshed", response));
+    }
+
+    @PostMapping("/logout")
+    public ResponseEntity<ApiResponse<String>> logout(
+            @RequestHeader(value = "Authorization", required = false) String authHeader,
+            @RequestBody(required = false) RefreshTokenRequest request) {
+        String accessToken = authHeader != null && authHeader.startsWith("Bearer ")
+                ? authHeader.substring(7)
+                : null;
+        authService.logout(accessToken, request != null ? request.getRefreshToken() : null);
+        return ResponseEntity.ok(ApiResponse.success("Logged out successfully", null));
+    }
+
     @PostMapping("/register/patient")
     public ResponseEntity<ApiResponse<UserResponse>> registerPatient(
             @Valid @RequestBody PatientRegistrationRequest request) {
@@ -1,18 +1,25 @@
 package com.medvault.controller;
 
+import com.medvault.dto.request.DoctorScheduleRequest;
 import com.medvault.dto.response.ApiResponse;
 import com.medvault.dto.response.DashboardResponse;
+import com.medvault.dto.response.FreeSlotResponse;
+import com.medvault.dto.response.ScheduleEntryResponse;
 import com.medvault.dto.response.UserResponse;
-import com.medvault.model.Doctor;
-import com.medvault.model.User;
+import com.medvault.model.AuthenticatedUser;
+import com.medvault.model.enums.Role;
 import com.medvault.service.AuthenticationService;
+import com.medvault.service.DoctorScheduleService;
 import com.medvault.service.DoctorService;
+import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 @RestController
@@ -24,21 +31,21 @@ public class DoctorController {
 
     private final DoctorService doctorService;
     private final AuthenticationService authenticationService;
+    private final DoctorScheduleService doctorScheduleService;
 
     @GetMapping("/dashboard")
     @PreAuthorize("hasRole('DOCTOR')")
     public ResponseEntity<ApiResponse<DashboardResponse>> getDashboard() {
         try {
-            User currentUser = authenticationService.getCurrentUser();
+            AuthenticatedUser currentUser = authenticationService.getCurrentPrincipal();
             log.info("Fetching dashboard for doctor: {}", currentUser.getEmail());
 
-            if (!(currentUser instanceof Doctor)) {
+            if (currentUser.getRole() != Role.DOCTOR) {
                 return ResponseEntity.badRequest()
                         .body(ApiResponse.error("User is not a doctor"));
             }
 
-            Doctor doctor = (Doctor) currentUser;
-            DashboardResponse dashboard = doctorService.getDoctorDashboard(doctor.getId());
+            DashboardResponse dashboard = doctorService.getDoctorDashboard(currentUser.getId());
             return ResponseEntity.ok(ApiResponse.success("Dashboard data retrieved", dashboard));
         } catch (Exception e) {
             log.error("Error fetching doctor dashboard", e);
@@ -58,4 +65,50 @@ public class DoctorController {
                     .body(ApiResponse.error("Error fetching doctors: " + e.getMessage()));
         }
     }
-}
\ No newline at end of file
+
+    @GetMapping("/schedule")
+    @PreAuthorize("hasRole('DOCTOR')")
+    public ResponseEntity<ApiResponse<List<ScheduleEntryResponse>>> getSchedule() {
+        try {
+            Long doctorId = authenticationService.getCurrentUserId();
+            List<ScheduleEntryResponse> schedule = doctorScheduleService.getSchedule(doctorId);
+            return ResponseEntity.ok(ApiResponse.success("Schedule retrieved", schedule));
+        } catch (Exception e) {
+            log.error("Error fetching schedule", e);
+            return ResponseEntity.internalServerError()
+                    .body(ApiResponse.error("Error fetching schedule: " + e.getMessage()));
+        }
+    }
+
+    @PutMapping("/schedule")
+    @PreAuthorize("hasRole('DOCTOR')")
+    public ResponseEntity<ApiResponse<List<ScheduleEntryResponse>>> updateSchedule(
+            @Valid @RequestBody DoctorScheduleRequest request) {
+        try {
+            Long doctorId = authenticationService.getCurrentUserId();
+            List<ScheduleEntryResponse> schedule = doctorScheduleService.updateSchedule(doctorId, request);
+            return ResponseEntity.ok(ApiResponse.success("Schedule updated", schedule));
+        } catch (Exception e) {
+            log.error("Error updating schedule", e);
+            return ResponseEntity.badRequest()
+                    .body(ApiResponse.error("Error updating schedule: " + e.getMessage()));
+        }
+    }
+
+    @GetMapping("/slots/search")
+    @PreAuthorize("hasAnyRole('PATIENT', 'DOCTOR', 'ADMIN')")
+    public ResponseEntity<ApiResponse<List<FreeSlotResponse>>> searchFreeSlots(
+            @RequestParam(required = false) String specialization,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestParam(required = false) Integer limit) {
+        try {
+            List<FreeSlotResponse> slots = doctorScheduleService.searchFreeSlots(specialization, from, to, limit);
+            return ResponseEntity.ok(ApiResponse.success("Free slots retrieved", slots));
+        } catch (Exception e) {
+            log.error("Error searching free slots", e);
+            return ResponseEntity.badRequest()
+                    .body(ApiResponse.error("Error searching free slots: " + e.getMessage()));
+        }
+    }
+}
@@ -2,7 +2,9 @@ package com.medvault.controller;
 
 import com.medvault.dto.request.FeedbackRequest;
 import com. medvault.dto.response. ApiResponse;
+import com.medvault.dto.response.CursorPage;
 import com.medvault.dto.response.FeedbackResponse;
+import com.medvault.exception.BadRequestException;
 import com. medvault.service.AuthenticationService;
 import com.medvault.service.FeedbackService;
 import jakarta.validation.Valid;
@@ -45,12 +47,16 @@ public class FeedbackController {
 
     // Get all feedbacks for a doctor (Public - to display on doctor profile)
     @GetMapping("/doctor/{doctorId}")
-    public ResponseEntity<ApiResponse<List<FeedbackResponse>>> getDoctorFeedbacks(
-            @PathVariable Long doctorId) {
+    public ResponseEntity<ApiResponse<CursorPage<FeedbackResponse>>> getDoctorFeedbacks(
+            @PathVariable Long doctorId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit) {
         try {
             log.info("Fetching feedbacks for doctor: {}", doctorId);
-            List<FeedbackResponse> feedbacks = feedbackService.getDoctorFeedbacks(doctorId);
+            CursorPage<FeedbackResponse> feedbacks = feedbackService.getDoctorFeedbacks(doctorId, cursor, limit);
             return ResponseEntity.ok(ApiResponse.success("Feedbacks retrieved", feedbacks));
+        } catch (BadRequestException e) {
+            return ResponseEntity.badRequest().body(ApiResponse.error(e.getMessage()));
         } catch (Exception e) {
             log. error("Error fetching feedbacks", e);
             return ResponseEntity. internalServerError()
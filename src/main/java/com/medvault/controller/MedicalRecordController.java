@@ -1,8 +1,9 @@
 package com.medvault.controller;
 
 import com.medvault. dto.response.ApiResponse;
+import com.medvault.dto.response.CursorPage;
 import com. medvault.dto.response. MedicalRecordResponse;
-import com.medvault.model.User;
+import com.medvault.exception.BadRequestException;
 import com.medvault.service.AuthenticationService;
 import com.medvault.service.MedicalRecordService;
 import lombok.RequiredArgsConstructor;
@@ -12,8 +13,6 @@ import org.springframework. security.access.prepost.PreAuthorize;
 import org. springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
 
-import java.util.List;
-
 @RestController
 @RequestMapping("/api/medical-records")
 @CrossOrigin(origins = "*")
@@ -26,13 +25,17 @@ public class MedicalRecordController {
 
     @GetMapping
     @PreAuthorize("hasRole('PATIENT')")
-    public ResponseEntity<ApiResponse<List<MedicalRecordResponse>>> getMyRecords() {
+    public ResponseEntity<ApiResponse<CursorPage<MedicalRecordResponse>>> getMyRecords(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit) {
         try {
             Long patientId = authenticationService.getCurrentUserId();
             log.info("Fetching medical records for patient: {}", patientId);
 
-            List<MedicalRecordResponse> records = medicalRecordService.getPatientRecords(patientId);
+            CursorPage<MedicalRecordResponse> records = medicalRecordService.getPatientRecords(patientId, cursor, limit);
             return ResponseEntity.ok(ApiResponse. success("Medical records retrieved", records));
+        } catch (BadRequestException e) {
+            return ResponseEntity.badRequest().body(ApiResponse.error(e.getMessage()));
         } catch (Exception e) {
             log.error("Error fetching medical records", e);
             return ResponseEntity.internalServerError()
@@ -42,11 +45,16 @@ public class MedicalRecordController {
 
     @GetMapping("/patient/{patientId}")
     @PreAuthorize("hasAnyRole('DOCTOR', 'ADMIN')")
-    public ResponseEntity<ApiResponse<List<MedicalRecordResponse>>> getPatientRecords(@PathVariable Long patientId) {
+    public ResponseEntity<ApiResponse<CursorPage<MedicalRecordResponse>>> getPatientRecords(
+            @PathVariable Long patientId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit) {
         try {
             log.info("Fetching medical records for patient: {}", patientId);
-            List<MedicalRecordResponse> records = medicalRecordService. getPatientRecords(patientId);
+            CursorPage<MedicalRecordResponse> records = medicalRecordService.getPatientRecords(patientId, cursor, limit);
             return ResponseEntity. ok(ApiResponse.success("Medical records retrieved", records));
+        } catch (BadRequestException e) {
+            return ResponseEntity.badRequest().body(ApiResponse.error(e.getMessage()));
         } catch (Exception e) {
             log.error("Error fetching medical records", e);
             return ResponseEntity.internalServerError()
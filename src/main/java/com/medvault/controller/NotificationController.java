@@ -1,6 +1,7 @@
 package com.medvault.controller;
 
 import com.medvault.dto.response.ApiResponse;
+import com.medvault.dto.response.CursorPage;
 import com.medvault.model.Notification;
 import com.medvault.service.AuthenticationService;
 import com.medvault.service.NotificationService;
@@ -22,9 +23,11 @@ public class NotificationController {
     private final AuthenticationService authenticationService;
 
     @GetMapping
-    public ResponseEntity<ApiResponse<List<Notification>>> getMyNotifications() {
+    public ResponseEntity<ApiResponse<CursorPage<Notification>>> getMyNotifications(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit) {
         Long patientId = authenticationService.getCurrentUserId();
-        List<Notification> notifications = notificationService.getPatientNotifications(patientId);
+        CursorPage<Notification> notifications = notificationService.getPatientNotifications(patientId, cursor, limit);
         return ResponseEntity.ok(ApiResponse.success("Notifications retrieved successfully", notifications));
     }
 
@@ -5,6 +5,7 @@ import com.medvault.dto.response.ApiResponse;
 import com.medvault.dto.response.PaymentResponse;
 import com.medvault.dto.response.RevenueResponse;
 import com.medvault.service.PaymentService;
+import com.medvault.service.PaymentWebhookProcessor;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.ResponseEntity;
@@ -18,6 +19,7 @@ import org.springframework.web.bind.annotation.*;
 public class PaymentController {
 
     private final PaymentService paymentService;
+    private final PaymentWebhookProcessor paymentWebhookProcessor;
 
     @PostMapping("/create-order/{appointmentId}")
     @PreAuthorize("hasRole('PATIENT')")
@@ -34,6 +36,16 @@ public class PaymentController {
         return ResponseEntity.ok(ApiResponse.success("Payment verified", response));
     }
 
+    // Called by the payment gateway; authenticated by its signature, not a user token
+    @PostMapping("/webhook")
+    public ResponseEntity<ApiResponse<String>> receiveWebhook(
+            @RequestBody String payload,
+            @RequestHeader(value = "X-Razorpay-Signature", required = false) String signature,
+            @RequestHeader(value = "X-Razorpay-Event-Id", required = false) String eventId) {
+        boolean queued = paymentWebhookProcessor.receive(payload, signature, eventId);
+        return ResponseEntity.ok(ApiResponse.success(queued ? "Event accepted" : "Event ignored", null));
+    }
+
     @GetMapping("/doctor-revenue")
     @PreAuthorize("hasRole('DOCTOR')")
     public ResponseEntity<ApiResponse<RevenueResponse>> getDoctorRevenue(@RequestParam Long doctorId) {
@@ -0,0 +1,31 @@
+package com.medvault.dto.request;
+
+import com.medvault.model.enums.AppointmentStatus;
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+public class BulkStatusUpdateRequest {
+
+    @NotEmpty(message = "At least one appointment is required")
+    @Size(max = 500, message = "At most 500 appointments can be updated at once")
+    @Valid
+    private List<Item> items;
+
+    @Data
+    public static class Item {
+
+        @NotNull(message = "Appointment ID is required")
+        private Long appointmentId;
+
+        @NotNull(message = "Status is required")
+        private AppointmentStatus status;
+
+        private String notes;
+    }
+}
@@ -0,0 +1,31 @@
+package com.medvault.dto.request;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotNull;
+import lombok.Data;
+
+import java.time.DayOfWeek;
+import java.time.LocalTime;
+import java.util.List;
+
+@Data
+public class DoctorScheduleRequest {
+
+    // Replaces the doctor's whole weekly schedule; an empty list clears it
+    @NotNull(message = "Schedule entries are required")
+    @Valid
+    private List<Entry> entries;
+
+    @Data
+    public static class Entry {
+
+        @NotNull(message = "Day of week is required")
+        private DayOfWeek dayOfWeek;
+
+        @NotNull(message = "Start time is required")
+        private LocalTime startTime;
+
+        @NotNull(message = "End time is required")
+        private LocalTime endTime;
+    }
+}
@@ -0,0 +1,25 @@
+package com.medvault.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+
+// One group of an analytics query; date and specialization are null when not grouped by them
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class AnalyticsRow {
+    private LocalDate date;
+    private String specialization;
+    private long bookings;
+    private long completed;
+    private long cancelled;
+    private long payments;
+    private double revenue;
+    private long feedbacks;
+    private Double averageRating;
+}
@@ -0,0 +1,31 @@
+package com.medvault.dto.response;
+
+import com.medvault.model.enums.AppointmentStatus;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkStatusUpdateResponse {
+    private Integer requested;
+    private Integer updated;
+    private Integer failed;
+    private List<ItemResult> results; // Same order as the request items
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class ItemResult {
+        private Long appointmentId;
+        private Boolean success;
+        private AppointmentStatus status;
+        private String message;
+    }
+}
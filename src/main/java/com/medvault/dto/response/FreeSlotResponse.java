@@ -0,0 +1,21 @@
+package com.medvault.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class FreeSlotResponse {
+    private Long doctorId;
+    private String doctorName;
+    private String specialization;
+    private Double consultationFee;
+    private LocalDateTime slotStart;
+    private LocalDateTime slotEnd;
+}
@@ -14,6 +14,7 @@ import java.time.LocalDateTime;
 @AllArgsConstructor
 public class LoginResponse {
     private String token;
+    private String refreshToken;
     private Long id;
     private String email;
     private String firstName;
@@ -0,0 +1,12 @@
+package com.medvault.event;
+
+import com.medvault.model.enums.AnalyticsMetric;
+
+import java.time.LocalDate;
+
+/**
+ * One change to a daily analytics metric, attributed to the doctor whose
+ * specialization it rolls up under. Counted once the publishing transaction commits.
+ */
+public record AnalyticsEvent(Long doctorId, LocalDate day, AnalyticsMetric metric, double amount) {
+}
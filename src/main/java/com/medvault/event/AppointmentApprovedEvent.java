@@ -0,0 +1,10 @@
+package com.medvault.event;
+
+import java.time.LocalDateTime;
+
+/**
+ * Published when a doctor approves an appointment, so its reminder can be
+ * scheduled without waiting for the next reminder window to load.
+ */
+public record AppointmentApprovedEvent(Long appointmentId, LocalDateTime appointmentDateTime) {
+}
@@ -0,0 +1,10 @@
+package com.medvault.event;
+
+import java.time.LocalDateTime;
+
+/**
+ * Published when an appointment starts or stops occupying a doctor's slot:
+ * on booking, and on rejection or cancellation.
+ */
+public record AppointmentSlotChangedEvent(Long doctorId, LocalDateTime start, boolean booked) {
+}
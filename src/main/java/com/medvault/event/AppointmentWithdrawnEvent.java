@@ -0,0 +1,10 @@
+package com.medvault.event;
+
+import java.time.LocalDateTime;
+
+/**
+ * Published when an approved appointment is rejected or cancelled, so its pending
+ * reminder can be taken off the timing wheel.
+ */
+public record AppointmentWithdrawnEvent(Long appointmentId, LocalDateTime appointmentDateTime) {
+}
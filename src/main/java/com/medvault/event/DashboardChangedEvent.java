@@ -0,0 +1,10 @@
+package com.medvault.event;
+
+import java.util.Collection;
+
+/**
+ * Published when something shown on these users' dashboards changed, so cached
+ * dashboards can be dropped once the change commits.
+ */
+public record DashboardChangedEvent(Collection<Long> userIds) {
+}
@@ -0,0 +1,8 @@
+package com.medvault.event;
+
+/**
+ * Published when a doctor replaces their weekly schedule, or when anything else the
+ * free-slot index depends on changes: availability, profile, or the doctor being deleted.
+ */
+public record DoctorScheduleChangedEvent(Long doctorId) {
+}
@@ -0,0 +1,9 @@
+package com.medvault.event;
+
+/**
+ * Published whenever a user's credentials, role or active flag change, or the
+ * account is deleted. Anything holding per-user authentication state listens
+ * for it.
+ */
+public record UserAccountChangedEvent(String email) {
+}
@@ -0,0 +1,8 @@
+package com.medvault.exception;
+
+// Invalid input the client can fix, e.g. a malformed cursor or an inverted date range
+public class BadRequestException extends RuntimeException {
+    public BadRequestException(String message) {
+        super(message);
+    }
+}
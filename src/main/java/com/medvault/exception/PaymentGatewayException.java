@@ -0,0 +1,16 @@
+package com.medvault.exception;
+
+// The payment gateway failed or refused a call; unavailable marks failures that say the gateway is unhealthy
+public class PaymentGatewayException extends RuntimeException {
+
+    private final boolean unavailable;
+
+    public PaymentGatewayException(String message, boolean unavailable) {
+        super(message);
+        this.unavailable = unavailable;
+    }
+
+    public boolean isUnavailable() {
+        return unavailable;
+    }
+}
@@ -7,11 +7,21 @@ import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.ColumnDefault;
 
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "appointments")
+@Table(name = "appointments", indexes = {
+        @Index(name = "idx_appointments_patient_time", columnList = "patient_id, appointment_date_time, id"),
+        @Index(name = "idx_appointments_doctor_time", columnList = "doctor_id, appointment_date_time, id"),
+        @Index(name = "idx_appointments_status_time", columnList = "status, appointment_date_time, id"),
+        @Index(name = "idx_appointments_created", columnList = "created_at"),
+        @Index(name = "idx_appointments_status_updated", columnList = "status, updated_at")
+}, uniqueConstraints = {
+        @UniqueConstraint(name = "uk_appointments_doctor_slot", columnNames = { "doctor_id", "active_slot" }),
+        @UniqueConstraint(name = "uk_appointments_patient_slot", columnNames = { "patient_id", "active_slot" })
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -40,6 +50,11 @@ public class Appointment {
     @Column(nullable = false)
     private AppointmentStatus status = AppointmentStatus.PENDING;
 
+    // Grid cell held by this appointment; cleared when it is rejected or cancelled so the slot can be rebooked.
+    // Only identical cells are unique here, partial overlaps are excluded by AppointmentSlotEngine#confirm
+    @Column(name = "active_slot")
+    private LocalDateTime activeSlot;
+
     @Column(length = 1000)
     private String reasonForVisit;
 
@@ -52,6 +67,9 @@ public class Appointment {
     @Column(length = 500)
     private String rejectionReason;
 
+    // Set once when the appointment reminder goes out; the reminder dispatcher never sends twice
+    private LocalDateTime reminderSentAt;
+
     @OneToOne(mappedBy = "appointment", cascade = CascadeType.ALL)
     @JsonIgnoreProperties("appointment")
     private Payment payment;
@@ -61,6 +79,12 @@ public class Appointment {
 
     private LocalDateTime updatedAt;
 
+    // Bumped by every status change; transitions compare-and-set on it (see AppointmentRepository.compareAndSetStatus)
+    @Version
+    @ColumnDefault("0")
+    @Column(nullable = false)
+    private Long version;
+
     @PrePersist
     protected void onCreate() {
         createdAt = LocalDateTime.now();
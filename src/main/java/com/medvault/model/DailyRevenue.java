@@ -0,0 +1,34 @@
+package com.medvault.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Running total of the payments completed on one day across all doctors, kept by
+ * {@code RevenueLedgerService}. Platform totals sum these rows, one per day.
+ */
+@Entity
+@Table(name = "daily_revenue")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class DailyRevenue {
+
+    @Id
+    private LocalDate ledgerDate;
+
+    @Column(nullable = false)
+    private long payments;
+
+    @Column(nullable = false)
+    private double revenue;
+
+    private LocalDateTime updatedAt;
+}
@@ -0,0 +1,65 @@
+package com.medvault.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Appointment, revenue and rating totals of one day for one specialization,
+ * maintained by {@code AnalyticsRollupService}. Days are those of the event:
+ * booking, final status change, payment or feedback.
+ */
+@Entity
+@Table(name = "daily_rollups")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class DailyRollup {
+
+    @EmbeddedId
+    private Key id;
+
+    @Column(nullable = false)
+    private long bookings;
+
+    @Column(nullable = false)
+    private long completed;
+
+    // Rejected by the doctor or cancelled by the patient
+    @Column(nullable = false)
+    private long cancelled;
+
+    @Column(nullable = false)
+    private long payments;
+
+    @Column(nullable = false)
+    private double revenue;
+
+    @Column(nullable = false)
+    private long feedbacks;
+
+    @Column(nullable = false)
+    private long ratingSum;
+
+    private LocalDateTime updatedAt;
+
+    @Embeddable
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Key implements Serializable {
+
+        @Column(nullable = false)
+        private LocalDate rollupDate;
+
+        @Column(nullable = false, length = 100)
+        private String specialization;
+    }
+}
@@ -0,0 +1,51 @@
+package com.medvault.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Dashboard statistics of one patient or doctor, kept up to date by the services
+ * that change them (see {@code DashboardCounterService}). Appointment counters
+ * cover appointments where the user is either the patient or the doctor.
+ */
+@Entity
+@Table(name = "dashboard_counters")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class DashboardCounters {
+
+    @Id
+    private Long userId;
+
+    @Column(nullable = false)
+    private long appointmentsTotal;
+
+    @Column(nullable = false)
+    private long appointmentsPending;
+
+    @Column(nullable = false)
+    private long recordsTotal;
+
+    @Column(nullable = false)
+    private long notificationsUnread;
+
+    @Column(nullable = false)
+    private long feedbacksTotal;
+
+    // Sum of ratings received, so the average needs no scan
+    @Column(nullable = false)
+    private long ratingSum;
+
+    private LocalDateTime updatedAt;
+
+    public Double getAverageRating() {
+        return feedbacksTotal > 0 ? (double) ratingSum / feedbacksTotal : null;
+    }
+}
@@ -0,0 +1,33 @@
+package com.medvault.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Running total of one doctor's completed payments, kept by {@code RevenueLedgerService}
+ * in the same transaction that completes each payment.
+ */
+@Entity
+@Table(name = "doctor_revenue")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class DoctorRevenue {
+
+    @Id
+    private Long doctorId;
+
+    @Column(nullable = false)
+    private long payments;
+
+    @Column(nullable = false)
+    private double revenue;
+
+    private LocalDateTime updatedAt;
+}
@@ -10,7 +10,10 @@ import lombok.NoArgsConstructor;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "feedbacks")
+@Table(name = "feedbacks", indexes = {
+        @Index(name = "idx_feedbacks_doctor_created", columnList = "doctor_id, created_at, id"),
+        @Index(name = "idx_feedbacks_created", columnList = "created_at")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
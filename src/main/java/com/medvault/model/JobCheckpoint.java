@@ -0,0 +1,46 @@
+package com.medvault.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Progress of a chunked background job, saved with each chunk it applies so an
+ * interrupted run resumes after the last committed row instead of starting over.
+ * The cursor is the (timestamp, id) keyset position; {@code windowEnd} is null
+ * between runs. The lease names the instance running the job and is renewed with
+ * every chunk; others skip the run until it is released or has expired.
+ */
+@Entity
+@Table(name = "job_checkpoints")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class JobCheckpoint {
+
+    @Id
+    @Column(length = 64)
+    private String name;
+
+    private LocalDateTime cursorTime;
+
+    private Long cursorId;
+
+    private LocalDateTime windowEnd;
+
+    private LocalDateTime startedAt;
+
+    private LocalDateTime completedAt;
+
+    private LocalDateTime updatedAt;
+
+    @Column(length = 64)
+    private String leaseOwner;
+
+    private LocalDateTime leaseUntil;
+}
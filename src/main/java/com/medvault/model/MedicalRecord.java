@@ -12,7 +12,9 @@ import java. time.LocalDate;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "medical_records")
+@Table(name = "medical_records", indexes = {
+        @Index(name = "idx_medical_records_patient_created", columnList = "patient_id, created_at, id")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
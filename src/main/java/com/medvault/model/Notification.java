@@ -10,7 +10,10 @@ import lombok.NoArgsConstructor;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "notifications")
+@Table(name = "notifications", indexes = {
+        @Index(name = "idx_notifications_patient_created", columnList = "patient_id, created_at, id"),
+        @Index(name = "idx_notifications_scheduled", columnList = "scheduled_for, id")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -39,8 +42,11 @@ public class Notification {
     @Column(nullable = false)
     private Boolean isRead = false;
 
+    // A scheduled notification stays hidden from the patient until the reminder dispatcher delivers it
     private LocalDateTime scheduledFor;
 
+    private LocalDateTime deliveredAt;
+
     @Column(nullable = false, updatable = false)
     private LocalDateTime createdAt;
 
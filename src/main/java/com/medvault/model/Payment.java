@@ -8,7 +8,12 @@ import org.hibernate.annotations.CreationTimestamp;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "payments")
+@Table(name = "payments", indexes = {
+        @Index(name = "idx_payments_status_paid", columnList = "status, paid_at"),
+        @Index(name = "idx_payments_doctor_status_paid", columnList = "doctor_id, status, paid_at"),
+        @Index(name = "idx_payments_razorpay_order", columnList = "razorpay_order_id"),
+        @Index(name = "idx_payments_status_created", columnList = "status, created_at")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -23,6 +28,10 @@ public class Payment {
     @JoinColumn(name = "appointment_id", nullable = false)
     private Appointment appointment;
 
+    // Copied from the appointment so a doctor's recent payments come off one index
+    @Column(name = "doctor_id")
+    private Long doctorId;
+
     @Column(nullable = false)
     private Double amount;
 
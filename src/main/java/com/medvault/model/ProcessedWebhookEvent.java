@@ -0,0 +1,32 @@
+package com.medvault.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Id of a payment gateway webhook event that has been applied, so redeliveries are
+ * ignored. Only the id and its arrival time are kept, and rows are pruned after
+ * {@code payments.webhook.retention-days}.
+ */
+@Entity
+@Table(name = "processed_webhook_events", indexes = {
+        @Index(name = "idx_webhook_events_received", columnList = "received_at")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ProcessedWebhookEvent {
+
+    @Id
+    @Column(length = 64)
+    private String eventId;
+
+    @Column(nullable = false)
+    private LocalDateTime receivedAt;
+}
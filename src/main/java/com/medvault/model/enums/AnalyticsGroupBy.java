@@ -0,0 +1,8 @@
+package com.medvault.model.enums;
+
+public enum AnalyticsGroupBy {
+    DAY,
+    SPECIALIZATION,
+    DAY_AND_SPECIALIZATION,
+    TOTAL
+}
@@ -0,0 +1,12 @@
+package com.medvault.model.enums;
+
+// Columns of daily_rollups, in the order AnalyticsRollupService binds them
+public enum AnalyticsMetric {
+    BOOKINGS,
+    COMPLETED,
+    CANCELLED,
+    PAYMENTS,
+    REVENUE,
+    FEEDBACKS,
+    RATING_SUM
+}
@@ -1,9 +1,31 @@
 package com.medvault.model.enums;
 
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.Map;
+import java.util.Set;
+
 public enum AppointmentStatus {
     PENDING,
     APPROVED,
     REJECTED,
     COMPLETED,
-    CANCELLED
-}
\ No newline at end of file
+    CANCELLED;
+
+    // Allowed status changes; REJECTED, COMPLETED and CANCELLED are final
+    private static final Map<AppointmentStatus, Set<AppointmentStatus>> TRANSITIONS = new EnumMap<>(AppointmentStatus.class);
+
+    static {
+        TRANSITIONS.put(PENDING, EnumSet.of(APPROVED, REJECTED, CANCELLED));
+        TRANSITIONS.put(APPROVED, EnumSet.of(COMPLETED, REJECTED, CANCELLED));
+    }
+
+    public Set<AppointmentStatus> allowedTransitions() {
+        return Collections.unmodifiableSet(TRANSITIONS.getOrDefault(this, EnumSet.noneOf(AppointmentStatus.class)));
+    }
+
+    public boolean canTransitionTo(AppointmentStatus next) {
+        return next != null && allowedTransitions().contains(next);
+    }
+}
@@ -0,0 +1,11 @@
+package com.medvault.model.enums;
+
+// Columns of dashboard_counters, in the order DashboardCounterService binds them
+public enum DashboardCounter {
+    APPOINTMENTS_TOTAL,
+    APPOINTMENTS_PENDING,
+    RECORDS_TOTAL,
+    NOTIFICATIONS_UNREAD,
+    FEEDBACKS_TOTAL,
+    RATING_SUM
+}
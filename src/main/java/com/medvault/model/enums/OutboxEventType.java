@@ -0,0 +1,12 @@
+package com.medvault.model.enums;
+
+public enum OutboxEventType {
+    PATIENT_NOTIFICATION,
+    APPOINTMENT_CONFIRMATION_EMAIL,
+    DOCTOR_NEW_BOOKING_EMAIL,
+    DOCTOR_CANCELLATION_EMAIL,
+    APPOINTMENT_STATUS_EMAIL,
+    FEEDBACK_REQUEST_EMAIL,
+    APPOINTMENT_REMINDER_EMAIL,
+    PAYMENT_CONFIRMATION_EMAIL
+}
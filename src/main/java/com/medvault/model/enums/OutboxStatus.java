@@ -0,0 +1,7 @@
+package com.medvault.model.enums;
+
+public enum OutboxStatus {
+    PENDING,
+    PROCESSED,
+    FAILED
+}
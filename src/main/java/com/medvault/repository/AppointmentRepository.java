@@ -1,13 +1,19 @@
 package com.medvault. repository;
 
+import com.medvault.dto.response.AppointmentResponse;
 import com.medvault.model.Appointment;
 import com.medvault.model.enums.AppointmentStatus;
+import com.medvault.util.KeysetCursor;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data. jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java. util.List;
+import java.util.Optional;
 
 @Repository
 public interface AppointmentRepository extends JpaRepository<Appointment, Long> {
@@ -15,10 +21,102 @@ public interface AppointmentRepository extends JpaRepository<Appointment, Long>
     List<Appointment> findByDoctorIdOrderByAppointmentDateTimeDesc(Long doctorId);
     List<Appointment> findByPatientIdAndStatusOrderByAppointmentDateTimeDesc(Long patientId, AppointmentStatus status);
     List<Appointment> findByDoctorIdAndStatusOrderByAppointmentDateTimeDesc(Long doctorId, AppointmentStatus status);
-    
+
+    // Selects exactly the AppointmentResponse fields, so list endpoints run one statement per page
+    String APPOINTMENT_RESPONSE = "SELECT new com.medvault.dto.response.AppointmentResponse(" +
+            "a.id, p.id, CONCAT(p.firstName, ' ', p.lastName), d.id, CONCAT('Dr. ', d.firstName, ' ', d.lastName), " +
+            "d.specialization, a.appointmentDateTime, a.reasonForVisit, a.symptoms, a.status, a.doctorNotes, " +
+            "a.rejectionReason, a.createdAt, a.updatedAt) FROM Appointment a JOIN a.patient p JOIN a.doctor d ";
+
+    String STATUS_VIEW = "SELECT a.id AS id, d.id AS doctorId, p.id AS patientId, a.status AS status, " +
+            "a.appointmentDateTime AS appointmentDateTime, a.activeSlot AS activeSlot, p.email AS patientEmail, " +
+            "CONCAT(p.firstName, ' ', p.lastName) AS patientName, " +
+            "CONCAT('Dr. ', d.firstName, ' ', d.lastName) AS doctorName, d.email AS doctorEmail, a.version AS version " +
+            "FROM Appointment a JOIN a.patient p JOIN a.doctor d ";
+
+    // Keyset pages ordered by (appointmentDateTime DESC, id DESC)
+    @Query(APPOINTMENT_RESPONSE + "WHERE p.id = :patientId ORDER BY a.appointmentDateTime DESC, a.id DESC")
+    List<AppointmentResponse> findPatientPage(Long patientId, Limit limit);
+
+    @Query(APPOINTMENT_RESPONSE + "WHERE p.id = :patientId " +
+           "AND (a.appointmentDateTime < :dateTime OR (a.appointmentDateTime = :dateTime AND a.id < :id)) " +
+           "ORDER BY a.appointmentDateTime DESC, a.id DESC")
+    List<AppointmentResponse> findPatientPageAfter(Long patientId, LocalDateTime dateTime, Long id, Limit limit);
+
+    @Query(APPOINTMENT_RESPONSE + "WHERE d.id = :doctorId ORDER BY a.appointmentDateTime DESC, a.id DESC")
+    List<AppointmentResponse> findDoctorPage(Long doctorId, Limit limit);
+
+    @Query(APPOINTMENT_RESPONSE + "WHERE d.id = :doctorId " +
+           "AND (a.appointmentDateTime < :dateTime OR (a.appointmentDateTime = :dateTime AND a.id < :id)) " +
+           "ORDER BY a.appointmentDateTime DESC, a.id DESC")
+    List<AppointmentResponse> findDoctorPageAfter(Long doctorId, LocalDateTime dateTime, Long id, Limit limit);
+
+    @Query(STATUS_VIEW + "WHERE a.id IN :ids")
+    List<AppointmentStatusView> findStatusViewsByIdIn(Collection<Long> ids);
+
+    @Query(STATUS_VIEW + "WHERE a.id = :id")
+    Optional<AppointmentStatusView> findStatusViewById(Long id);
+
+    @Query(APPOINTMENT_RESPONSE + "WHERE a.id = :id")
+    Optional<AppointmentResponse> findResponseById(Long id);
+
+    // Applies a transition only if nobody changed the appointment since it was read; returns 0 otherwise
+    @Modifying
+    @Query("UPDATE Appointment a SET a.status = :next, a.activeSlot = :activeSlot, " +
+           "a.doctorNotes = COALESCE(CAST(:doctorNotes AS String), a.doctorNotes), " +
+           "a.rejectionReason = COALESCE(CAST(:rejectionReason AS String), a.rejectionReason), " +
+           "a.updatedAt = :now, a.version = a.version + 1 " +
+           "WHERE a.id = :id AND a.status = :expected AND a.version = :version")
+    int compareAndSetStatus(Long id, AppointmentStatus expected, Long version, AppointmentStatus next,
+                            LocalDateTime activeSlot, String doctorNotes, String rejectionReason, LocalDateTime now);
+
+    // Dashboard "upcoming" statistic and recent activity
+    @Query("SELECT COUNT(a) FROM Appointment a WHERE a.patient.id = :patientId AND a.appointmentDateTime > :now")
+    long countUpcomingByPatient(Long patientId, LocalDateTime now);
+
+    @Query(APPOINTMENT_RESPONSE + "WHERE p.id = :patientId AND a.appointmentDateTime > :now " +
+           "ORDER BY a.appointmentDateTime ASC, a.id ASC")
+    List<AppointmentResponse> findUpcomingResponsesByPatient(Long patientId, LocalDateTime now, Limit limit);
+
+    @Query(APPOINTMENT_RESPONSE + "WHERE d.id = :doctorId AND a.status = :status " +
+           "ORDER BY a.appointmentDateTime DESC, a.id DESC")
+    List<AppointmentResponse> findDoctorResponsesByStatus(Long doctorId, AppointmentStatus status, Limit limit);
+
     @Query("SELECT a FROM Appointment a WHERE a.doctor.id = :doctorId AND a.appointmentDateTime BETWEEN :start AND :end")
     List<Appointment> findDoctorAppointmentsBetween(Long doctorId, LocalDateTime start, LocalDateTime end);
     
     @Query("SELECT a FROM Appointment a WHERE a.patient.id = :patientId AND a. appointmentDateTime > :now ORDER BY a.appointmentDateTime ASC")
     List<Appointment> findUpcomingAppointmentsByPatient(Long patientId, LocalDateTime now);
-}
\ No newline at end of file
+
+    @Query("SELECT a.appointmentDateTime FROM Appointment a WHERE a.doctor.id = :doctorId AND a.appointmentDateTime >= :from " +
+           "AND a.status NOT IN (com.medvault.model.enums.AppointmentStatus.REJECTED, com.medvault.model.enums.AppointmentStatus.CANCELLED)")
+    List<LocalDateTime> findActiveDoctorSlotsFrom(Long doctorId, LocalDateTime from);
+
+    @Query("SELECT a.appointmentDateTime FROM Appointment a WHERE a.patient.id = :patientId AND a.appointmentDateTime >= :from " +
+           "AND a.status NOT IN (com.medvault.model.enums.AppointmentStatus.REJECTED, com.medvault.model.enums.AppointmentStatus.CANCELLED)")
+    List<LocalDateTime> findActivePatientSlotsFrom(Long patientId, LocalDateTime from);
+
+    // Active appointments starting strictly between the bounds, off the (doctor|patient)_time indexes
+    @Query("SELECT COUNT(a) > 0 FROM Appointment a WHERE a.doctor.id = :doctorId " +
+           "AND a.appointmentDateTime > :from AND a.appointmentDateTime < :to " +
+           "AND a.status NOT IN (com.medvault.model.enums.AppointmentStatus.REJECTED, com.medvault.model.enums.AppointmentStatus.CANCELLED)")
+    boolean existsActiveDoctorAppointmentBetween(Long doctorId, LocalDateTime from, LocalDateTime to);
+
+    @Query("SELECT COUNT(a) > 0 FROM Appointment a WHERE a.patient.id = :patientId " +
+           "AND a.appointmentDateTime > :from AND a.appointmentDateTime < :to " +
+           "AND a.status NOT IN (com.medvault.model.enums.AppointmentStatus.REJECTED, com.medvault.model.enums.AppointmentStatus.CANCELLED)")
+    boolean existsActivePatientAppointmentBetween(Long patientId, LocalDateTime from, LocalDateTime to);
+
+    // Approved appointments still owed a reminder, in (appointmentDateTime, id) order after the given position
+    @Query("SELECT new com.medvault.util.KeysetCursor(a.appointmentDateTime, a.id) FROM Appointment a " +
+           "WHERE a.status = com.medvault.model.enums.AppointmentStatus.APPROVED AND a.reminderSentAt IS NULL " +
+           "AND (a.appointmentDateTime > :fromTime OR (a.appointmentDateTime = :fromTime AND a.id > :afterId)) " +
+           "AND a.appointmentDateTime < :toTime ORDER BY a.appointmentDateTime, a.id")
+    List<KeysetCursor> findAwaitingReminder(LocalDateTime fromTime, Long afterId, LocalDateTime toTime, Limit limit);
+
+    // Claims the reminder; 0 means it was already sent, or the appointment is no longer approved or upcoming
+    @Modifying
+    @Query("UPDATE Appointment a SET a.reminderSentAt = :now WHERE a.id = :id AND a.reminderSentAt IS NULL " +
+           "AND a.status = com.medvault.model.enums.AppointmentStatus.APPROVED AND a.appointmentDateTime > :now")
+    int markReminderSent(Long id, LocalDateTime now);
+}
@@ -0,0 +1,24 @@
+package com.medvault.repository;
+
+import com.medvault.model.enums.AppointmentStatus;
+
+import java.time.LocalDateTime;
+
+/**
+ * Just the columns a status change needs: ownership, the slot it holds and
+ * the names and addresses used in the notification and emails, plus the status and
+ * version a compare-and-set transition expects.
+ */
+public interface AppointmentStatusView {
+    Long getId();
+    Long getDoctorId();
+    Long getPatientId();
+    AppointmentStatus getStatus();
+    LocalDateTime getAppointmentDateTime();
+    LocalDateTime getActiveSlot();
+    String getPatientEmail();
+    String getPatientName();
+    String getDoctorName();
+    String getDoctorEmail();
+    Long getVersion();
+}
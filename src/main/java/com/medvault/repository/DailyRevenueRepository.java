@@ -0,0 +1,16 @@
+package com.medvault.repository;
+
+import com.medvault.model.DailyRevenue;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+
+@Repository
+public interface DailyRevenueRepository extends JpaRepository<DailyRevenue, LocalDate> {
+
+    // One row per day with payments, so this stays small however many payments there are
+    @Query("SELECT COALESCE(SUM(r.payments), 0) AS payments, COALESCE(SUM(r.revenue), 0) AS revenue FROM DailyRevenue r")
+    RevenueTotalsView getTotals();
+}
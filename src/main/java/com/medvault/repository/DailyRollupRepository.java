@@ -0,0 +1,18 @@
+package com.medvault.repository;
+
+import com.medvault.model.DailyRollup;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@Repository
+public interface DailyRollupRepository extends JpaRepository<DailyRollup, DailyRollup.Key> {
+
+    // Primary-key range scan: cost follows the requested range, not the history
+    @Query("SELECT r FROM DailyRollup r WHERE r.id.rollupDate BETWEEN :from AND :to " +
+           "ORDER BY r.id.rollupDate, r.id.specialization")
+    List<DailyRollup> findBetween(LocalDate from, LocalDate to);
+}
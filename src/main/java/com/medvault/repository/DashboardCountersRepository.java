@@ -0,0 +1,9 @@
+package com.medvault.repository;
+
+import com.medvault.model.DashboardCounters;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface DashboardCountersRepository extends JpaRepository<DashboardCounters, Long> {
+}
@@ -2,8 +2,10 @@ package com.medvault.repository;
 
 import com.medvault.model.Doctor;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -18,4 +20,7 @@ public interface DoctorRepository extends JpaRepository<Doctor, Long> {
     List<Doctor> findByIsActiveTrue();
 
     List<Doctor> findByIsActiveTrueAndIsAvailableTrue();
+
+    @Query("SELECT d.id AS id, d.specialization AS specialization FROM Doctor d WHERE d.id IN :ids")
+    List<DoctorSpecializationView> findSpecializations(Collection<Long> ids);
 }
\ No newline at end of file
@@ -0,0 +1,26 @@
+package com.medvault.repository;
+
+import com.medvault.model.DoctorSchedule;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface DoctorScheduleRepository extends JpaRepository<DoctorSchedule, Long> {
+    List<DoctorSchedule> findByDoctorIdOrderByDayOfWeekAscStartTimeAsc(Long doctorId);
+
+    @Query("SELECT s FROM DoctorSchedule s JOIN FETCH s.doctor d WHERE d.isActive = true AND d.isAvailable = true")
+    List<DoctorSchedule> findAllForBookableDoctors();
+
+    @Query("SELECT s FROM DoctorSchedule s JOIN FETCH s.doctor d " +
+           "WHERE d.id = :doctorId AND d.isActive = true AND d.isAvailable = true")
+    List<DoctorSchedule> findForBookableDoctor(@Param("doctorId") Long doctorId);
+
+    @Modifying
+    @Query("DELETE FROM DoctorSchedule s WHERE s.doctor.id = :doctorId")
+    void deleteByDoctorId(@Param("doctorId") Long doctorId);
+}
@@ -0,0 +1,6 @@
+package com.medvault.repository;
+
+public interface DoctorSpecializationView {
+    Long getId();
+    String getSpecialization();
+}
@@ -1,11 +1,14 @@
 package com.medvault.repository;
 
+import com.medvault.dto.response.FeedbackResponse;
 import com.medvault.model.Feedback;
+import org.springframework.data.domain.Limit;
 import org. springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa. repository.Query;
 import org. springframework.data.repository.query. Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 @Repository
@@ -14,11 +17,30 @@ public interface FeedbackRepository extends JpaRepository<Feedback, Long> {
     // Find feedbacks by doctor
     List<Feedback> findByDoctorIdOrderByCreatedAtDesc(Long doctorId);
 
+    // Selects exactly the FeedbackResponse fields
+    String FEEDBACK_RESPONSE = "SELECT new com.medvault.dto.response.FeedbackResponse(" +
+            "f.id, p.id, CONCAT(p.firstName, ' ', p.lastName), d.id, CONCAT('Dr. ', d.firstName, ' ', d.lastName), " +
+            "d.specialization, a.id, f.rating, f.comment, f.createdAt) " +
+            "FROM Feedback f JOIN f.patient p JOIN f.doctor d LEFT JOIN f.appointment a ";
+
+    // Keyset pages of a doctor's feedbacks ordered by (createdAt DESC, id DESC)
+    @Query(FEEDBACK_RESPONSE + "WHERE d.id = :doctorId ORDER BY f.createdAt DESC, f.id DESC")
+    List<FeedbackResponse> findDoctorPage(@Param("doctorId") Long doctorId, Limit limit);
+
+    @Query(FEEDBACK_RESPONSE + "WHERE d.id = :doctorId " +
+           "AND (f.createdAt < :createdAt OR (f.createdAt = :createdAt AND f.id < :id)) " +
+           "ORDER BY f.createdAt DESC, f.id DESC")
+    List<FeedbackResponse> findDoctorPageAfter(@Param("doctorId") Long doctorId,
+            @Param("createdAt") LocalDateTime createdAt, @Param("id") Long id, Limit limit);
+
     List<Feedback> findByDoctorId(Long doctorId);
 
     // Find feedbacks by patient
     List<Feedback> findByPatientIdOrderByCreatedAtDesc(Long patientId);
 
+    @Query(FEEDBACK_RESPONSE + "WHERE p.id = :patientId ORDER BY f.createdAt DESC, f.id DESC")
+    List<FeedbackResponse> findPatientFeedbackResponses(@Param("patientId") Long patientId);
+
     // Find feedbacks by appointment
     List<Feedback> findByAppointmentId(Long appointmentId);
 
@@ -1,10 +1,15 @@
 package com.medvault.repository;
 
+import com.medvault.dto.response.MedicalRecordResponse;
 import com.medvault.model.MedicalRecord;
 import com.medvault.model.enums.RecordType;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 @Repository
@@ -12,4 +17,22 @@ public interface MedicalRecordRepository extends JpaRepository<MedicalRecord, Lo
     List<MedicalRecord> findByPatientIdAndIsDeletedFalseOrderByRecordDateDesc(Long patientId);
     List<MedicalRecord> findByPatientIdAndRecordTypeAndIsDeletedFalseOrderByRecordDateDesc(Long patientId, RecordType recordType);
     Long countByPatientIdAndIsDeletedFalse(Long patientId);
+
+    // Selects exactly the MedicalRecordResponse fields; uploadedByName is the doctor if one is linked
+    String RECORD_RESPONSE = "SELECT new com.medvault.dto.response.MedicalRecordResponse(" +
+            "r.id, p.id, CONCAT(p.firstName, ' ', p.lastName), CAST(r.recordType AS String), r.fileName, " +
+            "r.filePath, r.description, r.recordDate, r.createdAt, p.id, " +
+            "CASE WHEN d.id IS NOT NULL THEN CONCAT('Dr. ', d.firstName, ' ', d.lastName) " +
+            "ELSE CONCAT(p.firstName, ' ', p.lastName) END) " +
+            "FROM MedicalRecord r JOIN r.patient p LEFT JOIN r.doctor d ";
+
+    // Keyset pages ordered by (createdAt DESC, id DESC)
+    @Query(RECORD_RESPONSE + "WHERE p.id = :patientId AND r.isDeleted = false ORDER BY r.createdAt DESC, r.id DESC")
+    List<MedicalRecordResponse> findPatientPage(@Param("patientId") Long patientId, Limit limit);
+
+    @Query(RECORD_RESPONSE + "WHERE p.id = :patientId AND r.isDeleted = false " +
+           "AND (r.createdAt < :createdAt OR (r.createdAt = :createdAt AND r.id < :id)) " +
+           "ORDER BY r.createdAt DESC, r.id DESC")
+    List<MedicalRecordResponse> findPatientPageAfter(@Param("patientId") Long patientId,
+            @Param("createdAt") LocalDateTime createdAt, @Param("id") Long id, Limit limit);
 }
\ No newline at end of file
@@ -1,7 +1,11 @@
 package com.medvault.repository;
 
 import com.medvault.model.Notification;
+import com.medvault.util.KeysetCursor;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
@@ -9,8 +13,38 @@ import java. util.List;
 
 @Repository
 public interface NotificationRepository extends JpaRepository<Notification, Long> {
+
+    // Patients only see immediate notifications and scheduled ones that have been delivered
+    String VISIBLE = "AND (n.scheduledFor IS NULL OR n.deliveredAt IS NOT NULL) ";
+
     List<Notification> findByPatientIdOrderByCreatedAtDesc(Long patientId);
+
+    // Keyset pages ordered by (createdAt DESC, id DESC)
+    @Query("SELECT n FROM Notification n WHERE n.patient.id = :patientId " + VISIBLE +
+           "ORDER BY n.createdAt DESC, n.id DESC")
+    List<Notification> findPatientPage(Long patientId, Limit limit);
+
+    @Query("SELECT n FROM Notification n WHERE n.patient.id = :patientId " + VISIBLE +
+           "AND (n.createdAt < :createdAt OR (n.createdAt = :createdAt AND n.id < :id)) " +
+           "ORDER BY n.createdAt DESC, n.id DESC")
+    List<Notification> findPatientPageAfter(Long patientId, LocalDateTime createdAt, Long id, Limit limit);
+
+    @Query("SELECT n FROM Notification n WHERE n.patient.id = :patientId AND n.isRead = false " + VISIBLE +
+           "ORDER BY n.createdAt DESC")
     List<Notification> findByPatientIdAndIsReadFalseOrderByCreatedAtDesc(Long patientId);
+
+    @Query("SELECT COUNT(n) FROM Notification n WHERE n.patient.id = :patientId AND n.isRead = false " + VISIBLE)
     Long countByPatientIdAndIsReadFalse(Long patientId);
-    List<Notification> findByScheduledForBeforeAndIsReadFalse(LocalDateTime now);
+
+    // Scheduled notifications not yet delivered, in (scheduledFor, id) order after the given position
+    @Query("SELECT new com.medvault.util.KeysetCursor(n.scheduledFor, n.id) FROM Notification n " +
+           "WHERE n.deliveredAt IS NULL " +
+           "AND (n.scheduledFor > :fromTime OR (n.scheduledFor = :fromTime AND n.id > :afterId)) " +
+           "AND n.scheduledFor < :toTime ORDER BY n.scheduledFor, n.id")
+    List<KeysetCursor> findAwaitingDelivery(LocalDateTime fromTime, Long afterId, LocalDateTime toTime, Limit limit);
+
+    // Claims the delivery; 0 means another dispatcher already delivered it
+    @Modifying
+    @Query("UPDATE Notification n SET n.deliveredAt = :now WHERE n.id = :id AND n.deliveredAt IS NULL")
+    int markDelivered(Long id, LocalDateTime now);
 }
\ No newline at end of file
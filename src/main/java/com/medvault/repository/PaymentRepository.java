@@ -1,12 +1,18 @@
 package com.medvault.repository;
 
+import com.medvault.dto.response.PaymentResponse;
 import com.medvault.model.Payment;
-import com.medvault.model.enums.PaymentStatus;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -14,16 +20,50 @@ import java.util.Optional;
 public interface PaymentRepository extends JpaRepository<Payment, Long> {
     Optional<Payment> findByRazorpayOrderId(String razorpayOrderId);
 
+    // Verify holds the row from its first read, so it sees a webhook's committed settlement and blocks the next one
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT p FROM Payment p WHERE p.razorpayOrderId = :orderId")
+    Optional<Payment> findForUpdateByRazorpayOrderId(@Param("orderId") String orderId);
+
     Optional<Payment> findByAppointmentId(Long appointmentId);
 
-    List<Payment> findByStatus(PaymentStatus status);
+    // Claims the completion; 0 means another verify, webhook or reconcile run completed it first
+    @Modifying
+    @Query("UPDATE Payment p SET p.status = com.medvault.model.enums.PaymentStatus.COMPLETED, " +
+           "p.razorpayPaymentId = :paymentId, p.razorpaySignature = :signature, p.failureReason = NULL, " +
+           "p.paidAt = :paidAt WHERE p.id = :id AND p.status <> com.medvault.model.enums.PaymentStatus.COMPLETED")
+    int markCompleted(@Param("id") Long id, @Param("paymentId") String paymentId,
+            @Param("signature") String signature, @Param("paidAt") LocalDateTime paidAt);
+
+    // Only a pending payment can fail, so a late failure event never undoes a capture
+    @Modifying
+    @Query("UPDATE Payment p SET p.status = com.medvault.model.enums.PaymentStatus.FAILED, " +
+           "p.razorpayPaymentId = :paymentId, p.failureReason = :reason " +
+           "WHERE p.id = :id AND p.status = com.medvault.model.enums.PaymentStatus.PENDING")
+    int markFailed(@Param("id") Long id, @Param("paymentId") String paymentId, @Param("reason") String reason);
+
+    // Everything a completion needs, for a whole webhook batch in one query
+    @Query("SELECT p FROM Payment p JOIN FETCH p.appointment a JOIN FETCH a.patient JOIN FETCH a.doctor " +
+           "WHERE p.razorpayOrderId IN :orderIds")
+    List<Payment> findWithAppointmentByRazorpayOrderIdIn(Collection<String> orderIds);
+
+    // Keyset pages of pending payments ordered by (createdAt, id), off idx_payments_status_created
+    @Query("SELECT p.id AS id, p.razorpayOrderId AS razorpayOrderId, p.createdAt AS createdAt FROM Payment p " +
+           "WHERE p.status = 'PENDING' " +
+           "AND (p.createdAt > :fromTime OR (p.createdAt = :fromTime AND p.id > :afterId)) " +
+           "AND p.createdAt < :toTime ORDER BY p.createdAt, p.id")
+    List<PendingPaymentView> findPending(LocalDateTime fromTime, Long afterId, LocalDateTime toTime, Limit limit);
 
-    @Query("SELECT SUM(p.amount) FROM Payment p WHERE p.status = 'COMPLETED'")
-    Double getTotalRevenue();
+    // Selects exactly the PaymentResponse fields
+    String PAYMENT_RESPONSE = "SELECT new com.medvault.dto.response.PaymentResponse(" +
+            "p.id, a.id, p.amount, p.razorpayOrderId, p.razorpayPaymentId, p.status, p.createdAt, p.paidAt, " +
+            "CONCAT(pt.firstName, ' ', pt.lastName), pt.id, CONCAT('Dr. ', d.firstName, ' ', d.lastName)) " +
+            "FROM Payment p JOIN p.appointment a JOIN a.patient pt JOIN a.doctor d ";
 
-    @Query("SELECT SUM(p.amount) FROM Payment p WHERE p.appointment.doctor.id = :doctorId AND p.status = 'COMPLETED'")
-    Double getDoctorRevenue(@Param("doctorId") Long doctorId);
+    // Both walk an index on (.., status, paid_at) backwards and stop after the limit
+    @Query(PAYMENT_RESPONSE + "WHERE p.doctorId = :doctorId AND p.status = 'COMPLETED' ORDER BY p.paidAt DESC, p.id DESC")
+    List<PaymentResponse> findRecentDoctorPayments(@Param("doctorId") Long doctorId, Limit limit);
 
-    @Query("SELECT p FROM Payment p WHERE p.appointment.doctor.id = :doctorId AND p.status = 'COMPLETED' ORDER BY p.paidAt DESC")
-    List<Payment> getDoctorPayments(@Param("doctorId") Long doctorId);
+    @Query(PAYMENT_RESPONSE + "WHERE p.status = 'COMPLETED' ORDER BY p.paidAt DESC, p.id DESC")
+    List<PaymentResponse> findRecentCompletedPayments(Limit limit);
 }
@@ -0,0 +1,13 @@
+package com.medvault.repository;
+
+import java.time.LocalDateTime;
+
+/**
+ * A pending payment as the reconciliation job pages through them: the keyset
+ * position and the order to look up at the gateway.
+ */
+public interface PendingPaymentView {
+    Long getId();
+    String getRazorpayOrderId();
+    LocalDateTime getCreatedAt();
+}
@@ -0,0 +1,22 @@
+package com.medvault.repository;
+
+import com.medvault.model.ProcessedWebhookEvent;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface ProcessedWebhookEventRepository extends JpaRepository<ProcessedWebhookEvent, String> {
+
+    @Query("SELECT e.eventId FROM ProcessedWebhookEvent e WHERE e.eventId IN :eventIds")
+    List<String> findExistingIds(Collection<String> eventIds);
+
+    @Modifying
+    @Query("DELETE FROM ProcessedWebhookEvent e WHERE e.receivedAt < :cutoff")
+    int deleteReceivedBefore(LocalDateTime cutoff);
+}
@@ -0,0 +1,8 @@
+package com.medvault.repository;
+
+// Completed payment count and revenue summed over ledger rows
+public interface RevenueTotalsView {
+    Long getPayments();
+
+    Double getRevenue();
+}
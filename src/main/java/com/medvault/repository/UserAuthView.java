@@ -0,0 +1,21 @@
+package com.medvault.repository;
+
+import java.time.LocalDateTime;
+
+/**
+ * Auth-only view of a user, read straight from the {@code users} table so login
+ * and token checks never join the doctor/patient subclass tables.
+ */
+public interface UserAuthView {
+    Long getId();
+    String getEmail();
+    String getPassword();
+    String getRole();
+    Boolean getIsActive();
+    Boolean getIsPasswordSet();
+    LocalDateTime getPasswordResetTokenExpiry();
+    String getFirstName();
+    String getLastName();
+    String getPhoneNumber();
+    LocalDateTime getCreatedAt();
+}
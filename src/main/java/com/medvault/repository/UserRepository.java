@@ -3,14 +3,30 @@ package com.medvault.repository;
 import com.medvault.model.User;
 import com.medvault.model.enums.Role;
 import org. springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface UserRepository extends JpaRepository<User, Long> {
     Optional<User> findByEmail(String email);
+
+    // Single-table lookup for authentication; avoids the polymorphic outer joins of findByEmail
+    @Query(value = "SELECT u.id AS id, u.email AS email, u.password AS password, u.role AS role, " +
+            "u.is_active AS isActive, u.is_password_set AS isPasswordSet, " +
+            "u.password_reset_token_expiry AS passwordResetTokenExpiry, u.first_name AS firstName, " +
+            "u.last_name AS lastName, u.phone_number AS phoneNumber, u.created_at AS createdAt " +
+            "FROM users u WHERE u.email = :email", nativeQuery = true)
+    Optional<UserAuthView> findAuthViewByEmail(@Param("email") String email);
+
+    // Row locks in id order, so transactions locking overlapping sets can't deadlock on each other
+    @Query(value = "SELECT id FROM users WHERE id IN (:ids) ORDER BY id FOR UPDATE", nativeQuery = true)
+    List<Long> lockAllById(@Param("ids") Collection<Long> ids);
+
     Boolean existsByEmail(String email);
     Optional<User> findByPasswordResetToken(String token);
     List<User> findByRole(Role role);
@@ -0,0 +1,274 @@
+package com.medvault.service;
+
+import com.medvault.dto.response.AnalyticsRow;
+import com.medvault.event.AnalyticsEvent;
+import com.medvault.exception.BadRequestException;
+import com.medvault.model.DailyRollup;
+import com.medvault.model.enums.AnalyticsGroupBy;
+import com.medvault.model.enums.AnalyticsMetric;
+import com.medvault.repository.DailyRollupRepository;
+import com.medvault.repository.DoctorRepository;
+import com.medvault.repository.DoctorSpecializationView;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+/**
+ * Daily analytics per specialization, kept in {@code daily_rollups}.
+ *
+ * Committed {@link AnalyticsEvent}s are summed in memory and flushed every
+ * {@code analytics.flush-interval-ms} as one batch of upserts, so busy specializations
+ * don't turn their row for today into a lock every booking waits on. Anything lost
+ * between a commit and a flush (e.g. on a crash) is repaired by the nightly backfill,
+ * which recomputes the last {@code analytics.backfill-days} completed days from the
+ * base tables. Queries read only the rows in the requested range.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class AnalyticsRollupService {
+
+    public static final String UNSPECIFIED = "Unspecified";
+
+    private static final String UPSERT_SQL = "INSERT INTO daily_rollups (rollup_date, specialization, bookings, " +
+            "completed, cancelled, payments, revenue, feedbacks, rating_sum, updated_at) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?) " +
+            "ON DUPLICATE KEY UPDATE bookings = bookings + VALUES(bookings), completed = completed + VALUES(completed), " +
+            "cancelled = cancelled + VALUES(cancelled), payments = payments + VALUES(payments), " +
+            "revenue = revenue + VALUES(revenue), feedbacks = feedbacks + VALUES(feedbacks), " +
+            "rating_sum = rating_sum + VALUES(rating_sum), updated_at = VALUES(updated_at)";
+
+    private static final String SPECIALIZATION_SQL =
+            "COALESCE(NULLIF(TRIM(d.specialization), ''), '" + UNSPECIFIED + "')";
+
+    private static final String DELETE_RANGE_SQL = "DELETE FROM daily_rollups WHERE rollup_date BETWEEN ? AND ?";
+
+    // Same attribution as the events: booking day, day of the final status change, payment day, feedback day
+    private static final String BACKFILL_SQL = "INSERT INTO daily_rollups (rollup_date, specialization, bookings, " +
+            "completed, cancelled, payments, revenue, feedbacks, rating_sum, updated_at) " +
+            "SELECT t.rollup_date, t.specialization, SUM(t.bookings), SUM(t.completed), SUM(t.cancelled), " +
+            "SUM(t.payments), SUM(t.revenue), SUM(t.feedbacks), SUM(t.rating_sum), ? FROM (" +
+            "SELECT CAST(a.created_at AS DATE) AS rollup_date, " + SPECIALIZATION_SQL + " AS specialization, " +
+            "1 AS bookings, 0 AS completed, 0 AS cancelled, 0 AS payments, 0.0 AS revenue, 0 AS feedbacks, 0 AS rating_sum " +
+            "FROM appointments a JOIN doctors d ON d.user_id = a.doctor_id WHERE a.created_at >= ? AND a.created_at < ? " +
+            "UNION ALL SELECT CAST(a.updated_at AS DATE), " + SPECIALIZATION_SQL + ", 0, 1, 0, 0, 0.0, 0, 0 " +
+            "FROM appointments a JOIN doctors d ON d.user_id = a.doctor_id " +
+            "WHERE a.status = 'COMPLETED' AND a.updated_at >= ? AND a.updated_at < ? " +
+            "UNION ALL SELECT CAST(a.updated_at AS DATE), " + SPECIALIZATION_SQL + ", 0, 0, 1, 0, 0.0, 0, 0 " +
+            "FROM appointments a JOIN doctors d ON d.user_id = a.doctor_id " +
+            "WHERE a.status IN ('REJECTED', 'CANCELLED') AND a.updated_at >= ? AND a.updated_at < ? " +
+            "UNION ALL SELECT CAST(p.paid_at AS DATE), " + SPECIALIZATION_SQL + ", 0, 0, 0, 1, p.amount, 0, 0 " +
+            "FROM payments p JOIN appointments a ON a.id = p.appointment_id JOIN doctors d ON d.user_id = a.doctor_id " +
+            "WHERE p.status = 'COMPLETED' AND p.paid_at >= ? AND p.paid_at < ? " +
+            "UNION ALL SELECT CAST(f.created_at AS DATE), " + SPECIALIZATION_SQL + ", 0, 0, 0, 0, 0.0, 1, f.rating " +
+            "FROM feedbacks f JOIN doctors d ON d.user_id = f.doctor_id WHERE f.created_at >= ? AND f.created_at < ?" +
+            ") t GROUP BY t.rollup_date, t.specialization";
+
+    private final DailyRollupRepository rollupRepository;
+    private final DoctorRepository doctorRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+
+    // Deltas committed since the last flush, per doctor and day
+    private final Map<BufferKey, double[]> buffer = new ConcurrentHashMap<>();
+
+    @Value("${analytics.backfill-days:2}")
+    private int backfillDays;
+
+    @Value("${analytics.backfill-chunk-days:7}")
+    private int backfillChunkDays;
+
+    @Value("${analytics.max-range-days:731}")
+    private int maxRangeDays;
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onAnalyticsEvent(AnalyticsEvent event) {
+        buffer.compute(new BufferKey(event.doctorId(), event.day()), (key, deltas) -> {
+            double[] sums = deltas != null ? deltas : new double[AnalyticsMetric.values().length];
+            sums[event.metric().ordinal()] += event.amount();
+            return sums;
+        });
+    }
+
+    @Scheduled(fixedDelayString = "${analytics.flush-interval-ms:5000}")
+    public synchronized void flush() {
+        Map<BufferKey, double[]> drained = new HashMap<>();
+        for (BufferKey key : buffer.keySet()) {
+            double[] deltas = buffer.remove(key);
+            if (deltas != null) {
+                drained.put(key, deltas);
+            }
+        }
+        if (drained.isEmpty()) {
+            return;
+        }
+
+        try {
+            Set<Long> doctorIds = drained.keySet().stream().map(BufferKey::doctorId).collect(Collectors.toSet());
+            Map<Long, String> specializations = doctorRepository.findSpecializations(doctorIds).stream()
+                    .collect(Collectors.toMap(DoctorSpecializationView::getId,
+                            doctor -> specializationOf(doctor.getSpecialization())));
+
+            Map<DailyRollup.Key, double[]> rows = new HashMap<>();
+            drained.forEach((key, deltas) -> {
+                double[] sums = rows.computeIfAbsent(
+                        new DailyRollup.Key(key.day(), specializations.getOrDefault(key.doctorId(), UNSPECIFIED)),
+                        rollupKey -> new double[deltas.length]);
+                for (int i = 0; i < deltas.length; i++) {
+                    sums[i] += deltas[i];
+                }
+            });
+
+            // Fixed row order so concurrent flushes from several instances lock rows consistently
+            Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+            List<Object[]> batch = rows.entrySet().stream()
+                    .sorted(Map.Entry.comparingByKey(Comparator.comparing(DailyRollup.Key::getRollupDate)
+                            .thenComparing(DailyRollup.Key::getSpecialization)))
+                    .map(row -> upsertRow(row.getKey(), row.getValue(), now))
+                    .collect(Collectors.toList());
+            transactionTemplate.executeWithoutResult(status -> jdbcTemplate.batchUpdate(UPSERT_SQL, batch));
+        } catch (RuntimeException e) {
+            drained.forEach((key, deltas) -> buffer.merge(key, deltas, (current, failed) -> {
+                for (int i = 0; i < current.length; i++) {
+                    current[i] += failed[i];
+                }
+                return current;
+            }));
+            log.warn("Analytics flush failed, will retry: {}", e.getMessage());
+        }
+    }
+
+    // Yesterday and the days before it are settled, so recomputing them can't race the flush
+    @Scheduled(cron = "${analytics.backfill-cron:0 45 3 * * *}")
+    public void nightlyBackfill() {
+        LocalDate yesterday = LocalDate.now().minusDays(1);
+        backfill(yesterday.minusDays(backfillDays - 1L), yesterday);
+    }
+
+    /**
+     * Recompute [from, to] from the base tables, one transaction per chunk of days.
+     *
+     * @return number of rollup rows written
+     */
+    public int backfill(LocalDate from, LocalDate to) {
+        validateRange(from, to);
+        if (!to.isBefore(LocalDate.now())) {
+            throw new BadRequestException("Backfill can only cover days before today");
+        }
+
+        long started = System.currentTimeMillis();
+        int written = 0;
+        for (LocalDate chunkFrom = from; !chunkFrom.isAfter(to); chunkFrom = chunkFrom.plusDays(backfillChunkDays)) {
+            LocalDate chunkTo = chunkFrom.plusDays(backfillChunkDays - 1L).isAfter(to)
+                    ? to
+                    : chunkFrom.plusDays(backfillChunkDays - 1L);
+            LocalDate first = chunkFrom;
+            Integer rows = transactionTemplate.execute(status -> recompute(first, chunkTo));
+            written += rows != null ? rows : 0;
+        }
+        log.info("Backfilled analytics {} to {}: {} rows in {} ms",
+                from, to, written, System.currentTimeMillis() - started);
+        return written;
+    }
+
+    public List<AnalyticsRow> query(LocalDate from, LocalDate to, AnalyticsGroupBy groupBy, String specialization) {
+        validateRange(from, to);
+
+        Map<GroupKey, AnalyticsRow> groups = new LinkedHashMap<>();
+        for (DailyRollup rollup : rollupRepository.findBetween(from, to)) {
+            String rollupSpecialization = rollup.getId().getSpecialization();
+            if (specialization != null && !specialization.isBlank()
+                    && !rollupSpecialization.equalsIgnoreCase(specialization.trim())) {
+                continue;
+            }
+
+            LocalDate date = groupBy == AnalyticsGroupBy.DAY || groupBy == AnalyticsGroupBy.DAY_AND_SPECIALIZATION
+                    ? rollup.getId().getRollupDate()
+                    : null;
+            String groupSpecialization = groupBy == AnalyticsGroupBy.SPECIALIZATION
+                    || groupBy == AnalyticsGroupBy.DAY_AND_SPECIALIZATION ? rollupSpecialization : null;
+            AnalyticsRow row = groups.computeIfAbsent(new GroupKey(date, groupSpecialization),
+                    key -> AnalyticsRow.builder().date(date).specialization(groupSpecialization).build());
+
+            row.setBookings(row.getBookings() + rollup.getBookings());
+            row.setCompleted(row.getCompleted() + rollup.getCompleted());
+            row.setCancelled(row.getCancelled() + rollup.getCancelled());
+            row.setPayments(row.getPayments() + rollup.getPayments());
+            row.setRevenue(row.getRevenue() + rollup.getRevenue());
+            row.setFeedbacks(row.getFeedbacks() + rollup.getFeedbacks());
+            // Temporarily holds the rating sum; turned into the average below
+            row.setAverageRating((row.getAverageRating() != null ? row.getAverageRating() : 0) + rollup.getRatingSum());
+        }
+
+        List<AnalyticsRow> rows = new ArrayList<>(groups.values());
+        for (AnalyticsRow row : rows) {
+            row.setAverageRating(row.getFeedbacks() > 0 ? row.getAverageRating() / row.getFeedbacks() : null);
+        }
+        if (groupBy == AnalyticsGroupBy.SPECIALIZATION) {
+            rows.sort(Comparator.comparing(AnalyticsRow::getSpecialization));
+        }
+        return rows;
+    }
+
+    public static String specializationOf(String specialization) {
+        return specialization == null || specialization.isBlank() ? UNSPECIFIED : specialization.trim();
+    }
+
+    private int recompute(LocalDate from, LocalDate to) {
+        jdbcTemplate.update(DELETE_RANGE_SQL, Date.valueOf(from), Date.valueOf(to));
+        Timestamp start = Timestamp.valueOf(from.atStartOfDay());
+        Timestamp end = Timestamp.valueOf(to.plusDays(1).atStartOfDay());
+        return jdbcTemplate.update(BACKFILL_SQL, Timestamp.valueOf(LocalDateTime.now()),
+                start, end, start, end, start, end, start, end, start, end);
+    }
+
+    private void validateRange(LocalDate from, LocalDate to) {
+        if (from == null || to == null || from.isAfter(to)) {
+            throw new BadRequestException("A date range with from on or before to is required");
+        }
+        if (ChronoUnit.DAYS.between(from, to) >= maxRangeDays) {
+            throw new BadRequestException("Date range cannot exceed " + maxRangeDays + " days");
+        }
+    }
+
+    private static Object[] upsertRow(DailyRollup.Key key, double[] sums, Timestamp now) {
+        return new Object[] {
+                Date.valueOf(key.getRollupDate()),
+                key.getSpecialization(),
+                (long) sums[AnalyticsMetric.BOOKINGS.ordinal()],
+                (long) sums[AnalyticsMetric.COMPLETED.ordinal()],
+                (long) sums[AnalyticsMetric.CANCELLED.ordinal()],
+                (long) sums[AnalyticsMetric.PAYMENTS.ordinal()],
+                sums[AnalyticsMetric.REVENUE.ordinal()],
+                (long) sums[AnalyticsMetric.FEEDBACKS.ordinal()],
+                (long) sums[AnalyticsMetric.RATING_SUM.ordinal()],
+                now
+        };
+    }
+
+    private record BufferKey(Long doctorId, LocalDate day) {
+    }
+
+    private record GroupKey(LocalDate date, String specialization) {
+    }
+}
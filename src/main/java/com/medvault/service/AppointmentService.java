@@ -1,22 +1,52 @@
 package com.medvault.service;
 
 import com.medvault.dto.request.AppointmentRequest;
+import com.medvault.dto.request.BulkStatusUpdateRequest;
 import com.medvault.dto.response.AppointmentResponse;
+import com.medvault.dto.response.BulkStatusUpdateResponse;
+import com.medvault.dto.response.CursorPage;
+import com.medvault.event.AnalyticsEvent;
+import com.medvault.event.AppointmentApprovedEvent;
+import com.medvault.event.AppointmentSlotChangedEvent;
+import com.medvault.event.AppointmentWithdrawnEvent;
+import com.medvault.event.DashboardChangedEvent;
 import com.medvault.exception.ResourceNotFoundException;
 import com.medvault.model.Appointment;
 import com.medvault.model.Doctor;
 import com.medvault.model.Patient;
+import com.medvault.model.enums.AnalyticsMetric;
 import com.medvault.model.enums.AppointmentStatus;
+import com.medvault.model.enums.DashboardCounter;
+import com.medvault.model.enums.OutboxEventType;
 import com.medvault.repository.AppointmentRepository;
+import com.medvault.repository.AppointmentStatusView;
 import com.medvault.repository.DoctorRepository;
 import com.medvault.repository.PatientRepository;
+import com.medvault.util.KeysetCursor;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.sql.Timestamp;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
@@ -24,28 +54,51 @@ import java.util.stream.Collectors;
 @Slf4j
 public class AppointmentService {
 
+    // Compare-and-set on (status, version), like AppointmentRepository.compareAndSetStatus
+    private static final String BULK_STATUS_UPDATE_SQL = "UPDATE appointments SET status = ?, active_slot = ?, " +
+            "doctor_notes = COALESCE(?, doctor_notes), rejection_reason = COALESCE(?, rejection_reason), " +
+            "updated_at = ?, version = version + 1 WHERE id = ? AND status = ? AND version = ?";
+
+    private static final String CONCURRENT_UPDATE_MESSAGE =
+            "The appointment was changed by someone else at the same time, please try again";
+
     private final AppointmentRepository appointmentRepository;
     private final PatientRepository patientRepository;
     private final DoctorRepository doctorRepository;
-    private final EmailService emailService;
-    private final NotificationService notificationService;
-
-    // Get appointments for a patient
-    public List<AppointmentResponse> getPatientAppointments(Long patientId) {
+    private final OutboxService outboxService;
+    private final JdbcTemplate jdbcTemplate;
+    private final AppointmentSlotEngine slotEngine;
+    private final ApplicationEventPublisher eventPublisher;
+    private final TransactionTemplate transactionTemplate;
+    private final DashboardCounterService dashboardCounters;
+
+    @Value("${appointments.transition.max-attempts:3}")
+    private int maxTransitionAttempts;
+
+    // Get a page of appointments for a patient, latest first
+    public CursorPage<AppointmentResponse> getPatientAppointments(Long patientId, String cursor, Integer limit) {
         log.info("Fetching appointments for patient: {}", patientId);
-        return appointmentRepository.findByPatientIdOrderByAppointmentDateTimeDesc(patientId)
-                .stream()
-                .map(this::convertToResponse)
-                .collect(Collectors.toList());
+        KeysetCursor after = KeysetCursor.decode(cursor);
+        int size = CursorPage.resolveLimit(limit);
+        List<AppointmentResponse> rows = after == null
+                ? appointmentRepository.findPatientPage(patientId, CursorPage.fetchLimit(size))
+                : appointmentRepository.findPatientPageAfter(patientId, after.timestamp(), after.id(),
+                        CursorPage.fetchLimit(size));
+        return CursorPage.of(rows, size, appointment -> appointment,
+                appointment -> new KeysetCursor(appointment.getAppointmentDateTime(), appointment.getId()));
     }
 
-    // Get appointments for a doctor
-    public List<AppointmentResponse> getDoctorAppointments(Long doctorId) {
+    // Get a page of appointments for a doctor, latest first
+    public CursorPage<AppointmentResponse> getDoctorAppointments(Long doctorId, String cursor, Integer limit) {
         log.info("Fetching appointments for doctor: {}", doctorId);
-        return appointmentRepository.findByDoctorIdOrderByAppointmentDateTimeDesc(doctorId)
-                .stream()
-                .map(this::convertToResponse)
-                .collect(Collectors.toList());
+        KeysetCursor after = KeysetCursor.decode(cursor);
+        int size = CursorPage.resolveLimit(limit);
+        List<AppointmentResponse> rows = after == null
+                ? appointmentRepository.findDoctorPage(doctorId, CursorPage.fetchLimit(size))
+                : appointmentRepository.findDoctorPageAfter(doctorId, after.timestamp(), after.id(),
+                        CursorPage.fetchLimit(size));
+        return CursorPage.of(rows, size, appointment -> appointment,
+                appointment -> new KeysetCursor(appointment.getAppointmentDateTime(), appointment.getId()));
     }
 
     // Book a new appointment
@@ -66,161 +119,202 @@ public class AppointmentService {
             throw new IllegalStateException("Doctor is not currently accepting appointments");
         }
 
+        // Claim the slot for doctor and patient; released again if this transaction rolls back.
+        // The in-memory check turns most conflicts away cheaply, the locked table check covers other instances
+        LocalDateTime slotStart = request.getAppointmentDateTime();
+        slotEngine.reserve(doctor.getId(), patient.getId(), slotStart);
+        slotEngine.confirm(doctor.getId(), patient.getId(), slotStart);
+
         // Create new appointment using Builder
         Appointment appointment = Appointment.builder()
                 .patient(patient)
                 .doctor(doctor)
-                .appointmentDateTime(request.getAppointmentDateTime())
+                .appointmentDateTime(slotStart)
+                .activeSlot(slotEngine.slotKey(slotStart))
                 .reasonForVisit(request.getReasonForVisit())
                 .symptoms(request.getSymptoms())
                 .status(AppointmentStatus.PENDING)
                 .build();
 
-        // Save appointment
-        Appointment savedAppointment = appointmentRepository.save(appointment);
-
-        // Create notification for patient
-        try {
-            String doctorName = "Dr. " + doctor.getFirstName() + " " + doctor.getLastName();
-            notificationService.createNotification(
-                    patient,
-                    "Appointment Booked",
-                    String.format("Your appointment with %s has been booked successfully and is pending approval.",
-                            doctorName),
-                    "APPOINTMENT");
-        } catch (Exception e) {
-            log.error("Failed to create notification", e);
-        }
-
-        // Send confirmation email to patient
-        try {
-            String patientName = patient.getFirstName() + " " + patient.getLastName();
-            String doctorName = "Dr. " + doctor.getFirstName() + " " + doctor.getLastName();
-            emailService.sendAppointmentConfirmationEmail(
-                    patient.getEmail(),
-                    patientName,
-                    doctorName,
-                    request.getAppointmentDateTime().toString());
-        } catch (Exception e) {
-            log.error("Failed to send appointment confirmation email", e);
-            // Don't fail the appointment booking if email fails
-        }
-
-        // Send notification email to doctor about new booking
+        // Save appointment; the unique slot constraints remain as a backstop for same-cell duplicates
+        Appointment savedAppointment;
         try {
-            String patientName = patient.getFirstName() + " " + patient.getLastName();
-            String doctorName = doctor.getFirstName() + " " + doctor.getLastName();
-            emailService.sendDoctorNewBookingEmail(
-                    doctor.getEmail(),
-                    doctorName,
-                    patientName,
-                    request.getAppointmentDateTime().toString(),
-                    request.getReasonForVisit());
-            log.info("✅ Notification email sent to doctor: {}", doctor.getEmail());
-        } catch (Exception e) {
-            log.error("Failed to send doctor notification email", e);
-            // Don't fail the appointment booking if email fails
+            savedAppointment = appointmentRepository.saveAndFlush(appointment);
+        } catch (DataIntegrityViolationException e) {
+            throw new IllegalStateException("This time slot has already been booked");
         }
+        eventPublisher.publishEvent(new AppointmentSlotChangedEvent(doctor.getId(), slotStart, true));
+        eventPublisher.publishEvent(new AnalyticsEvent(doctor.getId(),
+                savedAppointment.getCreatedAt().toLocalDate(), AnalyticsMetric.BOOKINGS, 1));
+        dashboardCounters.adjustAll(List.of(
+                new DashboardCounterService.Change(patient.getId(), DashboardCounter.APPOINTMENTS_TOTAL, 1),
+                new DashboardCounterService.Change(patient.getId(), DashboardCounter.APPOINTMENTS_PENDING, 1),
+                new DashboardCounterService.Change(doctor.getId(), DashboardCounter.APPOINTMENTS_TOTAL, 1),
+                new DashboardCounterService.Change(doctor.getId(), DashboardCounter.APPOINTMENTS_PENDING, 1)));
+
+        // Notification and emails are delivered by the outbox relay once this commits
+        String patientName = patient.getFirstName() + " " + patient.getLastName();
+        String doctorName = "Dr. " + doctor.getFirstName() + " " + doctor.getLastName();
+        Long appointmentId = savedAppointment.getId();
+
+        outboxService.enqueue(OutboxEventType.PATIENT_NOTIFICATION, appointmentId, Map.of(
+                "patientId", patient.getId(),
+                "title", "Appointment Booked",
+                "message", String.format(
+                        "Your appointment with %s has been booked successfully and is pending approval.", doctorName),
+                "notificationType", "APPOINTMENT"));
+
+        outboxService.enqueue(OutboxEventType.APPOINTMENT_CONFIRMATION_EMAIL, appointmentId, Map.of(
+                "to", patient.getEmail(),
+                "patientName", patientName,
+                "doctorName", doctorName,
+                "appointmentDateTime", slotStart.toString()));
+
+        Map<String, Object> doctorEmail = new HashMap<>();
+        doctorEmail.put("to", doctor.getEmail());
+        doctorEmail.put("doctorName", doctor.getFirstName() + " " + doctor.getLastName());
+        doctorEmail.put("patientName", patientName);
+        doctorEmail.put("appointmentDateTime", slotStart.toString());
+        doctorEmail.put("reasonForVisit", request.getReasonForVisit());
+        outboxService.enqueue(OutboxEventType.DOCTOR_NEW_BOOKING_EMAIL, appointmentId, doctorEmail);
 
         log.info("✅ Appointment booked successfully: {}", savedAppointment.getId());
         return convertToResponse(savedAppointment);
     }
 
     // Update appointment status (for doctors)
-    @Transactional
     public AppointmentResponse updateAppointmentStatus(Long appointmentId, AppointmentStatus status,
             String notes, String doctorId) {
         log.info("Updating appointment {} status to {}", appointmentId, status);
 
-        // Find appointment
-        Appointment appointment = appointmentRepository.findById(appointmentId)
-                .orElseThrow(() -> new ResourceNotFoundException("Appointment not found with id: " + appointmentId));
+        boolean hasNotes = notes != null && !notes.isEmpty();
+        String doctorNotes = hasNotes && status != AppointmentStatus.REJECTED ? notes : null;
+        String rejectionReason = hasNotes && status == AppointmentStatus.REJECTED ? notes : null;
 
-        // Verify doctor owns this appointment
-        if (!appointment.getDoctor().getId().toString().equals(doctorId)) {
-            throw new IllegalStateException("You can only update your own appointments");
-        }
+        AppointmentResponse response = transition(appointmentId, status, doctorNotes, rejectionReason, appointment -> {
+            // Verify doctor owns this appointment
+            if (!appointment.getDoctorId().toString().equals(doctorId)) {
+                throw new IllegalStateException("You can only update your own appointments");
+            }
+        }, appointment -> statusChangeMessages(appointment.getId(), appointment.getPatientId(),
+                appointment.getPatientEmail(), appointment.getPatientName(), appointment.getDoctorName(),
+                appointment.getAppointmentDateTime(), status));
 
-        // Update status and notes
-        appointment.setStatus(status);
+        log.info("✅ Appointment status updated successfully");
+        return response;
+    }
 
-        if (notes != null && !notes.isEmpty()) {
-            if (status == AppointmentStatus.REJECTED) {
-                appointment.setRejectionReason(notes);
+    // Update many appointments of one doctor: per attempt, one ownership query, one JDBC batch of
+    // compare-and-set updates and one batch of outbox rows. Items that lose a race are re-read and
+    // retried; items that cannot be applied are reported, not thrown.
+    public BulkStatusUpdateResponse bulkUpdateStatus(Long doctorId, List<BulkStatusUpdateRequest.Item> items) {
+        log.info("Bulk updating {} appointments for doctor {}", items.size(), doctorId);
+
+        BulkStatusUpdateResponse.ItemResult[] results = new BulkStatusUpdateResponse.ItemResult[items.size()];
+        Map<Integer, BulkStatusUpdateRequest.Item> pending = new LinkedHashMap<>();
+        Set<Long> seen = new HashSet<>();
+        for (int i = 0; i < items.size(); i++) {
+            BulkStatusUpdateRequest.Item item = items.get(i);
+            if (seen.add(item.getAppointmentId())) {
+                pending.put(i, item);
             } else {
-                appointment.setDoctorNotes(notes);
+                results[i] = failure(item, "Appointment appears more than once in the request");
             }
         }
 
-        Appointment updatedAppointment = appointmentRepository.save(appointment);
+        for (int attempt = 1; !pending.isEmpty(); attempt++) {
+            boolean lastAttempt = attempt >= maxTransitionAttempts;
+            transactionTemplate.executeWithoutResult(tx -> applyBulkAttempt(doctorId, pending, results, lastAttempt));
+        }
 
-        // Create notification for patient
-        try {
-            String doctorName = "Dr. " + appointment.getDoctor().getFirstName() + " " +
-                    appointment.getDoctor().getLastName();
-            String notificationTitle = "Appointment Status Updated";
-            String notificationMessage;
-
-            switch (status) {
-                case APPROVED:
-                    notificationMessage = String.format("Your appointment with %s has been approved.", doctorName);
-                    break;
-                case REJECTED:
-                    notificationMessage = String.format("Your appointment with %s has been rejected.", doctorName);
-                    break;
-                case COMPLETED:
-                    notificationMessage = String
-                            .format("Your appointment with %s has been completed. Please leave feedback!", doctorName);
-
-                    // Send feedback request email
-                    try {
-                        String patientName = appointment.getPatient().getFirstName() + " " +
-                                appointment.getPatient().getLastName();
-                        emailService.sendFeedbackRequestEmail(
-                                appointment.getPatient().getEmail(),
-                                patientName,
-                                doctorName,
-                                appointment.getId());
-                    } catch (Exception ex) {
-                        log.error("Failed to send feedback request email", ex);
-                    }
-                    break;
-                case CANCELLED:
-                    notificationMessage = String.format("Your appointment with %s has been cancelled.", doctorName);
-                    break;
-                default:
-                    notificationMessage = String.format("Your appointment status with %s has been updated to %s.",
-                            doctorName, status.name());
-            }
+        int updated = (int) Arrays.stream(results).filter(BulkStatusUpdateResponse.ItemResult::getSuccess).count();
+        log.info("✅ Bulk update applied {} of {} appointment changes", updated, items.size());
+        return BulkStatusUpdateResponse.builder()
+                .requested(items.size())
+                .updated(updated)
+                .failed(items.size() - updated)
+                .results(Arrays.asList(results))
+                .build();
+    }
 
-            notificationService.createNotification(
-                    appointment.getPatient(),
-                    notificationTitle,
-                    notificationMessage,
-                    "APPOINTMENT");
-        } catch (Exception e) {
-            log.error("Failed to create notification", e);
+    // Settles every pending item except those whose compare-and-set lost a race, which stay pending
+    private void applyBulkAttempt(Long doctorId, Map<Integer, BulkStatusUpdateRequest.Item> pending,
+            BulkStatusUpdateResponse.ItemResult[] results, boolean lastAttempt) {
+        Set<Long> ids = pending.values().stream()
+                .map(BulkStatusUpdateRequest.Item::getAppointmentId)
+                .collect(Collectors.toSet());
+        Map<Long, AppointmentStatusView> appointments = appointmentRepository.findStatusViewsByIdIn(ids).stream()
+                .collect(Collectors.toMap(AppointmentStatusView::getId, view -> view));
+
+        List<PlannedStatusUpdate> planned = new ArrayList<>();
+        for (Iterator<Map.Entry<Integer, BulkStatusUpdateRequest.Item>> it = pending.entrySet().iterator(); it.hasNext(); ) {
+            Map.Entry<Integer, BulkStatusUpdateRequest.Item> entry = it.next();
+            BulkStatusUpdateRequest.Item item = entry.getValue();
+            AppointmentStatusView view = appointments.get(item.getAppointmentId());
+
+            if (view == null) {
+                results[entry.getKey()] = failure(item, "Appointment not found with id: " + item.getAppointmentId());
+                it.remove();
+            } else if (!view.getDoctorId().equals(doctorId)) {
+                results[entry.getKey()] = failure(item, "You can only update your own appointments");
+                it.remove();
+            } else if (!view.getStatus().canTransitionTo(item.getStatus())) {
+                results[entry.getKey()] = failure(item, transitionError(view.getStatus(), item.getStatus()));
+                it.remove();
+            } else {
+                planned.add(new PlannedStatusUpdate(entry.getKey(), item, view));
+            }
         }
 
-        // Send status update email to patient
-        try {
-            String patientName = appointment.getPatient().getFirstName() + " " +
-                    appointment.getPatient().getLastName();
-            String doctorName = "Dr.  " + appointment.getDoctor().getFirstName() + " " +
-                    appointment.getDoctor().getLastName();
-
-            emailService.sendAppointmentStatusEmail(
-                    appointment.getPatient().getEmail(),
-                    patientName,
-                    status.name(),
-                    doctorName,
-                    appointment.getAppointmentDateTime().toString());
-        } catch (Exception e) {
-            log.error("Failed to send appointment status email", e);
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        int[] counts = jdbcTemplate.batchUpdate(BULK_STATUS_UPDATE_SQL, planned.stream()
+                .map(update -> {
+                    AppointmentStatusView view = update.view();
+                    AppointmentStatus next = update.item().getStatus();
+                    String notes = update.item().getNotes();
+                    boolean hasNotes = notes != null && !notes.isEmpty();
+                    LocalDateTime activeSlot = holdsSlot(next) ? view.getActiveSlot() : null;
+                    return new Object[] {
+                            next.name(),
+                            activeSlot != null ? Timestamp.valueOf(activeSlot) : null,
+                            hasNotes && next != AppointmentStatus.REJECTED ? notes : null,
+                            hasNotes && next == AppointmentStatus.REJECTED ? notes : null,
+                            now,
+                            view.getId(),
+                            view.getStatus().name(),
+                            view.getVersion()
+                    };
+                })
+                .collect(Collectors.toList()));
+
+        List<OutboxService.Message> messages = new ArrayList<>();
+        List<DashboardCounterService.Change> counterChanges = new ArrayList<>();
+        for (int i = 0; i < planned.size(); i++) {
+            PlannedStatusUpdate update = planned.get(i);
+            AppointmentStatusView view = update.view();
+            if (counts[i] == 0) {
+                // Another writer changed the appointment since it was read
+                if (lastAttempt) {
+                    results[update.index()] = failure(update.item(), CONCURRENT_UPDATE_MESSAGE);
+                    pending.remove(update.index());
+                }
+                continue;
+            }
+            afterTransition(view, update.item().getStatus());
+            counterChanges.addAll(counterChanges(view, update.item().getStatus()));
+            messages.addAll(statusChangeMessages(view.getId(), view.getPatientId(), view.getPatientEmail(),
+                    view.getPatientName(), view.getDoctorName(), view.getAppointmentDateTime(),
+                    update.item().getStatus()));
+            results[update.index()] = BulkStatusUpdateResponse.ItemResult.builder()
+                    .appointmentId(view.getId())
+                    .success(true)
+                    .status(update.item().getStatus())
+                    .message("Appointment status updated")
+                    .build();
+            pending.remove(update.index());
         }
-
-        log.info("✅ Appointment status updated successfully");
-        return convertToResponse(updatedAppointment);
+        dashboardCounters.adjustAll(counterChanges);
+        outboxService.enqueueAll(messages);
     }
 
     // Get appointment by ID
@@ -232,29 +326,160 @@ public class AppointmentService {
     }
 
     // Cancel appointment (for patients)
-    @Transactional
     public void cancelAppointment(Long appointmentId, Long userId) {
         log.info("Cancelling appointment: {} by user: {}", appointmentId, userId);
 
-        Appointment appointment = appointmentRepository.findById(appointmentId)
-                .orElseThrow(() -> new ResourceNotFoundException("Appointment not found with id: " + appointmentId));
+        // Recorded as CANCELLED, not as a doctor's rejection; the doctor is the one who needs telling
+        transition(appointmentId, AppointmentStatus.CANCELLED, null, null, appointment -> {
+            // Verify the user has permission to cancel (must be the patient who booked it)
+            if (!appointment.getPatientId().equals(userId)) {
+                throw new IllegalStateException("You can only cancel your own appointments");
+            }
+        }, appointment -> List.of(new OutboxService.Message(OutboxEventType.DOCTOR_CANCELLATION_EMAIL,
+                appointment.getId(), Map.of(
+                        "to", appointment.getDoctorEmail(),
+                        "doctorName", appointment.getDoctorName(),
+                        "patientName", appointment.getPatientName(),
+                        "appointmentDateTime", appointment.getAppointmentDateTime().toString()))));
+
+        log.info("✅ Appointment cancelled successfully");
+    }
+
+    /**
+     * Apply one status transition as a compare-and-set on the appointment's status and version,
+     * together with the outbox messages {@code messages} builds for it. If another writer got there first, the appointment is
+     * re-read in a fresh transaction and the transition re-checked, up to
+     * {@code appointments.transition.max-attempts} times. Nobody blocks and no write is lost.
+     */
+    private AppointmentResponse transition(Long appointmentId, AppointmentStatus next, String doctorNotes,
+            String rejectionReason, Consumer<AppointmentStatusView> authorize,
+            Function<AppointmentStatusView, List<OutboxService.Message>> messages) {
+        for (int attempt = 1; ; attempt++) {
+            AppointmentResponse response = transactionTemplate.execute(tx -> {
+                AppointmentStatusView current = appointmentRepository.findStatusViewById(appointmentId)
+                        .orElseThrow(() -> new ResourceNotFoundException("Appointment not found with id: " + appointmentId));
+                authorize.accept(current);
+                if (!current.getStatus().canTransitionTo(next)) {
+                    throw new IllegalStateException(transitionError(current.getStatus(), next));
+                }
+
+                int updated = appointmentRepository.compareAndSetStatus(appointmentId, current.getStatus(),
+                        current.getVersion(), next, holdsSlot(next) ? current.getActiveSlot() : null,
+                        doctorNotes, rejectionReason, LocalDateTime.now());
+                if (updated == 0) {
+                    return null;
+                }
+
+                afterTransition(current, next);
+                dashboardCounters.adjustAll(counterChanges(current, next));
+                // Notification and emails are delivered by the outbox relay once this commits
+                outboxService.enqueueAll(messages.apply(current));
+                return appointmentRepository.findResponseById(appointmentId).orElseThrow();
+            });
+
+            if (response != null) {
+                return response;
+            }
+            if (attempt >= maxTransitionAttempts) {
+                throw new IllegalStateException(CONCURRENT_UPDATE_MESSAGE);
+            }
+            log.debug("Appointment {} changed concurrently, retrying transition to {} (attempt {})",
+                    appointmentId, next, attempt);
+        }
+    }
+
+    private static String transitionError(AppointmentStatus from, AppointmentStatus to) {
+        return String.format("Cannot change a %s appointment to %s", from, to);
+    }
+
+    // Side effects of an applied transition: free the slot once the appointment stops occupying it
+    // (the transition table never moves one back), and tell the reminder dispatcher, dashboards and analytics
+    private void afterTransition(AppointmentStatusView appointment, AppointmentStatus next) {
+        if (holdsSlot(appointment.getStatus()) && !holdsSlot(next)) {
+            slotEngine.release(appointment.getDoctorId(), appointment.getPatientId(), appointment.getAppointmentDateTime());
+            eventPublisher.publishEvent(new AppointmentSlotChangedEvent(
+                    appointment.getDoctorId(), appointment.getAppointmentDateTime(), false));
+        }
+        if (next == AppointmentStatus.APPROVED) {
+            eventPublisher.publishEvent(new AppointmentApprovedEvent(appointment.getId(), appointment.getAppointmentDateTime()));
+        }
+        if (appointment.getStatus() == AppointmentStatus.APPROVED && !holdsSlot(next)) {
+            eventPublisher.publishEvent(new AppointmentWithdrawnEvent(appointment.getId(), appointment.getAppointmentDateTime()));
+        }
+        if (next == AppointmentStatus.COMPLETED) {
+            eventPublisher.publishEvent(new AnalyticsEvent(
+                    appointment.getDoctorId(), LocalDate.now(), AnalyticsMetric.COMPLETED, 1));
+        } else if (next == AppointmentStatus.REJECTED || next == AppointmentStatus.CANCELLED) {
+            eventPublisher.publishEvent(new AnalyticsEvent(
+                    appointment.getDoctorId(), LocalDate.now(), AnalyticsMetric.CANCELLED, 1));
+        }
+        // Status shows in both dashboards' recent activity even when no counter moves
+        eventPublisher.publishEvent(new DashboardChangedEvent(
+                List.of(appointment.getPatientId(), appointment.getDoctorId())));
+    }
 
-        // Verify the user has permission to cancel (must be the patient who booked it)
-        if (!appointment.getPatient().getId().equals(userId)) {
-            throw new IllegalStateException("You can only cancel your own appointments");
+    // Leaving PENDING is the only transition that moves a dashboard counter
+    private static List<DashboardCounterService.Change> counterChanges(AppointmentStatusView appointment,
+            AppointmentStatus next) {
+        if (appointment.getStatus() != AppointmentStatus.PENDING || next == AppointmentStatus.PENDING) {
+            return List.of();
         }
+        return List.of(
+                new DashboardCounterService.Change(appointment.getPatientId(), DashboardCounter.APPOINTMENTS_PENDING, -1),
+                new DashboardCounterService.Change(appointment.getDoctorId(), DashboardCounter.APPOINTMENTS_PENDING, -1));
+    }
 
-        // Check if appointment can be cancelled
-        if (appointment.getStatus() == AppointmentStatus.COMPLETED) {
-            throw new IllegalStateException("Cannot cancel completed appointments");
+    // Notification and emails for a status change, delivered by the outbox relay once the change commits
+    private List<OutboxService.Message> statusChangeMessages(Long appointmentId, Long patientId, String patientEmail,
+            String patientName, String doctorName, LocalDateTime appointmentDateTime, AppointmentStatus status) {
+        String notificationMessage = switch (status) {
+            case APPROVED -> String.format("Your appointment with %s has been approved.", doctorName);
+            case REJECTED -> String.format("Your appointment with %s has been rejected.", doctorName);
+            case COMPLETED -> String.format(
+                    "Your appointment with %s has been completed. Please leave feedback!", doctorName);
+            case CANCELLED -> String.format("Your appointment with %s has been cancelled.", doctorName);
+            default -> String.format("Your appointment status with %s has been updated to %s.",
+                    doctorName, status.name());
+        };
+
+        List<OutboxService.Message> messages = new ArrayList<>(3);
+        messages.add(new OutboxService.Message(OutboxEventType.PATIENT_NOTIFICATION, appointmentId, Map.of(
+                "patientId", patientId,
+                "title", "Appointment Status Updated",
+                "message", notificationMessage,
+                "notificationType", "APPOINTMENT")));
+
+        if (status == AppointmentStatus.COMPLETED) {
+            messages.add(new OutboxService.Message(OutboxEventType.FEEDBACK_REQUEST_EMAIL, appointmentId, Map.of(
+                    "to", patientEmail,
+                    "patientName", patientName,
+                    "doctorName", doctorName,
+                    "appointmentId", appointmentId)));
         }
 
-        // Update status to REJECTED (cancelled by patient)
-        appointment.setStatus(AppointmentStatus.REJECTED);
-        appointment.setRejectionReason("Cancelled by patient");
-        appointmentRepository.save(appointment);
+        messages.add(new OutboxService.Message(OutboxEventType.APPOINTMENT_STATUS_EMAIL, appointmentId, Map.of(
+                "to", patientEmail,
+                "patientName", patientName,
+                "status", status.name(),
+                "doctorName", doctorName,
+                "appointmentDateTime", appointmentDateTime.toString())));
+        return messages;
+    }
 
-        log.info("✅ Appointment cancelled successfully");
+    private static BulkStatusUpdateResponse.ItemResult failure(BulkStatusUpdateRequest.Item item, String message) {
+        return BulkStatusUpdateResponse.ItemResult.builder()
+                .appointmentId(item.getAppointmentId())
+                .success(false)
+                .status(item.getStatus())
+                .message(message)
+                .build();
+    }
+
+    private static boolean holdsSlot(AppointmentStatus status) {
+        return status != AppointmentStatus.REJECTED && status != AppointmentStatus.CANCELLED;
+    }
+
+    private record PlannedStatusUpdate(int index, BulkStatusUpdateRequest.Item item, AppointmentStatusView view) {
     }
 
     // Helper method to convert Appointment entity to AppointmentResponse DTO
@@ -0,0 +1,251 @@
+package com.medvault.service;
+
+import com.medvault.repository.AppointmentRepository;
+import com.medvault.repository.UserRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+
+/**
+ * In-memory interval index of booked appointment slots, per doctor and per patient.
+ *
+ * Every appointment occupies {@code appointments.slot-minutes} from its start time;
+ * a booking is refused if it overlaps another active appointment of the same
+ * doctor or the same patient. Doctors and patients are guarded by striped locks
+ * (doctor stripe first, then patient stripe), so bookings for unrelated doctors
+ * never contend. Indexes are loaded lazily from the database and reloaded once
+ * older than {@code appointments.slot-index-ttl-seconds}, so a slot freed on
+ * another instance becomes bookable here again.
+ *
+ * The index is per instance and only a fast first check. The cross-instance
+ * guarantee is {@link #confirm}, which locks the doctor's and patient's rows and
+ * re-checks against the table in the booking transaction; the unique
+ * {@code active_slot} constraints only catch same-cell duplicates.
+ */
+@Component
+@Slf4j
+public class AppointmentSlotEngine {
+
+    private static final int STRIPES = 256;
+
+    private final AppointmentRepository appointmentRepository;
+    private final UserRepository userRepository;
+    private final Duration slotLength;
+    private final long indexTtlNanos;
+
+    private final ReentrantLock[] doctorLocks = newStripes();
+    private final ReentrantLock[] patientLocks = newStripes();
+    private final Map<Long, SlotIndex> doctorSlots = new ConcurrentHashMap<>();
+    private final Map<Long, SlotIndex> patientSlots = new ConcurrentHashMap<>();
+
+    public AppointmentSlotEngine(AppointmentRepository appointmentRepository,
+            UserRepository userRepository,
+            @Value("${appointments.slot-minutes:30}") int slotMinutes,
+            @Value("${appointments.slot-index-ttl-seconds:60}") long indexTtlSeconds) {
+        this.appointmentRepository = appointmentRepository;
+        this.userRepository = userRepository;
+        this.slotLength = Duration.ofMinutes(slotMinutes);
+        this.indexTtlNanos = TimeUnit.SECONDS.toNanos(indexTtlSeconds);
+    }
+
+    public Duration getSlotLength() {
+        return slotLength;
+    }
+
+    /**
+     * Start of the fixed slot grid cell containing {@code start}; persisted as the
+     * appointment's active slot so the database rejects same-slot double bookings.
+     */
+    public LocalDateTime slotKey(LocalDateTime start) {
+        long slotMinutes = slotLength.toMinutes();
+        LocalDateTime midnight = start.toLocalDate().atStartOfDay();
+        long minutes = Duration.between(midnight, start).toMinutes();
+        return midnight.plusMinutes(minutes - (minutes % slotMinutes));
+    }
+
+    /**
+     * Claim the slot for both doctor and patient, or throw if either already has an
+     * overlapping appointment. Inside a transaction the claim is rolled back with it.
+     */
+    public void reserve(Long doctorId, Long patientId, LocalDateTime start) {
+        ReentrantLock doctorLock = doctorLocks[stripe(doctorId)];
+        ReentrantLock patientLock = patientLocks[stripe(patientId)];
+
+        doctorLock.lock();
+        try {
+            patientLock.lock();
+            try {
+                NavigableSet<LocalDateTime> doctorIndex = index(doctorSlots, doctorId,
+                        id -> appointmentRepository.findActiveDoctorSlotsFrom(id, LocalDateTime.now().minus(slotLength)));
+                if (overlaps(doctorIndex, start)) {
+                    throw new IllegalStateException("The doctor already has an appointment in this time slot");
+                }
+
+                NavigableSet<LocalDateTime> patientIndex = index(patientSlots, patientId,
+                        id -> appointmentRepository.findActivePatientSlotsFrom(id, LocalDateTime.now().minus(slotLength)));
+                if (overlaps(patientIndex, start)) {
+                    throw new IllegalStateException("You already have an appointment in this time slot");
+                }
+
+                doctorIndex.add(start);
+                patientIndex.add(start);
+            } finally {
+                patientLock.unlock();
+            }
+        } finally {
+            doctorLock.unlock();
+        }
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    if (status != STATUS_COMMITTED) {
+                        releaseNow(doctorId, patientId, start);
+                    }
+                }
+            });
+        }
+    }
+
+    /**
+     * Check the booking against every committed appointment, on any instance. Locks the
+     * doctor's and the patient's user rows in id order, so bookings that share either
+     * serialize until commit, then looks for an overlapping active appointment in the table.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void confirm(Long doctorId, Long patientId, LocalDateTime start) {
+        userRepository.lockAllById(List.of(doctorId, patientId));
+        LocalDateTime from = start.minus(slotLength);
+        LocalDateTime to = start.plus(slotLength);
+        if (appointmentRepository.existsActiveDoctorAppointmentBetween(doctorId, from, to)) {
+            throw new IllegalStateException("The doctor already has an appointment in this time slot");
+        }
+        if (appointmentRepository.existsActivePatientAppointmentBetween(patientId, from, to)) {
+            throw new IllegalStateException("You already have an appointment in this time slot");
+        }
+    }
+
+    /**
+     * Free a slot after a rejection or cancellation. Inside a transaction this only
+     * happens once it commits.
+     */
+    public void release(Long doctorId, Long patientId, LocalDateTime start) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    releaseNow(doctorId, patientId, start);
+                }
+            });
+        } else {
+            releaseNow(doctorId, patientId, start);
+        }
+    }
+
+    private void releaseNow(Long doctorId, Long patientId, LocalDateTime start) {
+        ReentrantLock doctorLock = doctorLocks[stripe(doctorId)];
+        ReentrantLock patientLock = patientLocks[stripe(patientId)];
+
+        doctorLock.lock();
+        try {
+            patientLock.lock();
+            try {
+                SlotIndex doctorIndex = doctorSlots.get(doctorId);
+                if (doctorIndex != null) {
+                    doctorIndex.starts().remove(start);
+                }
+                SlotIndex patientIndex = patientSlots.get(patientId);
+                if (patientIndex != null) {
+                    patientIndex.starts().remove(start);
+                }
+            } finally {
+                patientLock.unlock();
+            }
+        } finally {
+            doctorLock.unlock();
+        }
+    }
+
+    // Expired indexes would be reloaded anyway, so drop them to keep idle doctors and patients out of memory
+    @Scheduled(fixedDelayString = "${appointments.slot-prune-interval-ms:3600000}")
+    public void prunePastSlots() {
+        LocalDateTime cutoff = LocalDateTime.now().minus(slotLength);
+        prune(doctorSlots, doctorLocks, cutoff);
+        prune(patientSlots, patientLocks, cutoff);
+    }
+
+    private void prune(Map<Long, SlotIndex> slots, ReentrantLock[] locks, LocalDateTime cutoff) {
+        long now = System.nanoTime();
+        for (Long id : slots.keySet()) {
+            ReentrantLock lock = locks[stripe(id)];
+            lock.lock();
+            try {
+                SlotIndex index = slots.get(id);
+                if (index == null) {
+                    continue;
+                }
+                if (index.isExpired(now, indexTtlNanos)) {
+                    slots.remove(id);
+                } else {
+                    // Past slots can no longer conflict with anything bookable
+                    index.starts().headSet(cutoff, false).clear();
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    // Caller holds the stripe lock for id, so at most one thread loads a given index
+    private NavigableSet<LocalDateTime> index(Map<Long, SlotIndex> slots, Long id,
+            Function<Long, List<LocalDateTime>> loader) {
+        long now = System.nanoTime();
+        SlotIndex index = slots.get(id);
+        if (index == null || index.isExpired(now, indexTtlNanos)) {
+            index = new SlotIndex(new TreeSet<>(loader.apply(id)), now);
+            slots.put(id, index);
+        }
+        return index.starts();
+    }
+
+    // All appointments have the same length, so two overlap when their starts are less than one slot apart
+    private boolean overlaps(NavigableSet<LocalDateTime> index, LocalDateTime start) {
+        return !index.subSet(start.minus(slotLength), false, start.plus(slotLength), false).isEmpty();
+    }
+
+    private record SlotIndex(NavigableSet<LocalDateTime> starts, long loadedAtNanos) {
+
+        boolean isExpired(long now, long ttlNanos) {
+            return now - loadedAtNanos > ttlNanos;
+        }
+    }
+
+    private static int stripe(Long id) {
+        return Math.floorMod(Long.hashCode(id) * 0x9E3779B9, STRIPES);
+    }
+
+    private static ReentrantLock[] newStripes() {
+        ReentrantLock[] locks = new ReentrantLock[STRIPES];
+        for (int i = 0; i < STRIPES; i++) {
+            locks[i] = new ReentrantLock();
+        }
+        return locks;
+    }
+}
@@ -3,18 +3,24 @@ package com.medvault.service;
 import com.medvault.dto.request.LoginRequest;
 import com.medvault.dto.request.PatientRegistrationRequest;
 import com.medvault.dto.response.LoginResponse;
+import com.medvault.dto.response.TokenRefreshResponse;
 import com.medvault.dto.response.UserResponse;
+import com.medvault.event.DoctorScheduleChangedEvent;
+import com.medvault.event.UserAccountChangedEvent;
 import com.medvault.exception.ResourceNotFoundException;
+import com.medvault.exception.UnauthorizedException;
 import com.medvault.model.Patient;
 import com.medvault.model.User;
 import com.medvault.model.enums.Role;
 import com.medvault.repository.PatientRepository;
+import com.medvault.repository.UserAuthView;
 import com.medvault.repository.UserRepository;
+import com.medvault.util.TokenDigest;
+import io.jsonwebtoken.JwtException;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.security.authentication.AuthenticationManager;
-import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
-import org.springframework.security.core.Authentication;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.security.authentication.BadCredentialsException;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -31,28 +37,39 @@ public class AuthService {
     private final PatientRepository patientRepository;
     private final PasswordEncoder passwordEncoder;
     private final JwtService jwtService;
-    private final AuthenticationManager authenticationManager;
+    private final RefreshTokenStore refreshTokenStore;
+    private final TokenRevocationService tokenRevocationService;
+    private final ApplicationEventPublisher eventPublisher;
+
+    // Encoded once, used to equalise timing for unknown emails
+    private volatile String userNotFoundPassword;
 
     @Transactional
     public LoginResponse login(LoginRequest request) {
         log.info("Login attempt for user: {}", request.getEmail());
 
+        // Single lookup against the users table only
+        UserAuthView user = userRepository.findAuthViewByEmail(request.getEmail())
+                .orElse(null);
+
         // Authenticate user
-        Authentication authentication = authenticationManager.authenticate(
-                new UsernamePasswordAuthenticationToken(
-                        request.getEmail(),
-                        request.getPassword()));
-
-        // Get user from database
-        User user = userRepository.findByEmail(request.getEmail())
-                .orElseThrow(() -> new ResourceNotFoundException("User not found"));
+        if (user == null) {
+            // Hash anyway so unknown emails take as long as wrong passwords
+            passwordEncoder.matches(request.getPassword(), getUserNotFoundPassword());
+            throw new BadCredentialsException("Invalid email or password");
+        }
+        if (!passwordEncoder.matches(request.getPassword(), user.getPassword())) {
+            throw new BadCredentialsException("Invalid email or password");
+        }
+
         // Check if password is set (for doctors created by admin)
         if (!user.getIsPasswordSet()) {
             // Check if token has expired
             if (user.getPasswordResetTokenExpiry() != null &&
                     user.getPasswordResetTokenExpiry().isBefore(LocalDateTime.now())) {
                 // Token expired, delete the user
-                userRepository.delete(user);
+                userRepository.deleteById(user.getId());
+                eventPublisher.publishEvent(new UserAccountChangedEvent(user.getEmail()));
                 throw new IllegalStateException(
                         "Your verification link has expired. Please contact admin to resend invitation.");
             }
@@ -64,30 +81,106 @@ public class AuthService {
             throw new IllegalStateException("Account is not active.  Please complete password setup.");
         }
 
+        Role role = Role.valueOf(user.getRole());
+
         // Generate JWT token with email and role
-        String token = jwtService.generateToken(user.getEmail(), user.getRole().name());
+        String token = jwtService.generateToken(user.getId(), user.getEmail(), role.name());
+        String refreshToken = issueRefreshToken(user.getId(), user.getEmail(), role.name());
 
-        log.info("Login successful for user: {} with role: {}", user.getEmail(), user.getRole());
+        log.info("Login successful for user: {} with role: {}", user.getEmail(), role);
 
         return LoginResponse.builder()
                 .token(token)
+                .refreshToken(refreshToken)
                 .id(user.getId())
                 .email(user.getEmail())
                 .firstName(user.getFirstName())
                 .lastName(user.getLastName())
                 .phoneNumber(user.getPhoneNumber())
-                .role(user.getRole())
+                .role(role)
                 .isActive(user.getIsActive())
                 .createdAt(user.getCreatedAt())
                 .build();
     }
 
+    // Mint a new access token from a refresh token; no password hashing and no database access
+    public TokenRefreshResponse refresh(String refreshToken) {
+        ParsedToken parsed;
+        try {
+            parsed = jwtService.parseToken(refreshToken);
+        } catch (JwtException | IllegalArgumentException e) {
+            throw new UnauthorizedException("Invalid or expired refresh token");
+        }
+
+        if (!parsed.isRefreshToken() || parsed.tokenId() == null) {
+            throw new UnauthorizedException("Invalid or expired refresh token");
+        }
+
+        String email = parsed.subject();
+        if (!refreshTokenStore.consume(parsed.tokenId(), email)) {
+            // A validly signed token that is no longer registered is being replayed - end every session
+            log.warn("Refresh token reuse detected for user: {}", email);
+            refreshTokenStore.revokeAll(email);
+            throw new UnauthorizedException("Refresh token has been revoked");
+        }
+
+        // Rotate: the presented token is spent, hand back a fresh pair
+        String token = jwtService.generateToken(parsed.userId(), email, parsed.role());
+        String newRefreshToken = issueRefreshToken(parsed.userId(), email, parsed.role());
+
+        log.info("Access token refreshed for user: {}", email);
+
+        return TokenRefreshResponse.builder()
+                .token(token)
+                .refreshToken(newRefreshToken)
+                .build();
+    }
+
+    // Revoke the presented access token and, if supplied, the refresh token
+    public void logout(String accessToken, String refreshToken) {
+        if (accessToken != null) {
+            try {
+                ParsedToken parsed = jwtService.parseToken(accessToken);
+                tokenRevocationService.revoke(TokenDigest.of(accessToken), parsed.expiration());
+                log.info("Access token revoked for user: {}", parsed.subject());
+            } catch (JwtException | IllegalArgumentException e) {
+                // Already invalid or expired - nothing to revoke
+                log.debug("Ignoring invalid access token on logout: {}", e.getMessage());
+            }
+        }
+
+        if (refreshToken != null) {
+            try {
+                ParsedToken parsed = jwtService.parseToken(refreshToken);
+                if (parsed.isRefreshToken() && parsed.tokenId() != null) {
+                    refreshTokenStore.consume(parsed.tokenId(), parsed.subject());
+                }
+            } catch (JwtException | IllegalArgumentException e) {
+                log.debug("Ignoring invalid refresh token on logout: {}", e.getMessage());
+            }
+        }
+    }
+
+    private String issueRefreshToken(Long userId, String email, String role) {
+        String tokenId = refreshTokenStore.register(email, jwtService.refreshTokenExpiresAt());
+        return jwtService.generateRefreshToken(tokenId, userId, email, role);
+    }
+
+    private String getUserNotFoundPassword() {
+        String encoded = userNotFoundPassword;
+        if (encoded == null) {
+            encoded = passwordEncoder.encode("userNotFoundPassword");
+            userNotFoundPassword = encoded;
+        }
+        return encoded;
+    }
+
     @Transactional
     public UserResponse registerPatient(PatientRegistrationRequest request) {
         log.info("Registering new patient: {}", request.getEmail());
 
         // Check if user already exists
-        if (userRepository.findByEmail(request.getEmail()).isPresent()) {
+        if (userRepository.existsByEmail(request.getEmail())) {
             throw new IllegalStateException("User with this email already exists");
         }
 
@@ -146,6 +239,11 @@ public class AuthService {
         user.setUpdatedAt(LocalDateTime.now());
 
         userRepository.save(user);
+        eventPublisher.publishEvent(new UserAccountChangedEvent(user.getEmail()));
+        if (user.getRole() == Role.DOCTOR) {
+            // Setting the password activates the doctor, which makes them bookable
+            eventPublisher.publishEvent(new DoctorScheduleChangedEvent(user.getId()));
+        }
 
         log.info("Password set successfully for user: {}", user.getEmail());
     }
@@ -166,6 +264,7 @@ public class AuthService {
             // Auto-delete expired unverified user
             if (!user.getIsPasswordSet()) {
                 userRepository.delete(user);
+                eventPublisher.publishEvent(new UserAccountChangedEvent(user.getEmail()));
             }
             return false;
         }
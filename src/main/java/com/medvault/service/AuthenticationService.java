@@ -1,5 +1,6 @@
 package com.medvault.service;
 
+import com.medvault.model.AuthenticatedUser;
 import com.medvault. model.User;
 import lombok.RequiredArgsConstructor;
 import org.springframework.security. core.Authentication;
@@ -24,7 +25,25 @@ public class AuthenticationService {
     }
     
     /**
-     * Get the currently authenticated user entity from database
+     * Get the currently authenticated principal as resolved from the JWT, without a database hit
+     */
+    public AuthenticatedUser getCurrentPrincipal() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication == null || !authentication.isAuthenticated()) {
+            throw new IllegalStateException("No authenticated user found");
+        }
+        if (authentication.getPrincipal() instanceof AuthenticatedUser principal) {
+            return principal;
+        }
+        // Principal set by something other than the JWT filter - fall back to the entity
+        User user = getCurrentUser();
+        return new AuthenticatedUser(user.getId(), user.getEmail(), user.getPassword(),
+                user.getRole(), user.getIsActive());
+    }
+
+    /**
+     * Get the currently authenticated user entity from database.
+     * Only use this when the full entity is needed; prefer {@link #getCurrentPrincipal()}.
      */
     public User getCurrentUser() {
         String email = getCurrentUserEmail();
@@ -35,6 +54,6 @@ public class AuthenticationService {
      * Get the currently authenticated user's ID
      */
     public Long getCurrentUserId() {
-        return getCurrentUser().getId();
+        return getCurrentPrincipal().getId();
     }
 }
\ No newline at end of file
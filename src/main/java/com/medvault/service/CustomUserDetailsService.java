@@ -1,17 +1,16 @@
 package com.medvault.service;
 
-import com.medvault.model.User;
+import com.medvault.model.AuthenticatedUser;
+import com.medvault.model.enums.Role;
+import com.medvault.repository.UserAuthView;
 import com.medvault.repository.UserRepository;
 import lombok. RequiredArgsConstructor;
 import lombok.extern.slf4j. Slf4j;
-import org. springframework.security.core.authority. SimpleGrantedAuthority;
 import org.springframework.security.core. userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org. springframework.stereotype.Service;
 
-import java.util.Collections;
-
 @Service
 @RequiredArgsConstructor
 @Slf4j
@@ -23,7 +22,7 @@ public class CustomUserDetailsService implements UserDetailsService {
     public UserDetails loadUserByUsername(String email) throws UsernameNotFoundException {
         log.debug("Loading user by email: {}", email);
 
-        User user = userRepository.findByEmail(email)
+        UserAuthView user = userRepository.findAuthViewByEmail(email)
                 .orElseThrow(() -> {
                     log.error("User not found with email: {}", email);
                     return new UsernameNotFoundException("User not found with email: " + email);
@@ -37,18 +36,16 @@ public class CustomUserDetailsService implements UserDetailsService {
             throw new UsernameNotFoundException("User account is inactive");
         }
 
-        // IMPORTANT: Add "ROLE_" prefix for Spring Security
-        String roleWithPrefix = "ROLE_" + user.getRole().name();
-        log.debug("Granted authority: {}", roleWithPrefix);
+        return toPrincipal(user);
+    }
 
-        return new org. springframework.security.core.userdetails.User(
-                user. getEmail(),
+    static AuthenticatedUser toPrincipal(UserAuthView user) {
+        return new AuthenticatedUser(
+                user.getId(),
+                user.getEmail(),
                 user.getPassword(),
-                user.getIsActive(),
-                true, // accountNonExpired
-                true, // credentialsNonExpired
-                true, // accountNonLocked
-                Collections. singletonList(new SimpleGrantedAuthority(roleWithPrefix))
+                Role.valueOf(user.getRole()),
+                Boolean.TRUE.equals(user.getIsActive())
         );
     }
 }
\ No newline at end of file
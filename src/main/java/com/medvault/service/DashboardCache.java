@@ -0,0 +1,51 @@
+package com.medvault.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.medvault.dto.response.DashboardResponse;
+import com.medvault.event.DashboardChangedEvent;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.util.function.Supplier;
+
+/**
+ * Built patient and doctor dashboards, keyed by user id, for clients that poll.
+ * Entries are dropped after commit of any change that touches the user (see
+ * {@link DashboardChangedEvent}); the TTL only bounds what a missed event could cost.
+ */
+@Component
+public class DashboardCache {
+
+    private final Cache<Long, DashboardResponse> cache;
+
+    public DashboardCache(
+            @Value("${dashboard.cache.max-size:10000}") long maxSize,
+            @Value("${dashboard.cache.ttl-seconds:60}") long ttlSeconds,
+            MeterRegistry meterRegistry) {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "dashboard");
+        Gauge.builder("medvault.dashboard.cache.hit-ratio", cache, c -> c.stats().hitRate())
+                .description("Share of dashboard requests served from the cache")
+                .register(meterRegistry);
+    }
+
+    // An invalidation racing the build waits for it and then drops the result, so nothing stale is kept
+    public DashboardResponse get(Long userId, Supplier<DashboardResponse> builder) {
+        return cache.get(userId, id -> builder.get());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onDashboardChanged(DashboardChangedEvent event) {
+        cache.invalidateAll(event.userIds());
+    }
+}
@@ -0,0 +1,162 @@
+package com.medvault.service;
+
+import com.medvault.event.DashboardChangedEvent;
+import com.medvault.model.DashboardCounters;
+import com.medvault.model.enums.DashboardCounter;
+import com.medvault.repository.DashboardCountersRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Maintains {@code dashboard_counters} so a dashboard reads its statistics from one row.
+ *
+ * Services adjust counters in the same transaction as the change they count. A row is
+ * only ever adjusted, never created, by those deltas: it is seeded from the base tables
+ * the first time the user's dashboard is read, so counters of users who existed before
+ * the table are never partial. A nightly job recomputes every row to repair any drift,
+ * e.g. from cascading deletes that bypass the services.
+ *
+ * Every adjustment also publishes a {@link DashboardChangedEvent} for the users it
+ * touches, zero deltas included, which is what invalidates cached dashboards.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class DashboardCounterService {
+
+    private static final String ADJUST_SQL = "UPDATE dashboard_counters SET " +
+            "appointments_total = appointments_total + ?, appointments_pending = appointments_pending + ?, " +
+            "records_total = records_total + ?, notifications_unread = notifications_unread + ?, " +
+            "feedbacks_total = feedbacks_total + ?, rating_sum = rating_sum + ?, updated_at = ? WHERE user_id = ?";
+
+    // Counts of users in [?, ?] from the base tables; a user is either a patient or a doctor
+    private static final String COUNTS_SQL = "dashboard_counters (user_id, appointments_total, " +
+            "appointments_pending, records_total, notifications_unread, feedbacks_total, rating_sum, updated_at) " +
+            "SELECT u.id, " +
+            "(SELECT COUNT(*) FROM appointments a WHERE a.patient_id = u.id) " +
+            "+ (SELECT COUNT(*) FROM appointments a WHERE a.doctor_id = u.id), " +
+            "(SELECT COUNT(*) FROM appointments a WHERE a.patient_id = u.id AND a.status = 'PENDING') " +
+            "+ (SELECT COUNT(*) FROM appointments a WHERE a.doctor_id = u.id AND a.status = 'PENDING'), " +
+            "(SELECT COUNT(*) FROM medical_records r WHERE r.patient_id = u.id AND r.is_deleted = FALSE), " +
+            "(SELECT COUNT(*) FROM notifications n WHERE n.patient_id = u.id AND n.is_read = FALSE " +
+            "AND (n.scheduled_for IS NULL OR n.delivered_at IS NOT NULL)), " +
+            "(SELECT COUNT(*) FROM feedbacks f WHERE f.doctor_id = u.id), " +
+            "(SELECT COALESCE(SUM(f.rating), 0) FROM feedbacks f WHERE f.doctor_id = u.id), ? " +
+            "FROM users u WHERE u.id BETWEEN ? AND ?";
+
+    // Reconcile overwrites existing rows with the recomputed counts
+    private static final String RECOMPUTE_SQL = "INSERT INTO " + COUNTS_SQL + " " +
+            "ON DUPLICATE KEY UPDATE appointments_total = VALUES(appointments_total), " +
+            "appointments_pending = VALUES(appointments_pending), records_total = VALUES(records_total), " +
+            "notifications_unread = VALUES(notifications_unread), feedbacks_total = VALUES(feedbacks_total), " +
+            "rating_sum = VALUES(rating_sum), updated_at = VALUES(updated_at)";
+
+    // Seeding only creates a missing row: one another reader seeded first may already carry deltas
+    private static final String SEED_SQL = "INSERT IGNORE INTO " + COUNTS_SQL;
+
+    private static final String USER_IDS_SQL = "SELECT id FROM users WHERE id > ? ORDER BY id LIMIT ?";
+
+    private static final String DELETE_ORPHANS_SQL =
+            "DELETE FROM dashboard_counters WHERE user_id NOT IN (SELECT id FROM users)";
+
+    private final DashboardCountersRepository countersRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+
+    @Value("${dashboard.counters.reconcile-batch-size:500}")
+    private int reconcileBatchSize;
+
+    public record Change(Long userId, DashboardCounter counter, long amount) {
+    }
+
+    // Must join the caller's transaction so the counter moves with the change it counts
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void adjust(Long userId, DashboardCounter counter, long amount) {
+        adjustAll(List.of(new Change(userId, counter, amount)));
+    }
+
+    // One batched UPDATE per user touched, in user id order so concurrent writers lock rows consistently
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void adjustAll(List<Change> changes) {
+        Map<Long, long[]> deltas = new TreeMap<>();
+        for (Change change : changes) {
+            deltas.computeIfAbsent(change.userId(), id -> new long[DashboardCounter.values().length])
+                    [change.counter().ordinal()] += change.amount();
+        }
+        if (deltas.isEmpty()) {
+            return;
+        }
+        eventPublisher.publishEvent(new DashboardChangedEvent(List.copyOf(deltas.keySet())));
+        deltas.values().removeIf(delta -> Arrays.stream(delta).allMatch(amount -> amount == 0));
+        if (deltas.isEmpty()) {
+            return;
+        }
+
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        List<Object[]> rows = new ArrayList<>(deltas.size());
+        deltas.forEach((userId, delta) -> {
+            Object[] row = new Object[delta.length + 2];
+            for (int i = 0; i < delta.length; i++) {
+                row[i] = delta[i];
+            }
+            row[delta.length] = now;
+            row[delta.length + 1] = userId;
+            rows.add(row);
+        });
+        jdbcTemplate.batchUpdate(ADJUST_SQL, rows);
+    }
+
+    public DashboardCounters getCounters(Long userId) {
+        return countersRepository.findById(userId).orElseGet(() -> {
+            transactionTemplate.executeWithoutResult(status ->
+                    jdbcTemplate.update(SEED_SQL, Timestamp.valueOf(LocalDateTime.now()), userId, userId));
+            return countersRepository.findById(userId)
+                    .orElseGet(() -> DashboardCounters.builder().userId(userId).build());
+        });
+    }
+
+    @Scheduled(cron = "${dashboard.counters.reconcile-cron:0 15 4 * * *}")
+    public void reconcile() {
+        long started = System.currentTimeMillis();
+        long lastId = 0;
+        int users = 0;
+        while (true) {
+            List<Long> ids = jdbcTemplate.queryForList(USER_IDS_SQL, Long.class, lastId, reconcileBatchSize);
+            if (ids.isEmpty()) {
+                break;
+            }
+            long from = ids.get(0);
+            long to = ids.get(ids.size() - 1);
+            transactionTemplate.executeWithoutResult(status -> {
+                recompute(from, to);
+                eventPublisher.publishEvent(new DashboardChangedEvent(ids));
+            });
+            users += ids.size();
+            lastId = to;
+        }
+        Integer orphans = transactionTemplate.execute(status -> jdbcTemplate.update(DELETE_ORPHANS_SQL));
+        log.info("Reconciled dashboard counters of {} users in {} ms, removed {} orphaned rows",
+                users, System.currentTimeMillis() - started, orphans);
+    }
+
+    private void recompute(long fromUserId, long toUserId) {
+        jdbcTemplate.update(RECOMPUTE_SQL, Timestamp.valueOf(LocalDateTime.now()), fromUserId, toUserId);
+    }
+}
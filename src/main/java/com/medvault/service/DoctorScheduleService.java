@@ -0,0 +1,113 @@
+package com.medvault.service;
+
+import com.medvault.dto.request.DoctorScheduleRequest;
+import com.medvault.dto.response.FreeSlotResponse;
+import com.medvault.dto.response.ScheduleEntryResponse;
+import com.medvault.event.DoctorScheduleChangedEvent;
+import com.medvault.exception.BadRequestException;
+import com.medvault.exception.ResourceNotFoundException;
+import com.medvault.model.Doctor;
+import com.medvault.model.DoctorSchedule;
+import com.medvault.repository.DoctorRepository;
+import com.medvault.repository.DoctorScheduleRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Collectors;
+
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class DoctorScheduleService {
+
+    private static final int DEFAULT_SEARCH_LIMIT = 50;
+    private static final int MAX_SEARCH_LIMIT = 200;
+
+    private final DoctorScheduleRepository scheduleRepository;
+    private final DoctorRepository doctorRepository;
+    private final FreeSlotIndex freeSlotIndex;
+    private final ApplicationEventPublisher eventPublisher;
+
+    public List<ScheduleEntryResponse> getSchedule(Long doctorId) {
+        return scheduleRepository.findByDoctorIdOrderByDayOfWeekAscStartTimeAsc(doctorId)
+                .stream()
+                .map(this::convertToResponse)
+                .collect(Collectors.toList());
+    }
+
+    // Replace a doctor's weekly schedule
+    @Transactional
+    public List<ScheduleEntryResponse> updateSchedule(Long doctorId, DoctorScheduleRequest request) {
+        log.info("Updating weekly schedule for doctor: {}", doctorId);
+
+        Doctor doctor = doctorRepository.findById(doctorId)
+                .orElseThrow(() -> new ResourceNotFoundException("Doctor not found with id: " + doctorId));
+
+        List<DoctorScheduleRequest.Entry> entries = request.getEntries().stream()
+                .sorted(Comparator.comparing(DoctorScheduleRequest.Entry::getDayOfWeek)
+                        .thenComparing(DoctorScheduleRequest.Entry::getStartTime))
+                .collect(Collectors.toList());
+
+        for (int i = 0; i < entries.size(); i++) {
+            DoctorScheduleRequest.Entry entry = entries.get(i);
+            if (!entry.getStartTime().isBefore(entry.getEndTime())) {
+                throw new BadRequestException("Schedule start time must be before end time on " + entry.getDayOfWeek());
+            }
+            if (i > 0) {
+                DoctorScheduleRequest.Entry previous = entries.get(i - 1);
+                if (previous.getDayOfWeek() == entry.getDayOfWeek()
+                        && entry.getStartTime().isBefore(previous.getEndTime())) {
+                    throw new BadRequestException("Schedule windows overlap on " + entry.getDayOfWeek());
+                }
+            }
+        }
+
+        scheduleRepository.deleteByDoctorId(doctorId);
+        List<DoctorSchedule> saved = scheduleRepository.saveAll(entries.stream()
+                .map(entry -> DoctorSchedule.builder()
+                        .doctor(doctor)
+                        .dayOfWeek(entry.getDayOfWeek())
+                        .startTime(entry.getStartTime())
+                        .endTime(entry.getEndTime())
+                        .build())
+                .collect(Collectors.toList()));
+
+        eventPublisher.publishEvent(new DoctorScheduleChangedEvent(doctorId));
+
+        log.info("✅ Schedule updated with {} windows", saved.size());
+        return saved.stream().map(this::convertToResponse).collect(Collectors.toList());
+    }
+
+    // Answered from the in-memory free-slot index
+    public List<FreeSlotResponse> searchFreeSlots(String specialization, LocalDateTime from, LocalDateTime to,
+            Integer limit) {
+        LocalDateTime start = from != null ? from : LocalDateTime.now();
+        LocalDateTime end = to != null ? to : start.plusDays(1);
+        if (!start.isBefore(end)) {
+            throw new BadRequestException("Search window end must be after its start");
+        }
+        if (end.isAfter(LocalDateTime.now().plusDays(freeSlotIndex.getHorizonDays() + 1L))) {
+            throw new BadRequestException(
+                    "Slots can only be searched up to " + freeSlotIndex.getHorizonDays() + " days ahead");
+        }
+
+        int size = limit == null ? DEFAULT_SEARCH_LIMIT : Math.max(1, Math.min(limit, MAX_SEARCH_LIMIT));
+        String spec = specialization == null || specialization.isBlank() ? null : specialization;
+        return freeSlotIndex.search(spec, start, end, size);
+    }
+
+    private ScheduleEntryResponse convertToResponse(DoctorSchedule entry) {
+        return ScheduleEntryResponse.builder()
+                .id(entry.getId())
+                .dayOfWeek(entry.getDayOfWeek())
+                .startTime(entry.getStartTime())
+                .endTime(entry.getEndTime())
+                .build();
+    }
+}
@@ -1,23 +1,32 @@
 package com.medvault.service;
 
+import com.medvault.config.DashboardQueryPool;
 import com.medvault.dto.request.DoctorCreationRequest;
 import com.medvault.dto.request.UpdateDoctorProfileRequest;
+import com.medvault.dto.response.AppointmentResponse;
 import com.medvault.dto.response.DashboardResponse;
 import com.medvault.dto.response.UserResponse;
+import com.medvault.event.DashboardChangedEvent;
+import com.medvault.event.DoctorScheduleChangedEvent;
+import com.medvault.event.UserAccountChangedEvent;
 import com.medvault.exception.ResourceNotFoundException;
+import com.medvault.model.DashboardCounters;
 import com.medvault.model.Doctor;
 import com.medvault.model.enums.AppointmentStatus;
 import com.medvault.model.enums.Role;
 import com.medvault.repository.AppointmentRepository;
 import com.medvault.repository.DoctorRepository;
-import com.medvault.repository.FeedbackRepository;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
 import java.util.stream.Collectors;
 
 @Service
@@ -26,9 +35,15 @@ public class DoctorService {
 
         private final DoctorRepository doctorRepository;
         private final AppointmentRepository appointmentRepository;
-        private final FeedbackRepository feedbackRepository;
         private final EmailService emailService;
         private final PasswordEncoder passwordEncoder;
+        private final ApplicationEventPublisher eventPublisher;
+        private final DashboardQueryPool dashboardQueryPool;
+        private final DashboardCounterService dashboardCounterService;
+        private final DashboardCache dashboardCache;
+
+        @Value("${dashboard.recent-activity-limit:10}")
+        private int recentActivityLimit;
 
         // ===================== CREATE DOCTOR =====================
         @Transactional
@@ -44,6 +59,8 @@ public class DoctorService {
                                         existingDoctor.getPasswordResetTokenExpiry().isBefore(LocalDateTime.now())) {
 
                                 doctorRepository.delete(existingDoctor);
+                                eventPublisher.publishEvent(new UserAccountChangedEvent(existingDoctor.getEmail()));
+                                eventPublisher.publishEvent(new DoctorScheduleChangedEvent(existingDoctor.getId()));
                                 // Continue with creating new doctor
                         } else if (existingDoctor.getIsPasswordSet() || existingDoctor.getIsActive()) {
                                 // Doctor exists and is verified/active
@@ -158,27 +175,31 @@ public class DoctorService {
 
         // ===================== DOCTOR DASHBOARD =====================
         public DashboardResponse getDoctorDashboard(Long doctorId) {
-                Doctor doctor = getDoctorById(doctorId);
+                return dashboardCache.get(doctorId, () -> buildDoctorDashboard(doctorId));
+        }
+
+        private DashboardResponse buildDoctorDashboard(Long doctorId) {
+                // Statistics are one primary-key read of the counters; queries run side by side on the dashboard pool
+                CompletableFuture<Doctor> doctor = dashboardQueryPool.submit(() -> getDoctorById(doctorId));
+                CompletableFuture<DashboardCounters> counters = dashboardQueryPool.submit(
+                                () -> dashboardCounterService.getCounters(doctorId));
+                CompletableFuture<List<AppointmentResponse>> pending = dashboardQueryPool.submit(
+                                () -> appointmentRepository.findDoctorResponsesByStatus(
+                                                doctorId, AppointmentStatus.PENDING, Limit.of(recentActivityLimit)));
+                dashboardQueryPool.awaitAll(doctor, counters, pending);
 
                 Map<String, Object> statistics = new HashMap<>();
-                statistics.put("totalAppointments",
-                                appointmentRepository.findByDoctorIdOrderByAppointmentDateTimeDesc(doctorId).size());
-                statistics.put("pendingAppointments",
-                                appointmentRepository.findByDoctorIdAndStatusOrderByAppointmentDateTimeDesc(
-                                                doctorId, AppointmentStatus.PENDING).size());
-                statistics.put("averageRating",
-                                feedbackRepository.getAverageRatingByDoctorId(doctorId));
-                statistics.put("totalFeedbacks",
-                                feedbackRepository.countByDoctorId(doctorId));
+                statistics.put("totalAppointments", counters.join().getAppointmentsTotal());
+                statistics.put("pendingAppointments", counters.join().getAppointmentsPending());
+                statistics.put("averageRating", counters.join().getAverageRating());
+                statistics.put("totalFeedbacks", counters.join().getFeedbacksTotal());
 
                 return DashboardResponse.builder()
-                                .userId(doctor.getId())
-                                .userName("Dr. " + doctor.getFirstName() + " " + doctor.getLastName())
+                                .userId(doctor.join().getId())
+                                .userName("Dr. " + doctor.join().getFirstName() + " " + doctor.join().getLastName())
                                 .role("DOCTOR")
                                 .statistics(statistics)
-                                .recentActivity(appointmentRepository
-                                                .findByDoctorIdAndStatusOrderByAppointmentDateTimeDesc(
-                                                                doctorId, AppointmentStatus.PENDING))
+                                .recentActivity(pending.join())
                                 .build();
         }
 
@@ -218,6 +239,8 @@ public class DoctorService {
                                         doctor.getPasswordResetTokenExpiry().isBefore(LocalDateTime.now())) {
 
                                 doctorRepository.delete(doctor);
+                                eventPublisher.publishEvent(new UserAccountChangedEvent(doctor.getEmail()));
+                                eventPublisher.publishEvent(new DoctorScheduleChangedEvent(doctor.getId()));
                                 deletedCount++;
                         }
                 }
@@ -231,6 +254,7 @@ public class DoctorService {
                 Doctor doctor = getDoctorById(doctorId);
                 doctor.setIsAvailable(!doctor.getIsAvailable());
                 Doctor updatedDoctor = doctorRepository.save(doctor);
+                eventPublisher.publishEvent(new DoctorScheduleChangedEvent(doctorId));
 
                 return UserResponse.builder()
                                 .id(updatedDoctor.getId())
@@ -274,6 +298,10 @@ public class DoctorService {
                         doctor.setAvailableTimings(request.getAvailableTimings());
                 }
 
-                return doctorRepository.save(doctor);
+                Doctor saved = doctorRepository.save(doctor);
+                eventPublisher.publishEvent(new DashboardChangedEvent(List.of(doctorId)));
+                // The free-slot index carries the name and specialization
+                eventPublisher.publishEvent(new DoctorScheduleChangedEvent(doctorId));
+                return saved;
         }
 }
@@ -76,6 +76,16 @@ public class EmailService {
     @Async
     public void sendAppointmentConfirmationEmail(String toEmail, String patientName,
             String doctorName, String appointmentDateTime) {
+        try {
+            deliverAppointmentConfirmationEmail(toEmail, patientName, doctorName, appointmentDateTime);
+        } catch (Exception e) {
+            // Already logged by deliverAppointmentConfirmationEmail
+        }
+    }
+
+    // Throws instead of swallowing the failure so the outbox relay can retry the send
+    public void deliverAppointmentConfirmationEmail(String toEmail, String patientName,
+            String doctorName, String appointmentDateTime) throws MessagingException {
         try {
             log.info("📧 Sending appointment confirmation email to: {}", toEmail);
 
@@ -102,6 +112,7 @@ public class EmailService {
 
         } catch (Exception e) {
             log.error("❌ Failed to send appointment confirmation email to: {}", toEmail, e);
+            throw e;
         }
     }
 
@@ -109,6 +120,17 @@ public class EmailService {
     public void sendAppointmentStatusEmail(String toEmail, String patientName,
             String status, String doctorName,
             String appointmentDateTime) {
+        try {
+            deliverAppointmentStatusEmail(toEmail, patientName, status, doctorName, appointmentDateTime);
+        } catch (Exception e) {
+            // Already logged by deliverAppointmentStatusEmail
+        }
+    }
+
+    // Throws instead of swallowing the failure so the outbox relay can retry the send
+    public void deliverAppointmentStatusEmail(String toEmail, String patientName,
+            String status, String doctorName,
+            String appointmentDateTime) throws MessagingException {
         try {
             log.info("📧 Sending appointment status email to: {}", toEmail);
 
@@ -169,6 +191,7 @@ public class EmailService {
 
         } catch (MessagingException e) {
             log.error("❌ Failed to send appointment status email to: {}", toEmail, e);
+            throw e;
         }
     }
 
@@ -309,6 +332,16 @@ public class EmailService {
     @Async
     public void sendPaymentConfirmationEmail(String toEmail, String patientName, String doctorName,
             Double amount, String appointmentDateTime) {
+        try {
+            deliverPaymentConfirmationEmail(toEmail, patientName, doctorName, amount, appointmentDateTime);
+        } catch (Exception e) {
+            // Already logged by deliverPaymentConfirmationEmail
+        }
+    }
+
+    // Throws instead of swallowing the failure so the outbox relay can retry the send
+    public void deliverPaymentConfirmationEmail(String toEmail, String patientName, String doctorName,
+            Double amount, String appointmentDateTime) throws MessagingException {
         try {
             log.info("📧 Sending payment confirmation email to: {}", toEmail);
 
@@ -374,12 +407,23 @@ public class EmailService {
 
         } catch (Exception e) {
             log.error("❌ Failed to send payment confirmation email to: {}", toEmail, e);
+            throw e;
         }
     }
 
     @Async
     public void sendDoctorNewBookingEmail(String toEmail, String doctorName, String patientName,
             String appointmentDateTime, String reasonForVisit) {
+        try {
+            deliverDoctorNewBookingEmail(toEmail, doctorName, patientName, appointmentDateTime, reasonForVisit);
+        } catch (Exception e) {
+            // Already logged by deliverDoctorNewBookingEmail
+        }
+    }
+
+    // Throws instead of swallowing the failure so the outbox relay can retry the send
+    public void deliverDoctorNewBookingEmail(String toEmail, String doctorName, String patientName,
+            String appointmentDateTime, String reasonForVisit) throws MessagingException {
         try {
             log.info("📧 Sending new booking notification email to doctor: {}", toEmail);
 
@@ -444,11 +488,83 @@ public class EmailService {
 
         } catch (Exception e) {
             log.error("❌ Failed to send new booking email to doctor: {}", toEmail, e);
+            throw e;
+        }
+    }
+
+    // Only sent through the outbox, so there is no @Async variant
+    public void deliverDoctorCancellationEmail(String toEmail, String doctorName, String patientName,
+            String appointmentDateTime) throws MessagingException {
+        try {
+            log.info("📧 Sending cancellation notice email to doctor: {}", toEmail);
+
+            String appointmentsLink = "http://localhost:3000/doctor/appointments";
+
+            String htmlContent = String.format(
+                    """
+                            <!DOCTYPE html>
+                            <html>
+                            <head>
+                                <meta charset="UTF-8">
+                                <meta name="viewport" content="width=device-width, initial-scale=1.0">
+                                <style>
+                                    body { font-family: Arial, sans-serif; line-height: 1.6; color: #333; background-color: #f5f7fa; padding: 20px; margin: 0; }
+                                    .container { max-width: 600px; margin: 0 auto; background-color: #fff; border-radius: 12px; overflow: hidden; box-shadow: 0 4px 20px rgba(0,0,0,0.1); }
+                                    .header { background: linear-gradient(135deg, #667eea 0%%, #764ba2 100%%); color: white; padding: 40px 30px; text-align: center; }
+                                    .content { padding: 40px 30px; }
+                                    .button { display: inline-block; padding: 18px 48px; background: linear-gradient(135deg, #667eea 0%%, #764ba2 100%%); color: white !important; text-decoration: none; border-radius: 8px; margin: 25px 0; font-weight: 600; font-size: 18px; box-shadow: 0 4px 15px rgba(102, 126, 234, 0.4); }
+                                    .details { background-color: #f8f9fa; padding: 20px; border-radius: 8px; margin: 20px 0; }
+                                    .footer { background-color: #f8f9fa; padding: 20px; text-align: center; border-top: 1px solid #e9ecef; font-size: 14px; color: #6c757d; }
+                                    .icon { font-size: 48px; margin: 20px 0; }
+                                </style>
+                            </head>
+                            <body>
+                                <div class="container">
+                                    <div class="header">
+                                        <div class="icon">📅</div>
+                                        <h1>Appointment Cancelled</h1>
+                                    </div>
+                                    <div class="content">
+                                        <h2>Hello %s,</h2>
+                                        <p>A patient has cancelled their appointment with you. The time slot is free again.</p>
+                                        <div class="details">
+                                            <p><strong>👤 Patient Name:</strong> %s</p>
+                                            <p><strong>📅 Appointment Date:</strong> %s</p>
+                                        </div>
+                                        <div style="text-align: center;">
+                                            <a href="%s" class="button">View Appointments</a>
+                                        </div>
+                                    </div>
+                                    <div class="footer">
+                                        <p><strong>MedVault</strong> - Your Health, Our Priority</p>
+                                        <p>© 2025 MedVault. All rights reserved.</p>
+                                    </div>
+                                </div>
+                            </body>
+                            </html>
+                            """,
+                    doctorName, patientName, appointmentDateTime, appointmentsLink);
+
+            sendHtmlEmail(toEmail, "📅 Appointment Cancelled - MedVault", htmlContent);
+            log.info("✅ Cancellation notice email sent to doctor: {}", toEmail);
+
+        } catch (Exception e) {
+            log.error("❌ Failed to send cancellation notice email to doctor: {}", toEmail, e);
+            throw e;
         }
     }
 
     @Async
     public void sendFeedbackRequestEmail(String toEmail, String patientName, String doctorName, Long appointmentId) {
+        try {
+            deliverFeedbackRequestEmail(toEmail, patientName, doctorName, appointmentId);
+        } catch (Exception e) {
+            // Already logged by deliverFeedbackRequestEmail
+        }
+    }
+
+    // Throws instead of swallowing the failure so the outbox relay can retry the send
+    public void deliverFeedbackRequestEmail(String toEmail, String patientName, String doctorName, Long appointmentId) throws MessagingException {
         try {
             log.info("📧 Sending feedback request email to: {}", toEmail);
 
@@ -510,6 +626,80 @@ public class EmailService {
 
         } catch (Exception e) {
             log.error("❌ Failed to send feedback request email to: {}", toEmail, e);
+            throw e;
+        }
+    }
+
+    @Async
+    public void sendAppointmentReminderEmail(String toEmail, String patientName, String doctorName,
+            String appointmentDateTime) {
+        try {
+            deliverAppointmentReminderEmail(toEmail, patientName, doctorName, appointmentDateTime);
+        } catch (Exception e) {
+            // Already logged by deliverAppointmentReminderEmail
+        }
+    }
+
+    // Throws instead of swallowing the failure so the outbox relay can retry the send
+    public void deliverAppointmentReminderEmail(String toEmail, String patientName, String doctorName,
+            String appointmentDateTime) throws MessagingException {
+        try {
+            log.info("📧 Sending appointment reminder email to: {}", toEmail);
+
+            String dashboardLink = "http://localhost:3000/patient/dashboard";
+
+            String htmlContent = String.format(
+                    """
+                            <!DOCTYPE html>
+                            <html>
+                            <head>
+                                <meta charset="UTF-8">
+                                <meta name="viewport" content="width=device-width, initial-scale=1.0">
+                                <style>
+                                    body { font-family: Arial, sans-serif; line-height: 1.6; color: #333; background-color: #f5f7fa; padding: 20px; margin: 0; }
+                                    .container { max-width: 600px; margin: 0 auto; background-color: #fff; border-radius: 12px; overflow: hidden; box-shadow: 0 4px 20px rgba(0,0,0,0.1); }
+                                    .header { background: linear-gradient(135deg, #667eea 0%%, #764ba2 100%%); color: white; padding: 40px 30px; text-align: center; }
+                                    .content { padding: 40px 30px; }
+                                    .button { display: inline-block; padding: 18px 48px; background: linear-gradient(135deg, #667eea 0%%, #764ba2 100%%); color: white !important; text-decoration: none; border-radius: 8px; margin: 25px 0; font-weight: 600; font-size: 18px; }
+                                    .details { background-color: #f8f9fa; padding: 20px; border-radius: 8px; margin: 20px 0; }
+                                    .footer { background-color: #f8f9fa; padding: 20px; text-align: center; border-top: 1px solid #e9ecef; font-size: 14px; color: #6c757d; }
+                                    .icon { font-size: 48px; margin: 20px 0; }
+                                </style>
+                            </head>
+                            <body>
+                                <div class="container">
+                                    <div class="header">
+                                        <div class="icon">⏰</div>
+                                        <h1>Appointment Reminder</h1>
+                                    </div>
+                                    <div class="content">
+                                        <h2>Hello %s,</h2>
+                                        <p>This is a reminder of your upcoming appointment with <strong>%s</strong>.</p>
+                                        <div class="details">
+                                            <p><strong>👨‍⚕️ Doctor:</strong> %s</p>
+                                            <p><strong>📅 Date &amp; Time:</strong> %s</p>
+                                        </div>
+                                        <p>Please arrive a few minutes early. If you can no longer attend, cancel from your dashboard so the slot can be offered to another patient.</p>
+                                        <div style="text-align: center;">
+                                            <a href="%s" class="button">View Appointment</a>
+                                        </div>
+                                    </div>
+                                    <div class="footer">
+                                        <p><strong>MedVault</strong> - Your Health, Our Priority</p>
+                                        <p>© 2025 MedVault. All rights reserved.</p>
+                                    </div>
+                                </div>
+                            </body>
+                            </html>
+                            """,
+                    patientName, doctorName, doctorName, appointmentDateTime, dashboardLink);
+
+            sendHtmlEmail(toEmail, "⏰ Appointment Reminder - MedVault", htmlContent);
+            log.info("✅ Appointment reminder email sent to: {}", toEmail);
+
+        } catch (Exception e) {
+            log.error("❌ Failed to send appointment reminder email to: {}", toEmail, e);
+            throw e;
         }
     }
 }
\ No newline at end of file
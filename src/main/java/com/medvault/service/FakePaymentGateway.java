@@ -0,0 +1,94 @@
+package com.medvault.service;
+
+import com.medvault.exception.PaymentGatewayException;
+import com.razorpay.RazorpayException;
+import com.razorpay.Utils;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * In-process gateway for load tests without network access ({@code payment.gateway=fake}).
+ * Orders and status lookups succeed after {@code payment.fake.latency-ms}, except for a
+ * {@code payment.fake.failure-rate} share that fail as an unreachable gateway would, so
+ * the circuit breaker can be exercised too. A {@code payment.fake.settle-rate} share of
+ * orders report a captured payment on lookup, so reconciliation has something to settle.
+ * Signatures use Razorpay's scheme,
+ * HMAC-SHA256 of {@code orderId|paymentId}, and of the raw body for webhooks, keyed with
+ * {@code payment.fake.secret}.
+ */
+@Component
+@ConditionalOnProperty(name = "payment.gateway", havingValue = "fake")
+@Slf4j
+public class FakePaymentGateway implements PaymentGateway {
+
+    private final AtomicLong sequence = new AtomicLong();
+    private final String secret;
+    private final long latencyMillis;
+    private final double failureRate;
+    private final double settleRate;
+
+    public FakePaymentGateway(
+            @Value("${payment.fake.secret:fake_secret}") String secret,
+            @Value("${payment.fake.latency-ms:0}") long latencyMillis,
+            @Value("${payment.fake.failure-rate:0}") double failureRate,
+            @Value("${payment.fake.settle-rate:0}") double settleRate) {
+        this.secret = secret;
+        this.latencyMillis = latencyMillis;
+        this.failureRate = failureRate;
+        this.settleRate = settleRate;
+        log.warn("⚠️ Using the fake payment gateway: no real payments will be taken");
+    }
+
+    @Override
+    public GatewayOrder createOrder(long amountInPaise, String receipt) {
+        simulateRoundTrip();
+        return new GatewayOrder("order_fake_" + sequence.incrementAndGet(), amountInPaise);
+    }
+
+    // Which orders settle follows from the order id, so repeated lookups give the same answer
+    @Override
+    public PaymentUpdate fetchOrderStatus(String orderId) {
+        simulateRoundTrip();
+        if (Math.floorMod(orderId.hashCode(), 10_000) >= settleRate * 10_000) {
+            return null;
+        }
+        return new PaymentUpdate(orderId, orderId.replace("order_", "pay_"), true, null);
+    }
+
+    @Override
+    public boolean verifyPaymentSignature(String orderId, String paymentId, String signature) {
+        try {
+            return Utils.verifySignature(orderId + "|" + paymentId, signature, secret);
+        } catch (RazorpayException e) {
+            throw new PaymentGatewayException("Payment verification failed: " + e.getMessage(), false);
+        }
+    }
+
+    @Override
+    public boolean verifyWebhookSignature(String payload, String signature) {
+        try {
+            return signature != null && Utils.verifySignature(payload, signature, secret);
+        } catch (RazorpayException e) {
+            return false;
+        }
+    }
+
+    private void simulateRoundTrip() {
+        if (latencyMillis > 0) {
+            try {
+                Thread.sleep(latencyMillis);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new PaymentGatewayException("Payment gateway is not responding, please retry shortly", true);
+            }
+        }
+        if (failureRate > 0 && ThreadLocalRandom.current().nextDouble() < failureRate) {
+            throw new PaymentGatewayException("Payment gateway is not responding, please retry shortly", true);
+        }
+    }
+}
@@ -1,25 +1,31 @@
 package com. medvault.service;
 
 import com.medvault.dto. request.FeedbackRequest;
+import com.medvault.dto.response.CursorPage;
 import com.medvault.dto.response.FeedbackResponse;
+import com.medvault.event.AnalyticsEvent;
 import com.medvault. exception.ResourceNotFoundException;
 import com.medvault.model.Appointment;
 import com.medvault.model.Doctor;
 import com.medvault.model. Feedback;
 import com.medvault.model.Patient;
+import com.medvault.model.enums.AnalyticsMetric;
+import com.medvault.model.enums.DashboardCounter;
 import com.medvault.repository. AppointmentRepository;
 import com.medvault.repository.DoctorRepository;
 import com. medvault.repository.FeedbackRepository;
 import com.medvault.repository.PatientRepository;
+import com.medvault.util.KeysetCursor;
 import lombok.RequiredArgsConstructor;
 import lombok. extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation. Transactional;
 
+import java.time.LocalDate;
 import java. util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
@@ -30,6 +36,8 @@ public class FeedbackService {
     private final PatientRepository patientRepository;
     private final DoctorRepository doctorRepository;
     private final AppointmentRepository appointmentRepository;
+    private final DashboardCounterService dashboardCounters;
+    private final ApplicationEventPublisher eventPublisher;
 
     @Transactional
     public FeedbackResponse submitFeedback(Long patientId, FeedbackRequest request) {
@@ -63,25 +71,30 @@ public class FeedbackService {
                 .build();
 
         Feedback savedFeedback = feedbackRepository.save(feedback);
+        dashboardCounters.adjustAll(List.of(
+                new DashboardCounterService.Change(doctor.getId(), DashboardCounter.FEEDBACKS_TOTAL, 1),
+                new DashboardCounterService.Change(doctor.getId(), DashboardCounter.RATING_SUM, savedFeedback.getRating())));
+        publishRatingChange(savedFeedback, 1, savedFeedback.getRating());
         log.info("✅ Feedback submitted successfully: {}", savedFeedback.getId());
 
         return convertToResponse(savedFeedback);
     }
 
     @Transactional(readOnly = true)
-    public List<FeedbackResponse> getDoctorFeedbacks(Long doctorId) {
-        return feedbackRepository.findByDoctorIdOrderByCreatedAtDesc(doctorId)
-                .stream()
-                .map(this::convertToResponse)
-                .collect(Collectors.toList());
+    public CursorPage<FeedbackResponse> getDoctorFeedbacks(Long doctorId, String cursor, Integer limit) {
+        KeysetCursor after = KeysetCursor.decode(cursor);
+        int size = CursorPage.resolveLimit(limit);
+        List<FeedbackResponse> rows = after == null
+                ? feedbackRepository.findDoctorPage(doctorId, CursorPage.fetchLimit(size))
+                : feedbackRepository.findDoctorPageAfter(doctorId, after.timestamp(), after.id(),
+                        CursorPage.fetchLimit(size));
+        return CursorPage.of(rows, size, feedback -> feedback,
+                feedback -> new KeysetCursor(feedback.getCreatedAt(), feedback.getId()));
     }
 
     @Transactional(readOnly = true)
     public List<FeedbackResponse> getPatientFeedbacks(Long patientId) {
-        return feedbackRepository.findByPatientIdOrderByCreatedAtDesc(patientId)
-                .stream()
-                .map(this::convertToResponse)
-                .collect(Collectors.toList());
+        return feedbackRepository.findPatientFeedbackResponses(patientId);
     }
 
     @Transactional(readOnly = true)
@@ -125,6 +138,9 @@ public class FeedbackService {
             throw new IllegalStateException("You can only update your own feedback");
         }
 
+        dashboardCounters.adjust(feedback.getDoctor().getId(), DashboardCounter.RATING_SUM,
+                request.getRating() - feedback.getRating());
+        publishRatingChange(feedback, 0, request.getRating() - feedback.getRating());
         feedback.setRating(request.getRating());
         feedback.setComment(request.getComment());
 
@@ -145,9 +161,25 @@ public class FeedbackService {
         }
 
         feedbackRepository.delete(feedback);
+        dashboardCounters.adjustAll(List.of(
+                new DashboardCounterService.Change(feedback.getDoctor().getId(), DashboardCounter.FEEDBACKS_TOTAL, -1),
+                new DashboardCounterService.Change(feedback.getDoctor().getId(), DashboardCounter.RATING_SUM, -feedback.getRating())));
+        publishRatingChange(feedback, -1, -feedback.getRating());
         log.info("✅ Feedback deleted successfully: {}", feedbackId);
     }
 
+    // Analytics attribute a feedback, and later edits to it, to the day it was submitted
+    private void publishRatingChange(Feedback feedback, int count, int ratingDelta) {
+        Long doctorId = feedback.getDoctor().getId();
+        LocalDate day = feedback.getCreatedAt().toLocalDate();
+        if (count != 0) {
+            eventPublisher.publishEvent(new AnalyticsEvent(doctorId, day, AnalyticsMetric.FEEDBACKS, count));
+        }
+        if (ratingDelta != 0) {
+            eventPublisher.publishEvent(new AnalyticsEvent(doctorId, day, AnalyticsMetric.RATING_SUM, ratingDelta));
+        }
+    }
+
     private FeedbackResponse convertToResponse(Feedback feedback) {
         return FeedbackResponse.builder()
                 .id(feedback. getId())
@@ -0,0 +1,256 @@
+package com.medvault.service;
+
+import com.medvault.dto.response.FreeSlotResponse;
+import com.medvault.event.AppointmentSlotChangedEvent;
+import com.medvault.event.DoctorScheduleChangedEvent;
+import com.medvault.model.Appointment;
+import com.medvault.model.Doctor;
+import com.medvault.model.DoctorSchedule;
+import com.medvault.model.enums.AppointmentStatus;
+import com.medvault.repository.AppointmentRepository;
+import com.medvault.repository.DoctorScheduleRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.stream.Collectors;
+
+/**
+ * Precomputed free appointment slots for every bookable doctor with a weekly schedule,
+ * from now until {@code appointments.slot-search.horizon-days} ahead.
+ *
+ * Free slots are the schedule's slot grid minus booked appointments. The index is
+ * rebuilt on startup and periodically (which also rolls the horizon forward), per
+ * doctor when a schedule changes, and updated incrementally after each booking,
+ * rejection or cancellation commits. Searches never touch the database.
+ */
+@Component
+@Slf4j
+public class FreeSlotIndex {
+
+    private final DoctorScheduleRepository scheduleRepository;
+    private final AppointmentRepository appointmentRepository;
+    private final Duration slotLength;
+    private final int horizonDays;
+
+    private final Map<Long, DoctorSlots> doctors = new ConcurrentHashMap<>();
+    private final Map<String, Set<Long>> bySpecialization = new ConcurrentHashMap<>();
+
+    public FreeSlotIndex(DoctorScheduleRepository scheduleRepository,
+            AppointmentRepository appointmentRepository,
+            AppointmentSlotEngine slotEngine,
+            @Value("${appointments.slot-search.horizon-days:14}") int horizonDays) {
+        this.scheduleRepository = scheduleRepository;
+        this.appointmentRepository = appointmentRepository;
+        this.slotLength = slotEngine.getSlotLength();
+        this.horizonDays = horizonDays;
+    }
+
+    public int getHorizonDays() {
+        return horizonDays;
+    }
+
+    /**
+     * Free slots starting in [from, to), earliest first, for one specialization
+     * (case-insensitive) or for all doctors when it is null.
+     */
+    public List<FreeSlotResponse> search(String specialization, LocalDateTime from, LocalDateTime to, int limit) {
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime start = from.isBefore(now) ? now : from;
+        if (!start.isBefore(to)) {
+            return List.of();
+        }
+
+        Set<Long> doctorIds = specialization == null
+                ? doctors.keySet()
+                : bySpecialization.getOrDefault(normalize(specialization), Set.of());
+
+        List<FreeSlotResponse> slots = new ArrayList<>();
+        for (Long doctorId : doctorIds) {
+            DoctorSlots doctor = doctors.get(doctorId);
+            if (doctor == null) {
+                continue;
+            }
+            int taken = 0;
+            for (LocalDateTime slotStart : doctor.free.subSet(start, true, to, false)) {
+                if (taken++ == limit) {
+                    break;
+                }
+                slots.add(FreeSlotResponse.builder()
+                        .doctorId(doctorId)
+                        .doctorName(doctor.name)
+                        .specialization(doctor.specialization)
+                        .consultationFee(doctor.consultationFee)
+                        .slotStart(slotStart)
+                        .slotEnd(slotStart.plus(slotLength))
+                        .build());
+            }
+        }
+
+        slots.sort(Comparator.comparing(FreeSlotResponse::getSlotStart)
+                .thenComparing(FreeSlotResponse::getDoctorId));
+        return slots.size() > limit ? new ArrayList<>(slots.subList(0, limit)) : slots;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(fixedDelayString = "${appointments.slot-search.rebuild-interval-ms:3600000}",
+            initialDelayString = "${appointments.slot-search.rebuild-interval-ms:3600000}")
+    public void rebuildAll() {
+        long startedAt = System.currentTimeMillis();
+        Map<Long, List<DoctorSchedule>> schedules = scheduleRepository.findAllForBookableDoctors().stream()
+                .collect(Collectors.groupingBy(entry -> entry.getDoctor().getId()));
+
+        for (Long doctorId : List.copyOf(doctors.keySet())) {
+            if (!schedules.containsKey(doctorId)) {
+                remove(doctorId);
+            }
+        }
+        schedules.forEach(this::reload);
+
+        log.info("Free-slot index rebuilt for {} doctors in {} ms",
+                schedules.size(), System.currentTimeMillis() - startedAt);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onScheduleChanged(DoctorScheduleChangedEvent event) {
+        List<DoctorSchedule> schedule = scheduleRepository.findForBookableDoctor(event.doctorId());
+        if (schedule.isEmpty()) {
+            remove(event.doctorId());
+        } else {
+            reload(event.doctorId(), schedule);
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onSlotChanged(AppointmentSlotChangedEvent event) {
+        DoctorSlots doctor = doctors.get(event.doctorId());
+        if (doctor == null) {
+            return;
+        }
+        synchronized (doctor) {
+            if (event.booked()) {
+                doctor.booked.add(event.start());
+                doctor.free.subSet(event.start().minus(slotLength), false, event.start().plus(slotLength), false).clear();
+            } else {
+                doctor.booked.remove(event.start());
+                LocalDateTime now = LocalDateTime.now();
+                for (LocalDateTime candidate : doctor.grid.subSet(
+                        event.start().minus(slotLength), false, event.start().plus(slotLength), false)) {
+                    if (!candidate.isBefore(now) && !overlapsBooking(doctor.booked, candidate)) {
+                        doctor.free.add(candidate);
+                    }
+                }
+            }
+        }
+    }
+
+    // Holds the doctor's monitor across the reload so concurrent slot events are applied on top of it
+    private void reload(Long doctorId, List<DoctorSchedule> schedule) {
+        DoctorSlots doctor = doctors.computeIfAbsent(doctorId, id -> new DoctorSlots());
+        synchronized (doctor) {
+            Doctor profile = schedule.get(0).getDoctor();
+            LocalDateTime from = LocalDateTime.now();
+            LocalDateTime to = LocalDate.now().plusDays(horizonDays + 1L).atStartOfDay();
+
+            NavigableSet<LocalDateTime> grid = grid(schedule, from, to);
+            NavigableSet<LocalDateTime> booked = appointmentRepository
+                    .findDoctorAppointmentsBetween(doctorId, from.minus(slotLength), to.plus(slotLength))
+                    .stream()
+                    .filter(appointment -> appointment.getStatus() != AppointmentStatus.REJECTED
+                            && appointment.getStatus() != AppointmentStatus.CANCELLED)
+                    .map(Appointment::getAppointmentDateTime)
+                    .collect(Collectors.toCollection(TreeSet::new));
+
+            NavigableSet<LocalDateTime> free = new ConcurrentSkipListSet<>();
+            for (LocalDateTime candidate : grid) {
+                if (!overlapsBooking(booked, candidate)) {
+                    free.add(candidate);
+                }
+            }
+
+            String previousSpecialization = doctor.specialization;
+            doctor.name = "Dr. " + profile.getFirstName() + " " + profile.getLastName();
+            doctor.specialization = profile.getSpecialization();
+            doctor.consultationFee = profile.getConsultationFee();
+            doctor.grid = grid;
+            doctor.booked = booked;
+            doctor.free = free;
+
+            if (previousSpecialization != null && !normalize(previousSpecialization).equals(normalize(doctor.specialization))) {
+                unindexSpecialization(previousSpecialization, doctorId);
+            }
+            bySpecialization.computeIfAbsent(normalize(doctor.specialization), key -> ConcurrentHashMap.newKeySet())
+                    .add(doctorId);
+        }
+    }
+
+    private void remove(Long doctorId) {
+        DoctorSlots doctor = doctors.remove(doctorId);
+        if (doctor != null && doctor.specialization != null) {
+            unindexSpecialization(doctor.specialization, doctorId);
+        }
+    }
+
+    private void unindexSpecialization(String specialization, Long doctorId) {
+        Set<Long> ids = bySpecialization.get(normalize(specialization));
+        if (ids != null) {
+            ids.remove(doctorId);
+        }
+    }
+
+    // Slot starts laid out back to back inside each schedule window, from..to
+    private NavigableSet<LocalDateTime> grid(List<DoctorSchedule> schedule, LocalDateTime from, LocalDateTime to) {
+        NavigableSet<LocalDateTime> grid = new TreeSet<>();
+        for (LocalDate day = from.toLocalDate(); day.atStartOfDay().isBefore(to); day = day.plusDays(1)) {
+            for (DoctorSchedule entry : schedule) {
+                if (entry.getDayOfWeek() != day.getDayOfWeek()) {
+                    continue;
+                }
+                LocalDateTime windowEnd = day.atTime(entry.getEndTime());
+                for (LocalDateTime slot = day.atTime(entry.getStartTime());
+                        !slot.plus(slotLength).isAfter(windowEnd);
+                        slot = slot.plus(slotLength)) {
+                    if (!slot.isBefore(from) && slot.isBefore(to)) {
+                        grid.add(slot);
+                    }
+                }
+            }
+        }
+        return grid;
+    }
+
+    private boolean overlapsBooking(NavigableSet<LocalDateTime> booked, LocalDateTime start) {
+        return !booked.subSet(start.minus(slotLength), false, start.plus(slotLength), false).isEmpty();
+    }
+
+    private static String normalize(String specialization) {
+        return specialization == null ? "" : specialization.trim().toLowerCase(Locale.ROOT);
+    }
+
+    // Mutated only under its own monitor; searches read the concurrent free set without locking
+    private static final class DoctorSlots {
+        private volatile String name;
+        private volatile String specialization;
+        private volatile Double consultationFee;
+        private NavigableSet<LocalDateTime> grid = new TreeSet<>();
+        private NavigableSet<LocalDateTime> booked = new TreeSet<>();
+        private volatile NavigableSet<LocalDateTime> free = new ConcurrentSkipListSet<>();
+    }
+}
@@ -1,10 +1,11 @@
 package com.medvault.service;
 
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
-import io.jsonwebtoken.SignatureAlgorithm;
 import io.jsonwebtoken.io. Decoders;
 import io. jsonwebtoken.security.Keys;
+import jakarta.annotation.PostConstruct;
 import org.springframework.beans. factory.annotation.Value;
 import org.springframework.security.core. userdetails.UserDetails;
 import org.springframework.stereotype.Service;
@@ -27,6 +28,19 @@ public class JwtService {
     @Value("${jwt.refresh-expiration}")
     private long refreshExpiration;
 
+    // Built once at startup; both are immutable and thread-safe
+    private SecretKey signInKey;
+    private JwtParser jwtParser;
+
+    @PostConstruct
+    void initSigningKey() {
+        byte[] keyBytes = Decoders.BASE64.decode(secretKey);
+        this.signInKey = Keys.hmacShaKeyFor(keyBytes);
+        this.jwtParser = Jwts.parser()
+                .verifyWith(signInKey)
+                .build();
+    }
+
     // Generate token with email and role
     public String generateToken(String email, String role) {
         Map<String, Object> claims = new HashMap<>();
@@ -34,6 +48,14 @@ public class JwtService {
         return generateToken(claims, email);
     }
 
+    // Generate token carrying the user id and role so requests need no user lookup
+    public String generateToken(Long userId, String email, String role) {
+        Map<String, Object> claims = new HashMap<>();
+        claims.put("uid", userId);
+        claims.put("role", role);
+        return generateToken(claims, email);
+    }
+
     // Generate token with extra claims
     public String generateToken(Map<String, Object> extraClaims, String email) {
         return buildToken(extraClaims, email, jwtExpiration);
@@ -44,6 +66,21 @@ public class JwtService {
         return buildToken(new HashMap<>(), email, refreshExpiration);
     }
 
+    // Generate a single-use refresh token identified by tokenId (jti)
+    public String generateRefreshToken(String tokenId, Long userId, String email, String role) {
+        Map<String, Object> claims = new HashMap<>();
+        claims.put("jti", tokenId);
+        claims.put("typ", ParsedToken.REFRESH_TYPE);
+        claims.put("uid", userId);
+        claims.put("role", role);
+        return buildToken(claims, email, refreshExpiration);
+    }
+
+    // Absolute expiry (epoch millis) a refresh token issued now will carry
+    public long refreshTokenExpiresAt() {
+        return System.currentTimeMillis() + refreshExpiration;
+    }
+
     // Build token
     private String buildToken(Map<String, Object> extraClaims, String email, long expiration) {
         return Jwts. builder()
@@ -51,10 +88,15 @@ public class JwtService {
                 .subject(email)
                 . issuedAt(new Date(System.currentTimeMillis()))
                 .expiration(new Date(System.currentTimeMillis() + expiration))
-                .signWith(getSignInKey(), Jwts.SIG.HS256)
+                .signWith(signInKey, Jwts.SIG.HS256)
                 .compact();
     }
 
+    // Verify the token once and expose all claims from that single parse
+    public ParsedToken parseToken(String token) {
+        return new ParsedToken(extractAllClaims(token));
+    }
+
     // Extract username (email) from token
     public String extractUsername(String token) {
         return extractClaim(token, Claims::getSubject);
@@ -73,33 +115,21 @@ public class JwtService {
 
     // Extract all claims
     private Claims extractAllClaims(String token) {
-        return Jwts.parser()
-                .verifyWith(getSignInKey())
-                .build()
-                . parseSignedClaims(token)
-                .getPayload();
-    }
-
-    // Check if token is expired
-    private boolean isTokenExpired(String token) {
-        return extractExpiration(token).before(new Date());
+        return jwtParser.parseSignedClaims(token).getPayload();
     }
 
     // Validate token
     public boolean isTokenValid(String token, UserDetails userDetails) {
-        final String username = extractUsername(token);
-        return (username.equals(userDetails.getUsername())) && !isTokenExpired(token);
+        return isTokenValid(parseToken(token), userDetails);
     }
 
-    // Get signing key
-    private SecretKey getSignInKey() {
-        byte[] keyBytes = Decoders.BASE64.decode(secretKey);
-        return Keys.hmacShaKeyFor(keyBytes);
+    // Validate an already parsed token without verifying the signature again
+    public boolean isTokenValid(ParsedToken token, UserDetails userDetails) {
+        return token.subject().equals(userDetails.getUsername()) && !token.isExpired();
     }
 
     // Extract role from token
     public String extractRole(String token) {
-        Claims claims = extractAllClaims(token);
-        return claims. get("role", String.class);
+        return parseToken(token).role();
     }
 }
\ No newline at end of file
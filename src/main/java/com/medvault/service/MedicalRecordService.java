@@ -1,13 +1,16 @@
 package com.medvault.service;
 
 import com.medvault.dto.request.MedicalRecordRequest;
+import com.medvault.dto.response.CursorPage;
 import com.medvault.dto.response.MedicalRecordResponse;
 import com.medvault.exception.ResourceNotFoundException;
 import com.medvault.model.Doctor;
 import com.medvault.model.MedicalRecord;
 import com.medvault.model.Patient;
+import com.medvault.model.enums.DashboardCounter;
 import com.medvault.model.enums.RecordType;
 import com.medvault.repository.MedicalRecordRepository;
+import com.medvault.util.KeysetCursor;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
@@ -25,7 +28,6 @@ import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Map;
 import java.util.UUID;
-import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
@@ -36,17 +38,22 @@ public class MedicalRecordService {
     private final PatientService patientService;
     private final DoctorService doctorService;
     private final CloudinaryService cloudinaryService;
+    private final DashboardCounterService dashboardCounters;
 
     @Value("${file.upload-dir:./uploads/medical-records}")
     private String uploadDir;
 
-    // For the controller - returns DTOs
-    public List<MedicalRecordResponse> getPatientRecords(Long patientId) {
+    // For the controller - returns a page of DTOs, latest upload first
+    public CursorPage<MedicalRecordResponse> getPatientRecords(Long patientId, String cursor, Integer limit) {
         log.info("Fetching medical records for patient: {}", patientId);
-        return medicalRecordRepository.findByPatientIdAndIsDeletedFalseOrderByRecordDateDesc(patientId)
-                .stream()
-                .map(this::convertToResponse)
-                .collect(Collectors.toList());
+        KeysetCursor after = KeysetCursor.decode(cursor);
+        int size = CursorPage.resolveLimit(limit);
+        List<MedicalRecordResponse> rows = after == null
+                ? medicalRecordRepository.findPatientPage(patientId, CursorPage.fetchLimit(size))
+                : medicalRecordRepository.findPatientPageAfter(patientId, after.timestamp(), after.id(),
+                        CursorPage.fetchLimit(size));
+        return CursorPage.of(rows, size, record -> record,
+                record -> new KeysetCursor(record.getUploadedAt(), record.getId()));
     }
 
     // Upload with simple parameters (for controller)
@@ -97,6 +104,7 @@ public class MedicalRecordService {
                     .build();
 
             MedicalRecord savedRecord = medicalRecordRepository.save(record);
+            dashboardCounters.adjust(patientId, DashboardCounter.RECORDS_TOTAL, 1);
             log.info("✅ Medical record uploaded successfully with Cloudinary: {}", savedRecord.getId());
 
             return convertToResponse(savedRecord);
@@ -146,7 +154,9 @@ public class MedicalRecordService {
             record.setFileSize(file.getSize());
         }
 
-        return medicalRecordRepository.save(record);
+        MedicalRecord savedRecord = medicalRecordRepository.save(record);
+        dashboardCounters.adjust(patientId, DashboardCounter.RECORDS_TOTAL, 1);
+        return savedRecord;
     }
 
     // Get records by type
@@ -201,6 +211,9 @@ public class MedicalRecordService {
             throw new IllegalStateException("You can only delete your own records");
         }
 
+        if (!record.getIsDeleted()) {
+            dashboardCounters.adjust(userId, DashboardCounter.RECORDS_TOTAL, -1);
+        }
         record.setIsDeleted(true);
         record.setDeletedAt(LocalDateTime.now());
         medicalRecordRepository.save(record);
@@ -1,12 +1,16 @@
 package com.medvault. service;
 
+import com.medvault.dto.response.CursorPage;
 import com.medvault.model. Notification;
 import com.medvault.model.Patient;
+import com.medvault.model.enums.DashboardCounter;
 import com.medvault.repository.NotificationRepository;
+import com.medvault.util.KeysetCursor;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 @Service
@@ -14,6 +18,7 @@ import java.util.List;
 public class NotificationService {
     
     private final NotificationRepository notificationRepository;
+    private final DashboardCounterService dashboardCounters;
     
     @Transactional
     public Notification createNotification(Patient patient, String title, String message, String type) {
@@ -24,12 +29,34 @@ public class NotificationService {
                 .notificationType(type)
                 . isRead(false)
                 . build();
-        
-        return notificationRepository.save(notification);
+
+        Notification saved = notificationRepository.save(notification);
+        dashboardCounters.adjust(patient.getId(), DashboardCounter.NOTIFICATIONS_UNREAD, 1);
+        return saved;
+    }
+
+    // Make a scheduled notification visible; false if another dispatcher already delivered it
+    @Transactional
+    public boolean deliverScheduled(Long notificationId) {
+        if (notificationRepository.markDelivered(notificationId, LocalDateTime.now()) == 0) {
+            return false;
+        }
+        Notification notification = notificationRepository.findById(notificationId).orElseThrow();
+        if (!notification.getIsRead()) {
+            dashboardCounters.adjust(notification.getPatient().getId(), DashboardCounter.NOTIFICATIONS_UNREAD, 1);
+        }
+        return true;
     }
     
-    public List<Notification> getPatientNotifications(Long patientId) {
-        return notificationRepository.findByPatientIdOrderByCreatedAtDesc(patientId);
+    public CursorPage<Notification> getPatientNotifications(Long patientId, String cursor, Integer limit) {
+        KeysetCursor after = KeysetCursor.decode(cursor);
+        int size = CursorPage.resolveLimit(limit);
+        List<Notification> rows = after == null
+                ? notificationRepository.findPatientPage(patientId, CursorPage.fetchLimit(size))
+                : notificationRepository.findPatientPageAfter(patientId, after.timestamp(), after.id(),
+                        CursorPage.fetchLimit(size));
+        return CursorPage.of(rows, size, notification -> notification,
+                notification -> new KeysetCursor(notification.getCreatedAt(), notification.getId()));
     }
     
     public List<Notification> getUnreadNotifications(Long patientId) {
@@ -40,6 +67,9 @@ public class NotificationService {
     public void markAsRead(Long notificationId) {
         Notification notification = notificationRepository.findById(notificationId)
                 .orElseThrow(() -> new RuntimeException("Notification not found"));
+        if (!notification.getIsRead() && isVisible(notification)) {
+            dashboardCounters.adjust(notification.getPatient().getId(), DashboardCounter.NOTIFICATIONS_UNREAD, -1);
+        }
         notification.setIsRead(true);
         notificationRepository.save(notification);
     }
@@ -50,5 +80,11 @@ public class NotificationService {
                 .findByPatientIdAndIsReadFalseOrderByCreatedAtDesc(patientId);
         notifications.forEach(notification -> notification.setIsRead(true));
         notificationRepository.saveAll(notifications);
+        dashboardCounters.adjust(patientId, DashboardCounter.NOTIFICATIONS_UNREAD, -notifications.size());
+    }
+
+    // Same rule as NotificationRepository.VISIBLE
+    private static boolean isVisible(Notification notification) {
+        return notification.getScheduledFor() == null || notification.getDeliveredAt() != null;
     }
 }
\ No newline at end of file
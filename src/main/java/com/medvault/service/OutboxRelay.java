@@ -0,0 +1,207 @@
+package com.medvault.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.medvault.model.OutboxEvent;
+import com.medvault.model.enums.OutboxStatus;
+import com.medvault.repository.OutboxEventRepository;
+import com.medvault.repository.PatientRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Drains {@code outbox_events} in batches and hands each event to
+ * {@link NotificationService} or {@link EmailService}.
+ *
+ * Each batch is claimed with SKIP LOCKED in a short transaction that leases the
+ * rows by pushing {@code available_at} past {@code outbox.relay.lease-seconds},
+ * so several instances can relay concurrently without holding row locks or a
+ * connection while SMTP is slow. Outcomes are written back in a second short
+ * transaction; an instance that dies mid-batch leaves its events to be picked up
+ * again once the lease runs out. Delivery is at-least-once: a failed event is
+ * retried with exponential backoff until {@code outbox.relay.max-attempts}, then
+ * marked FAILED.
+ */
+@Component
+@Slf4j
+public class OutboxRelay {
+
+    private final OutboxEventRepository outboxEventRepository;
+    private final PatientRepository patientRepository;
+    private final NotificationService notificationService;
+    private final EmailService emailService;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate batchTransaction;
+    private final TransactionTemplate deliveryTransaction;
+    private final MeterRegistry meterRegistry;
+
+    private final int batchSize;
+    private final int maxBatchesPerRun;
+    private final int maxAttempts;
+    private final int retentionDays;
+    private final long leaseSeconds;
+
+    public OutboxRelay(OutboxEventRepository outboxEventRepository,
+            PatientRepository patientRepository,
+            NotificationService notificationService,
+            EmailService emailService,
+            ObjectMapper objectMapper,
+            PlatformTransactionManager transactionManager,
+            MeterRegistry meterRegistry,
+            @Value("${outbox.relay.batch-size:100}") int batchSize,
+            @Value("${outbox.relay.max-batches-per-run:10}") int maxBatchesPerRun,
+            @Value("${outbox.relay.max-attempts:8}") int maxAttempts,
+            @Value("${outbox.retention-days:7}") int retentionDays,
+            @Value("${outbox.relay.lease-seconds:300}") long leaseSeconds) {
+        this.outboxEventRepository = outboxEventRepository;
+        this.patientRepository = patientRepository;
+        this.notificationService = notificationService;
+        this.emailService = emailService;
+        this.objectMapper = objectMapper;
+        this.batchTransaction = new TransactionTemplate(transactionManager);
+        this.deliveryTransaction = new TransactionTemplate(transactionManager);
+        this.meterRegistry = meterRegistry;
+        this.batchSize = batchSize;
+        this.maxBatchesPerRun = maxBatchesPerRun;
+        this.maxAttempts = maxAttempts;
+        this.retentionDays = retentionDays;
+        this.leaseSeconds = leaseSeconds;
+
+        Gauge.builder("medvault.outbox.pending", outboxEventRepository,
+                        repository -> repository.countByStatus(OutboxStatus.PENDING))
+                .description("Outbox events waiting to be relayed")
+                .register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "${outbox.relay.interval-ms:1000}")
+    public void relay() {
+        for (int i = 0; i < maxBatchesPerRun; i++) {
+            List<OutboxEvent> events = batchTransaction.execute(status -> claimBatch());
+            if (events == null || events.isEmpty()) {
+                return;
+            }
+            events.forEach(this::relayEvent);
+            batchTransaction.executeWithoutResult(status -> outboxEventRepository.saveAll(events));
+            if (events.size() < batchSize) {
+                return;
+            }
+        }
+    }
+
+    @Scheduled(cron = "${outbox.purge-cron:0 30 3 * * *}")
+    public void purgeProcessed() {
+        Integer deleted = batchTransaction.execute(status ->
+                outboxEventRepository.deleteProcessedBefore(LocalDateTime.now().minusDays(retentionDays)));
+        log.info("Purged {} processed outbox events", deleted);
+    }
+
+    private List<OutboxEvent> claimBatch() {
+        LocalDateTime now = LocalDateTime.now();
+        List<OutboxEvent> events = outboxEventRepository.claimPending(now, Limit.of(batchSize));
+        // Flushed on commit, which hides the rows from other relays until the lease runs out
+        events.forEach(event -> event.setAvailableAt(now.plusSeconds(leaseSeconds)));
+        return events;
+    }
+
+    // Runs outside any transaction; the outcome is only recorded on the detached event
+    private void relayEvent(OutboxEvent event) {
+        try {
+            deliver(event);
+            event.setStatus(OutboxStatus.PROCESSED);
+            event.setProcessedAt(LocalDateTime.now());
+            count(event, "delivered");
+        } catch (Exception e) {
+            int attempts = event.getAttempts() + 1;
+            event.setAttempts(attempts);
+            event.setLastError(truncate(e.getMessage()));
+            if (attempts >= maxAttempts) {
+                event.setStatus(OutboxStatus.FAILED);
+                log.error("Giving up on outbox event {} ({}) after {} attempts",
+                        event.getId(), event.getEventType(), attempts, e);
+                count(event, "failed");
+            } else {
+                event.setAvailableAt(LocalDateTime.now().plusSeconds(1L << Math.min(attempts, 10)));
+                log.warn("Outbox event {} ({}) failed, retrying: {}",
+                        event.getId(), event.getEventType(), e.getMessage());
+                count(event, "retried");
+            }
+        }
+    }
+
+    private void deliver(OutboxEvent event) throws Exception {
+        JsonNode payload = objectMapper.readTree(event.getPayload());
+
+        switch (event.getEventType()) {
+            case PATIENT_NOTIFICATION -> deliveryTransaction.executeWithoutResult(status ->
+                    notificationService.createNotification(
+                            patientRepository.getReferenceById(payload.get("patientId").asLong()),
+                            payload.get("title").asText(),
+                            payload.get("message").asText(),
+                            payload.get("notificationType").asText()));
+            case APPOINTMENT_CONFIRMATION_EMAIL -> emailService.deliverAppointmentConfirmationEmail(
+                    payload.get("to").asText(),
+                    payload.get("patientName").asText(),
+                    payload.get("doctorName").asText(),
+                    payload.get("appointmentDateTime").asText());
+            case DOCTOR_NEW_BOOKING_EMAIL -> emailService.deliverDoctorNewBookingEmail(
+                    payload.get("to").asText(),
+                    payload.get("doctorName").asText(),
+                    payload.get("patientName").asText(),
+                    payload.get("appointmentDateTime").asText(),
+                    payload.path("reasonForVisit").asText(null));
+            case DOCTOR_CANCELLATION_EMAIL -> emailService.deliverDoctorCancellationEmail(
+                    payload.get("to").asText(),
+                    payload.get("doctorName").asText(),
+                    payload.get("patientName").asText(),
+                    payload.get("appointmentDateTime").asText());
+            case APPOINTMENT_STATUS_EMAIL -> emailService.deliverAppointmentStatusEmail(
+                    payload.get("to").asText(),
+                    payload.get("patientName").asText(),
+                    payload.get("status").asText(),
+                    payload.get("doctorName").asText(),
+                    payload.get("appointmentDateTime").asText());
+            case FEEDBACK_REQUEST_EMAIL -> emailService.deliverFeedbackRequestEmail(
+                    payload.get("to").asText(),
+                    payload.get("patientName").asText(),
+                    payload.get("doctorName").asText(),
+                    payload.get("appointmentId").asLong());
+            case APPOINTMENT_REMINDER_EMAIL -> emailService.deliverAppointmentReminderEmail(
+                    payload.get("to").asText(),
+                    payload.get("patientName").asText(),
+                    payload.get("doctorName").asText(),
+                    payload.get("appointmentDateTime").asText());
+            case PAYMENT_CONFIRMATION_EMAIL -> emailService.deliverPaymentConfirmationEmail(
+                    payload.get("to").asText(),
+                    payload.get("patientName").asText(),
+                    payload.get("doctorName").asText(),
+                    payload.get("amount").asDouble(),
+                    payload.get("appointmentDateTime").asText());
+        }
+    }
+
+    private void count(OutboxEvent event, String outcome) {
+        Counter.builder("medvault.outbox.events")
+                .tag("type", event.getEventType().name())
+                .tag("outcome", outcome)
+                .register(meterRegistry)
+                .increment();
+    }
+
+    private static String truncate(String message) {
+        if (message == null) {
+            return null;
+        }
+        return message.length() <= 1000 ? message : message.substring(0, 1000);
+    }
+}
@@ -0,0 +1,67 @@
+package com.medvault.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.medvault.model.enums.OutboxEventType;
+import com.medvault.model.enums.OutboxStatus;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+@Service
+@RequiredArgsConstructor
+public class OutboxService {
+
+    private static final String INSERT_SQL = "INSERT INTO outbox_events " +
+            "(event_type, aggregate_id, payload, status, attempts, available_at, created_at) " +
+            "VALUES (?, ?, ?, ?, 0, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectMapper objectMapper;
+
+    public record Message(OutboxEventType type, Long aggregateId, Map<String, Object> payload) {
+    }
+
+    // Must join the caller's transaction so the event commits or rolls back with the change itself
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void enqueue(OutboxEventType type, Long aggregateId, Map<String, Object> payload) {
+        enqueueAll(List.of(new Message(type, aggregateId, payload)));
+    }
+
+    // Written as one JDBC batch; IDENTITY keys would stop Hibernate from batching these inserts
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void enqueueAll(List<Message> messages) {
+        if (messages.isEmpty()) {
+            return;
+        }
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        List<Object[]> rows = new ArrayList<>(messages.size());
+        for (Message message : messages) {
+            rows.add(new Object[] {
+                    message.type().name(),
+                    message.aggregateId(),
+                    toJson(message),
+                    OutboxStatus.PENDING.name(),
+                    now,
+                    now
+            });
+        }
+        jdbcTemplate.batchUpdate(INSERT_SQL, rows);
+    }
+
+    private String toJson(Message message) {
+        try {
+            return objectMapper.writeValueAsString(message.payload());
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not serialize outbox payload for " + message.type(), e);
+        }
+    }
+}
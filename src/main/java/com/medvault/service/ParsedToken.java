@@ -0,0 +1,47 @@
+package com.medvault.service;
+
+import io.jsonwebtoken.Claims;
+
+import java.util.Date;
+
+/**
+ * A JWT whose signature has already been verified. Serves subject, role and
+ * expiry from the single parse done by {@link JwtService#parseToken(String)}.
+ */
+public record ParsedToken(Claims claims) {
+
+    public static final String REFRESH_TYPE = "refresh";
+
+    public String subject() {
+        return claims.getSubject();
+    }
+
+    public Long userId() {
+        return claims.get("uid", Long.class);
+    }
+
+    public String role() {
+        return claims.get("role", String.class);
+    }
+
+    public String tokenId() {
+        return claims.getId();
+    }
+
+    public boolean isRefreshToken() {
+        return REFRESH_TYPE.equals(claims.get("typ", String.class));
+    }
+
+    public Date issuedAt() {
+        return claims.getIssuedAt();
+    }
+
+    public Date expiration() {
+        return claims.getExpiration();
+    }
+
+    public boolean isExpired() {
+        Date expiration = claims.getExpiration();
+        return expiration != null && expiration.before(new Date());
+    }
+}
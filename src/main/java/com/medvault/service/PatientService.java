@@ -1,20 +1,27 @@
 package com.medvault.service;
 
+import com.medvault.config.DashboardQueryPool;
 import com.medvault.dto.request.UpdatePatientProfileRequest;
+import com.medvault.dto.response.AppointmentResponse;
 import com.medvault.dto.response.DashboardResponse;
+import com.medvault.event.DashboardChangedEvent;
 import com.medvault.exception.ResourceNotFoundException;
+import com.medvault.model.DashboardCounters;
 import com.medvault.model.Patient;
 import com.medvault.repository.AppointmentRepository;
-import com.medvault.repository.MedicalRecordRepository;
-import com.medvault.repository.NotificationRepository;
 import com.medvault.repository.PatientRepository;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
 @Service
 @RequiredArgsConstructor
@@ -22,31 +29,48 @@ public class PatientService {
 
     private final PatientRepository patientRepository;
     private final AppointmentRepository appointmentRepository;
-    private final MedicalRecordRepository medicalRecordRepository;
-    private final NotificationRepository notificationRepository;
+    private final DashboardCounterService dashboardCounterService;
+    private final DashboardCache dashboardCache;
+    private final ApplicationEventPublisher eventPublisher;
+    private final DashboardQueryPool dashboardQueryPool;
+
+    @Value("${dashboard.recent-activity-limit:10}")
+    private int recentActivityLimit;
 
     public Patient getPatientById(Long id) {
         return patientRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Patient not found with id: " + id));
     }
 
+    // Counters come from one primary-key read; "upcoming" depends on the clock, so it stays a live (indexed) count.
+    // Independent queries run side by side on the dashboard pool.
     public DashboardResponse getPatientDashboard(Long patientId) {
-        Patient patient = getPatientById(patientId);
+        return dashboardCache.get(patientId, () -> buildPatientDashboard(patientId));
+    }
+
+    private DashboardResponse buildPatientDashboard(Long patientId) {
+        LocalDateTime now = LocalDateTime.now();
+        CompletableFuture<Patient> patient = dashboardQueryPool.submit(() -> getPatientById(patientId));
+        CompletableFuture<DashboardCounters> counters = dashboardQueryPool.submit(
+                () -> dashboardCounterService.getCounters(patientId));
+        CompletableFuture<Long> upcomingAppointments = dashboardQueryPool.submit(
+                () -> appointmentRepository.countUpcomingByPatient(patientId, now));
+        CompletableFuture<List<AppointmentResponse>> upcoming = dashboardQueryPool.submit(
+                () -> appointmentRepository.findUpcomingResponsesByPatient(patientId, now, Limit.of(recentActivityLimit)));
+        dashboardQueryPool.awaitAll(patient, counters, upcomingAppointments, upcoming);
 
         Map<String, Object> statistics = new HashMap<>();
-        statistics.put("totalAppointments",
-                appointmentRepository.findByPatientIdOrderByAppointmentDateTimeDesc(patientId).size());
-        statistics.put("upcomingAppointments",
-                appointmentRepository.findUpcomingAppointmentsByPatient(patientId, LocalDateTime.now()).size());
-        statistics.put("totalRecords", medicalRecordRepository.countByPatientIdAndIsDeletedFalse(patientId));
-        statistics.put("unreadNotifications", notificationRepository.countByPatientIdAndIsReadFalse(patientId));
+        statistics.put("totalAppointments", counters.join().getAppointmentsTotal());
+        statistics.put("upcomingAppointments", upcomingAppointments.join());
+        statistics.put("totalRecords", counters.join().getRecordsTotal());
+        statistics.put("unreadNotifications", counters.join().getNotificationsUnread());
 
         return DashboardResponse.builder()
-                .userId(patient.getId())
-                .userName(patient.getFirstName() + " " + patient.getLastName())
+                .userId(patient.join().getId())
+                .userName(patient.join().getFirstName() + " " + patient.join().getLastName())
                 .role("PATIENT")
                 .statistics(statistics)
-                .recentActivity(appointmentRepository.findUpcomingAppointmentsByPatient(patientId, LocalDateTime.now()))
+                .recentActivity(upcoming.join())
                 .build();
     }
 
@@ -85,6 +109,8 @@ public class PatientService {
             patient.setEmergencyContactPhone(request.getEmergencyContactPhone());
         }
 
-        return patientRepository.save(patient);
+        Patient saved = patientRepository.save(patient);
+        eventPublisher.publishEvent(new DashboardChangedEvent(List.of(patientId)));
+        return saved;
     }
 }
\ No newline at end of file
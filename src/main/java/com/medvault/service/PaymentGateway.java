@@ -0,0 +1,55 @@
+package com.medvault.service;
+
+import org.json.JSONObject;
+
+/**
+ * The remote side of a payment. {@code payment.gateway} selects the implementation:
+ * {@code razorpay} (default) or {@code fake}, an in-process stand-in for offline load tests.
+ *
+ * Callers go through {@link PaymentGatewayClient}, which adds the circuit breaker and
+ * metrics, and never call a gateway while holding a database transaction.
+ */
+public interface PaymentGateway {
+
+    /**
+     * @throws com.medvault.exception.PaymentGatewayException if the gateway fails or rejects the order
+     */
+    GatewayOrder createOrder(long amountInPaise, String receipt);
+
+    /**
+     * Ask the gateway what became of an order, for payments whose outcome never reached us.
+     *
+     * @return the settled outcome, or null while the order is still open
+     * @throws com.medvault.exception.PaymentGatewayException if the gateway can't be asked
+     */
+    PaymentUpdate fetchOrderStatus(String orderId);
+
+    // Checked locally against the key secret, no remote call
+    boolean verifyPaymentSignature(String orderId, String paymentId, String signature);
+
+    // Checked locally against the webhook secret
+    boolean verifyWebhookSignature(String payload, String signature);
+
+    /**
+     * Read a webhook body in Razorpay's format, which the fake gateway mimics.
+     *
+     * @return the payment update it reports, or null for events that don't settle a payment
+     */
+    default PaymentUpdate parseWebhookEvent(String payload) {
+        JSONObject event = new JSONObject(payload);
+        String type = event.optString("event");
+        boolean captured = type.equals("payment.captured") || type.equals("order.paid");
+        if (!captured && !type.equals("payment.failed")) {
+            return null;
+        }
+        JSONObject payment = event.getJSONObject("payload").getJSONObject("payment").getJSONObject("entity");
+        return new PaymentUpdate(payment.getString("order_id"), payment.getString("id"), captured,
+                captured ? null : payment.optString("error_description", "Payment failed"));
+    }
+
+    record GatewayOrder(String id, long amountInPaise) {
+    }
+
+    record PaymentUpdate(String orderId, String paymentId, boolean captured, String failureReason) {
+    }
+}
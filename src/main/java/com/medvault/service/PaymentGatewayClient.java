@@ -0,0 +1,108 @@
+package com.medvault.service;
+
+import com.medvault.exception.PaymentGatewayException;
+import com.medvault.exception.ServiceBusyException;
+import com.medvault.util.CircuitBreaker;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Guards the configured {@link PaymentGateway} with a circuit breaker. Once
+ * {@code payment.circuit.failure-threshold} calls in a row find the gateway unavailable,
+ * gateway calls fail fast with a 503 for {@code payment.circuit.open-seconds} instead
+ * of tying up request threads on timeouts; rejected requests don't count as failures.
+ */
+@Component
+@Slf4j
+public class PaymentGatewayClient {
+
+    private final PaymentGateway gateway;
+    private final CircuitBreaker circuitBreaker;
+    private final MeterRegistry meterRegistry;
+    private final Counter shortCircuitedCounter;
+
+    public PaymentGatewayClient(PaymentGateway gateway,
+            MeterRegistry meterRegistry,
+            @Value("${payment.circuit.failure-threshold:5}") int failureThreshold,
+            @Value("${payment.circuit.open-seconds:30}") long openSeconds) {
+        this.gateway = gateway;
+        this.circuitBreaker = new CircuitBreaker(failureThreshold, TimeUnit.SECONDS.toMillis(openSeconds));
+        this.meterRegistry = meterRegistry;
+        this.shortCircuitedCounter = Counter.builder("medvault.payment.gateway.short-circuited")
+                .description("Gateway calls refused because the circuit was open")
+                .register(meterRegistry);
+
+        Gauge.builder("medvault.payment.gateway.circuit.open", circuitBreaker,
+                        breaker -> breaker.mode() == CircuitBreaker.Mode.CLOSED ? 0 : 1)
+                .description("1 while payment gateway calls are being refused or trialled")
+                .register(meterRegistry);
+    }
+
+    public PaymentGateway.GatewayOrder createOrder(long amountInPaise, String receipt) {
+        return call("create-order", () -> gateway.createOrder(amountInPaise, receipt));
+    }
+
+    public PaymentGateway.PaymentUpdate fetchOrderStatus(String orderId) {
+        return call("fetch-status", () -> gateway.fetchOrderStatus(orderId));
+    }
+
+    public boolean verifyPaymentSignature(String orderId, String paymentId, String signature) {
+        return gateway.verifyPaymentSignature(orderId, paymentId, signature);
+    }
+
+    public boolean verifyWebhookSignature(String payload, String signature) {
+        return gateway.verifyWebhookSignature(payload, signature);
+    }
+
+    public PaymentGateway.PaymentUpdate parseWebhookEvent(String payload) {
+        return gateway.parseWebhookEvent(payload);
+    }
+
+    private <T> T call(String operation, Supplier<T> request) {
+        long waitNanos = circuitBreaker.tryAcquire();
+        if (waitNanos > 0) {
+            shortCircuitedCounter.increment();
+            throw new ServiceBusyException("Payment gateway is unavailable, please retry shortly",
+                    Math.max(1, TimeUnit.NANOSECONDS.toSeconds(waitNanos)));
+        }
+
+        long started = System.nanoTime();
+        String outcome = "success";
+        try {
+            T result = request.get();
+            circuitBreaker.onSuccess();
+            return result;
+        } catch (PaymentGatewayException e) {
+            if (e.isUnavailable()) {
+                outcome = "unavailable";
+                circuitBreaker.onFailure();
+                if (circuitBreaker.mode() == CircuitBreaker.Mode.OPEN) {
+                    log.warn("Payment gateway circuit is open after repeated failures");
+                }
+            } else {
+                outcome = "rejected";
+                circuitBreaker.onSuccess();
+            }
+            throw e;
+        } catch (RuntimeException e) {
+            // e.g. an unreadable response; the gateway is reachable but misbehaving
+            outcome = "error";
+            circuitBreaker.onFailure();
+            throw e;
+        } finally {
+            Timer.builder("medvault.payment.gateway.calls")
+                    .tag("operation", operation)
+                    .tag("outcome", outcome)
+                    .register(meterRegistry)
+                    .record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
+        }
+    }
+}
@@ -0,0 +1,285 @@
+package com.medvault.service;
+
+import com.medvault.exception.PaymentGatewayException;
+import com.medvault.exception.ServiceBusyException;
+import com.medvault.model.JobCheckpoint;
+import com.medvault.repository.JobCheckpointRepository;
+import com.medvault.repository.PaymentRepository;
+import com.medvault.repository.PendingPaymentView;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Settles payments left pending because neither the client's verify call nor a webhook
+ * reached us, by asking the gateway what became of their orders.
+ *
+ * A run covers payments created between {@code payments.reconcile.lookback-hours} and
+ * {@code payments.reconcile.min-age-minutes} ago, so checkouts still in progress are left
+ * alone. It pages through them in keyset chunks, looks each chunk's orders up with at most
+ * {@code payments.reconcile.parallelism} gateway calls in flight, and applies the settled
+ * ones through {@link PaymentService#applyGatewayUpdates} in one transaction that also
+ * advances the checkpoint. A run cut short by a restart or an open circuit resumes from
+ * the checkpoint; orders the gateway couldn't answer for are picked up by the next run.
+ *
+ * Only one instance runs at a time: a run takes a lease on the checkpoint row, renews it
+ * with every chunk and releases it at the end. The lease lapses after
+ * {@code payments.reconcile.lease-minutes} without a chunk, so a crashed instance's run
+ * is resumed elsewhere; a chunk whose lease was taken over is not applied.
+ */
+@Component
+@Slf4j
+public class PaymentReconciler implements DisposableBean {
+
+    private static final String CHECKPOINT = "payment-reconciliation";
+
+    private final PaymentRepository paymentRepository;
+    private final JobCheckpointRepository checkpointRepository;
+    private final PaymentService paymentService;
+    private final PaymentGatewayClient paymentGateway;
+    private final TransactionTemplate transactionTemplate;
+    private final ExecutorService lookups;
+    private final int chunkSize;
+    private final int minAgeMinutes;
+    private final int lookbackHours;
+    private final int leaseMinutes;
+    private final String instanceId = UUID.randomUUID().toString();
+
+    private final Timer chunkTimer;
+    private final Counter mismatchCounter;
+    private final MeterRegistry meterRegistry;
+
+    public PaymentReconciler(PaymentRepository paymentRepository,
+            JobCheckpointRepository checkpointRepository,
+            PaymentService paymentService,
+            PaymentGatewayClient paymentGateway,
+            TransactionTemplate transactionTemplate,
+            MeterRegistry meterRegistry,
+            @Value("${payments.reconcile.chunk-size:100}") int chunkSize,
+            @Value("${payments.reconcile.parallelism:4}") int parallelism,
+            @Value("${payments.reconcile.min-age-minutes:15}") int minAgeMinutes,
+            @Value("${payments.reconcile.lookback-hours:72}") int lookbackHours,
+            @Value("${payments.reconcile.lease-minutes:5}") int leaseMinutes) {
+        this.paymentRepository = paymentRepository;
+        this.checkpointRepository = checkpointRepository;
+        this.paymentService = paymentService;
+        this.paymentGateway = paymentGateway;
+        this.transactionTemplate = transactionTemplate;
+        this.chunkSize = chunkSize;
+        this.minAgeMinutes = minAgeMinutes;
+        this.lookbackHours = lookbackHours;
+        this.leaseMinutes = leaseMinutes;
+        this.meterRegistry = meterRegistry;
+
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.lookups = Executors.newFixedThreadPool(parallelism, runnable -> {
+            Thread thread = new Thread(runnable, "payment-reconcile-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        this.chunkTimer = Timer.builder("medvault.payments.reconcile.chunks")
+                .description("Time to look up and apply one chunk of pending payments")
+                .register(meterRegistry);
+        this.mismatchCounter = Counter.builder("medvault.payments.reconcile.mismatches")
+                .description("Pending payments the gateway reported as captured or failed")
+                .register(meterRegistry);
+    }
+
+    @Scheduled(cron = "${payments.reconcile.cron:0 */10 * * * *}")
+    public synchronized void reconcile() {
+        JobCheckpoint checkpoint;
+        try {
+            checkpoint = transactionTemplate.execute(status -> startOrResume());
+        } catch (DataIntegrityViolationException e) {
+            // Another instance created the checkpoint row at the same moment and runs this time
+            return;
+        }
+        if (checkpoint == null) {
+            log.debug("Payment reconciliation is running on another instance");
+            return;
+        }
+
+        long started = System.nanoTime();
+        int checked = 0;
+        int settled = 0;
+        boolean finished = false;
+        boolean leaseLost = false;
+
+        while (true) {
+            List<PendingPaymentView> chunk = paymentRepository.findPending(checkpoint.getCursorTime(),
+                    checkpoint.getCursorId(), checkpoint.getWindowEnd(), Limit.of(chunkSize));
+            if (chunk.isEmpty()) {
+                finished = true;
+                break;
+            }
+
+            Timer.Sample sample = Timer.start(meterRegistry);
+            List<Lookup> results = lookUp(chunk);
+            List<PaymentGateway.PaymentUpdate> updates = results.stream()
+                    .map(Lookup::update)
+                    .filter(Objects::nonNull)
+                    .toList();
+            // Past an open circuit nothing is known about the rest, so the chunk is redone next run
+            boolean interrupted = results.stream().anyMatch(Lookup::circuitOpen);
+            PendingPaymentView last = chunk.get(chunk.size() - 1);
+
+            ChunkResult result = transactionTemplate.execute(status -> {
+                JobCheckpoint current = lockIfHeld();
+                if (current == null) {
+                    return null;
+                }
+                int changed = updates.isEmpty() ? 0 : paymentService.applyGatewayUpdates(updates);
+                if (!interrupted) {
+                    current.setCursorTime(last.getCreatedAt());
+                    current.setCursorId(last.getId());
+                }
+                LocalDateTime now = LocalDateTime.now();
+                current.setLeaseUntil(now.plusMinutes(leaseMinutes));
+                current.setUpdatedAt(now);
+                return new ChunkResult(checkpointRepository.save(current), changed);
+            });
+            sample.stop(chunkTimer);
+            if (result == null) {
+                leaseLost = true;
+                log.warn("Payment reconciliation lease was taken over by another instance, stopping at {} / {}",
+                        checkpoint.getCursorTime(), checkpoint.getCursorId());
+                break;
+            }
+            checkpoint = result.checkpoint();
+            mismatchCounter.increment(result.applied());
+            checked += chunk.size();
+            settled += result.applied();
+
+            if (interrupted) {
+                log.warn("Payment reconciliation paused at {} / {}: payment gateway unavailable",
+                        checkpoint.getCursorTime(), checkpoint.getCursorId());
+                break;
+            }
+            if (chunk.size() < chunkSize) {
+                finished = true;
+                break;
+            }
+        }
+
+        if (!leaseLost) {
+            boolean closeWindow = finished;
+            transactionTemplate.executeWithoutResult(status -> release(closeWindow));
+        }
+        long millis = Math.max(1, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started));
+        if (checked > 0) {
+            log.info("Reconciled {} pending payments in {} ms ({} per second), {} settled from the gateway",
+                    checked, millis, checked * 1000L / millis, settled);
+        }
+    }
+
+    @Override
+    public void destroy() {
+        lookups.shutdownNow();
+    }
+
+    // Takes the lease unless another instance holds an unexpired one. A run still open in the
+    // checkpoint continues with its own window; otherwise a new window starts
+    private JobCheckpoint startOrResume() {
+        LocalDateTime now = LocalDateTime.now();
+        JobCheckpoint checkpoint = checkpointRepository.findForUpdate(CHECKPOINT)
+                .orElseGet(() -> JobCheckpoint.builder().name(CHECKPOINT).build());
+        if (checkpoint.getLeaseOwner() != null && !instanceId.equals(checkpoint.getLeaseOwner())
+                && checkpoint.getLeaseUntil() != null && checkpoint.getLeaseUntil().isAfter(now)) {
+            return null;
+        }
+        checkpoint.setLeaseOwner(instanceId);
+        checkpoint.setLeaseUntil(now.plusMinutes(leaseMinutes));
+        checkpoint.setUpdatedAt(now);
+        if (checkpoint.getWindowEnd() != null) {
+            log.info("Resuming payment reconciliation from {} / {}", checkpoint.getCursorTime(), checkpoint.getCursorId());
+            return checkpointRepository.saveAndFlush(checkpoint);
+        }
+        checkpoint.setCursorTime(now.minusHours(lookbackHours));
+        checkpoint.setCursorId(0L);
+        checkpoint.setWindowEnd(now.minusMinutes(minAgeMinutes));
+        checkpoint.setStartedAt(now);
+        return checkpointRepository.saveAndFlush(checkpoint);
+    }
+
+    // The checkpoint row locked for this transaction, or null if another instance took the lease over
+    private JobCheckpoint lockIfHeld() {
+        JobCheckpoint current = checkpointRepository.findForUpdate(CHECKPOINT).orElse(null);
+        return current != null && instanceId.equals(current.getLeaseOwner()) ? current : null;
+    }
+
+    // Hands the lease back so the next run, on any instance, can start or resume straight away
+    private void release(boolean closeWindow) {
+        JobCheckpoint current = lockIfHeld();
+        if (current == null) {
+            return;
+        }
+        LocalDateTime now = LocalDateTime.now();
+        if (closeWindow) {
+            current.setWindowEnd(null);
+            current.setCompletedAt(now);
+        }
+        current.setLeaseOwner(null);
+        current.setLeaseUntil(null);
+        current.setUpdatedAt(now);
+        checkpointRepository.save(current);
+    }
+
+    private List<Lookup> lookUp(List<PendingPaymentView> chunk) {
+        List<CompletableFuture<Lookup>> futures = new ArrayList<>(chunk.size());
+        for (PendingPaymentView payment : chunk) {
+            futures.add(CompletableFuture.supplyAsync(() -> lookUp(payment.getRazorpayOrderId()), lookups));
+        }
+        return futures.stream().map(CompletableFuture::join).toList();
+    }
+
+    private Lookup lookUp(String orderId) {
+        try {
+            PaymentGateway.PaymentUpdate update = paymentGateway.fetchOrderStatus(orderId);
+            count(update == null ? "open" : update.captured() ? "captured" : "failed");
+            return new Lookup(update, false);
+        } catch (ServiceBusyException e) {
+            count("skipped");
+            return new Lookup(null, true);
+        } catch (PaymentGatewayException e) {
+            count("error");
+            return new Lookup(null, false);
+        } catch (RuntimeException e) {
+            log.warn("Could not reconcile order {}: {}", orderId, e.getMessage());
+            count("error");
+            return new Lookup(null, false);
+        }
+    }
+
+    private void count(String outcome) {
+        Counter.builder("medvault.payments.reconcile.lookups")
+                .tag("outcome", outcome)
+                .register(meterRegistry)
+                .increment();
+    }
+
+    private record Lookup(PaymentGateway.PaymentUpdate update, boolean circuitOpen) {
+    }
+
+    private record ChunkResult(JobCheckpoint checkpoint, int applied) {
+    }
+}
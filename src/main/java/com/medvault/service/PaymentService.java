@@ -3,25 +3,34 @@ package com.medvault.service;
 import com.medvault.dto.request.PaymentVerificationRequest;
 import com.medvault.dto.response.PaymentResponse;
 import com.medvault.dto.response.RevenueResponse;
+import com.medvault.exception.PaymentGatewayException;
 import com.medvault.exception.ResourceNotFoundException;
 import com.medvault.model.Appointment;
+import com.medvault.model.DoctorRevenue;
+import com.medvault.event.AnalyticsEvent;
 import com.medvault.model.Payment;
+import com.medvault.model.enums.AnalyticsMetric;
+import com.medvault.model.enums.OutboxEventType;
 import com.medvault.model.enums.PaymentStatus;
 import com.medvault.repository.AppointmentRepository;
 import com.medvault.repository.PaymentRepository;
-import com.razorpay.Order;
-import com.razorpay.RazorpayClient;
-import com.razorpay.RazorpayException;
-import com.razorpay.Utils;
+import com.medvault.repository.RevenueTotalsView;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.json.JSONObject;
-import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 @Service
@@ -31,18 +40,15 @@ public class PaymentService {
 
     private final PaymentRepository paymentRepository;
     private final AppointmentRepository appointmentRepository;
-    private final EmailService emailService;
+    private final OutboxService outboxService;
+    private final PaymentGatewayClient paymentGateway;
+    private final TransactionTemplate transactionTemplate;
+    private final RevenueLedgerService revenueLedger;
+    private final ApplicationEventPublisher eventPublisher;
 
-    // Razorpay credentials
-    @Value("${razorpay.key.id:rzp_test_Q13Kh5Own98eXP}")
-    private String razorpayKeyId;
-
-    @Value("${razorpay.key.secret:}")
-    private String razorpayKeySecret;
-
-    @Transactional
+    // Two short transactions around the gateway call, so no connection is held during the round trip
     public PaymentResponse createPaymentOrder(Long appointmentId) {
-        try {
+        Double consultationFee = transactionTemplate.execute(status -> {
             Appointment appointment = appointmentRepository.findById(appointmentId)
                     .orElseThrow(() -> new ResourceNotFoundException("Appointment not found"));
 
@@ -50,92 +56,72 @@ public class PaymentService {
             if (paymentRepository.findByAppointmentId(appointmentId).isPresent()) {
                 throw new IllegalStateException("Payment already exists for this appointment");
             }
+            return appointment.getDoctor().getConsultationFee();
+        });
 
-            // Validate consultation fee
-            Double consultationFee = appointment.getDoctor().getConsultationFee();
-            if (consultationFee == null || consultationFee < 1.0) {
-                throw new IllegalStateException(
-                        "Consultation fee must be at least ₹1. Please set a valid consultation fee for the doctor.");
-            }
-
-            // Create Razorpay client
-            RazorpayClient razorpayClient = new RazorpayClient(razorpayKeyId, razorpayKeySecret);
-
-            // Create Razorpay order
-            // Amount must be in paise (smallest currency unit) and at least 100 paise (₹1)
-            int amountInPaise = (int) Math.round(consultationFee * 100);
-            if (amountInPaise < 100) {
-                throw new IllegalStateException("Order amount must be at least ₹1 (100 paise)");
-            }
-
-            JSONObject orderRequest = new JSONObject();
-            orderRequest.put("amount", amountInPaise); // Amount in paise
-            orderRequest.put("currency", "INR");
-            orderRequest.put("receipt", "receipt_" + appointmentId);
-
-            log.info("Creating Razorpay order for appointment {} with amount: ₹{} ({} paise)",
-                    appointmentId, consultationFee, amountInPaise);
-
-            Order razorpayOrder = razorpayClient.orders.create(orderRequest);
-            String orderId = razorpayOrder.get("id");
+        // Validate consultation fee
+        if (consultationFee == null || consultationFee < 1.0) {
+            throw new IllegalStateException(
+                    "Consultation fee must be at least ₹1. Please set a valid consultation fee for the doctor.");
+        }
 
-            log.info("Razorpay order created successfully: {}", orderId);
+        // Amount must be in paise (smallest currency unit) and at least 100 paise (₹1)
+        long amountInPaise = Math.round(consultationFee * 100);
+        if (amountInPaise < 100) {
+            throw new IllegalStateException("Order amount must be at least ₹1 (100 paise)");
+        }
 
-            // Save payment in database
-            Payment payment = Payment.builder()
-                    .appointment(appointment)
-                    .amount(consultationFee)
-                    .razorpayOrderId(orderId)
-                    .status(PaymentStatus.PENDING)
-                    .build();
+        log.info("Creating payment order for appointment {} with amount: ₹{} ({} paise)",
+                appointmentId, consultationFee, amountInPaise);
+        PaymentGateway.GatewayOrder order = paymentGateway.createOrder(amountInPaise, "receipt_" + appointmentId);
+        log.info("Payment order created successfully: {}", order.id());
 
-            Payment savedPayment = paymentRepository.save(payment);
+        // Save payment in database; a concurrent request may have created one during the gateway call
+        try {
+            return transactionTemplate.execute(status -> {
+                Appointment appointment = appointmentRepository.findById(appointmentId)
+                        .orElseThrow(() -> new ResourceNotFoundException("Appointment not found"));
+                if (paymentRepository.findByAppointmentId(appointmentId).isPresent()) {
+                    throw new IllegalStateException("Payment already exists for this appointment");
+                }
 
-            return mapToPaymentResponse(savedPayment);
-        } catch (RazorpayException e) {
-            log.error("Error creating Razorpay order", e);
-            throw new RuntimeException("Failed to create payment order: " + e.getMessage());
+                Payment payment = Payment.builder()
+                        .appointment(appointment)
+                        .amount(consultationFee)
+                        .doctorId(appointment.getDoctor().getId())
+                        .razorpayOrderId(order.id())
+                        .status(PaymentStatus.PENDING)
+                        .build();
+
+                Payment savedPayment = paymentRepository.saveAndFlush(payment);
+                return mapToPaymentResponse(savedPayment);
+            });
+        } catch (DataIntegrityViolationException e) {
+            throw new IllegalStateException("Payment already exists for this appointment");
         }
     }
 
     @Transactional
     public PaymentResponse verifyAndCompletePayment(PaymentVerificationRequest request) {
-        Payment payment = paymentRepository.findByRazorpayOrderId(request.getRazorpayOrderId())
+        Payment payment = paymentRepository.findForUpdateByRazorpayOrderId(request.getRazorpayOrderId())
                 .orElseThrow(() -> new ResourceNotFoundException("Payment not found"));
 
-        // Verify signature using Razorpay utility
-        try {
-            JSONObject options = new JSONObject();
-            options.put("razorpay_order_id", request.getRazorpayOrderId());
-            options.put("razorpay_payment_id", request.getRazorpayPaymentId());
-            options.put("razorpay_signature", request.getRazorpaySignature());
+        // Settled is final: a retry, a webhook race or a bad signature gets the stored result without
+        // writes, so a completed payment is never marked failed and then counted again by a later verify
+        if (payment.getStatus() == PaymentStatus.COMPLETED) {
+            return mapToPaymentResponse(payment);
+        }
 
-            boolean isValid = Utils.verifyPaymentSignature(options, razorpayKeySecret);
+        try {
+            boolean isValid = paymentGateway.verifyPaymentSignature(request.getRazorpayOrderId(),
+                    request.getRazorpayPaymentId(), request.getRazorpaySignature());
 
             if (isValid) {
-                payment.setRazorpayPaymentId(request.getRazorpayPaymentId());
-                payment.setRazorpaySignature(request.getRazorpaySignature());
-                payment.setStatus(PaymentStatus.COMPLETED);
-                payment.setPaidAt(LocalDateTime.now());
-
-                // Send payment confirmation email to patient
-                try {
-                    Appointment appointment = payment.getAppointment();
-                    String patientName = appointment.getPatient().getFirstName() + " " +
-                            appointment.getPatient().getLastName();
-                    String doctorName = "Dr. " + appointment.getDoctor().getFirstName() + " " +
-                            appointment.getDoctor().getLastName();
-                    emailService.sendPaymentConfirmationEmail(
-                            appointment.getPatient().getEmail(),
-                            patientName,
-                            doctorName,
-                            payment.getAmount(),
-                            appointment.getAppointmentDateTime().toString());
-                    log.info("✅ Payment confirmation email sent to patient");
-                } catch (Exception e) {
-                    log.error("Failed to send payment confirmation email", e);
-                    // Don't fail payment if email fails
+                if (!complete(payment, request.getRazorpayPaymentId(), request.getRazorpaySignature(),
+                        LocalDateTime.now())) {
+                    throw new IllegalStateException("Payment was completed concurrently, please check its status");
                 }
+                outboxService.enqueueAll(List.of(recordCompletion(payment)));
             } else {
                 payment.setStatus(PaymentStatus.FAILED);
                 payment.setFailureReason("Invalid signature");
@@ -143,48 +129,114 @@ public class PaymentService {
 
             Payment updatedPayment = paymentRepository.save(payment);
             return mapToPaymentResponse(updatedPayment);
-        } catch (RazorpayException e) {
-            log.error("Error verifying payment signature", e);
+        } catch (PaymentGatewayException e) {
             payment.setStatus(PaymentStatus.FAILED);
             payment.setFailureReason("Signature verification failed");
             paymentRepository.save(payment);
-            throw new RuntimeException("Payment verification failed: " + e.getMessage());
+            throw e;
+        }
+    }
+
+    /**
+     * Settle payments reported by gateway webhooks, one batch per call, in the caller's
+     * transaction. Captures complete any payment not yet completed; a failure only marks a
+     * payment still pending, so a late failure event can't undo a capture. Both are
+     * conditional updates, so a payment settled concurrently by verify or another batch is
+     * skipped rather than recorded twice.
+     *
+     * @return number of payments changed
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public int applyGatewayUpdates(List<PaymentGateway.PaymentUpdate> updates) {
+        Set<String> orderIds = updates.stream().map(PaymentGateway.PaymentUpdate::orderId).collect(Collectors.toSet());
+        Map<String, Payment> payments = paymentRepository.findWithAppointmentByRazorpayOrderIdIn(orderIds).stream()
+                .collect(Collectors.toMap(Payment::getRazorpayOrderId, payment -> payment));
+
+        LocalDateTime now = LocalDateTime.now();
+        List<OutboxService.Message> emails = new ArrayList<>();
+        int applied = 0;
+        for (PaymentGateway.PaymentUpdate update : updates) {
+            Payment payment = payments.get(update.orderId());
+            if (payment == null) {
+                log.warn("Gateway update for unknown order {}", update.orderId());
+                continue;
+            }
+            if (update.captured()) {
+                if (payment.getStatus() == PaymentStatus.COMPLETED
+                        || !complete(payment, update.paymentId(), null, now)) {
+                    continue;
+                }
+                emails.add(recordCompletion(payment));
+            } else {
+                if (payment.getStatus() != PaymentStatus.PENDING
+                        || paymentRepository.markFailed(payment.getId(), update.paymentId(), update.failureReason()) == 0) {
+                    continue;
+                }
+                payment.setRazorpayPaymentId(update.paymentId());
+                payment.setStatus(PaymentStatus.FAILED);
+                payment.setFailureReason(update.failureReason());
+            }
+            applied++;
         }
+        outboxService.enqueueAll(emails);
+        return applied;
     }
 
+    // Totals come from the revenue ledger; recent payments are a top-N read off the payments indexes
     public RevenueResponse getDoctorRevenue(Long doctorId) {
-        Double totalRevenue = paymentRepository.getDoctorRevenue(doctorId);
-        List<Payment> payments = paymentRepository.getDoctorPayments(doctorId);
+        DoctorRevenue totals = revenueLedger.getDoctorTotals(doctorId);
+        List<PaymentResponse> recentPayments = paymentRepository.findRecentDoctorPayments(doctorId, Limit.of(10));
+        return toRevenueResponse(totals.getRevenue(), totals.getPayments(), recentPayments);
+    }
 
-        List<PaymentResponse> recentPayments = payments.stream()
-                .limit(10)
-                .map(this::mapToPaymentResponse)
-                .collect(Collectors.toList());
+    public RevenueResponse getTotalRevenue() {
+        RevenueTotalsView totals = revenueLedger.getPlatformTotals();
+        List<PaymentResponse> recentPayments = paymentRepository.findRecentCompletedPayments(Limit.of(20));
+        return toRevenueResponse(totals.getRevenue(), totals.getPayments(), recentPayments);
+    }
 
+    private static RevenueResponse toRevenueResponse(double totalRevenue, long completedPayments,
+            List<PaymentResponse> recentPayments) {
         return RevenueResponse.builder()
-                .totalRevenue(totalRevenue != null ? totalRevenue : 0.0)
-                .totalCompletedPayments(payments.size())
-                .averageConsultationFee(payments.isEmpty() ? 0.0 : totalRevenue / payments.size())
+                .totalRevenue(totalRevenue)
+                .totalCompletedPayments((int) completedPayments)
+                .averageConsultationFee(completedPayments == 0 ? 0.0 : totalRevenue / completedPayments)
                 .recentPayments(recentPayments)
                 .build();
     }
 
-    public RevenueResponse getTotalRevenue() {
-        Double totalRevenue = paymentRepository.getTotalRevenue();
-        List<Payment> allPayments = paymentRepository.findByStatus(PaymentStatus.COMPLETED);
+    // Whoever moves the row to COMPLETED records it; the loaded entity is brought in line with the row
+    private boolean complete(Payment payment, String paymentId, String signature, LocalDateTime paidAt) {
+        if (paymentRepository.markCompleted(payment.getId(), paymentId, signature, paidAt) == 0) {
+            return false;
+        }
+        payment.setRazorpayPaymentId(paymentId);
+        payment.setRazorpaySignature(signature);
+        payment.setStatus(PaymentStatus.COMPLETED);
+        payment.setFailureReason(null);
+        payment.setPaidAt(paidAt);
+        return true;
+    }
 
-        List<PaymentResponse> recentPayments = allPayments.stream()
-                .sorted((p1, p2) -> p2.getPaidAt().compareTo(p1.getPaidAt()))
-                .limit(20)
-                .map(this::mapToPaymentResponse)
-                .collect(Collectors.toList());
+    // Ledger and analytics follow the payment in its transaction, counted on the day it was paid;
+    // returns the confirmation email for the caller to enqueue with the rest of its batch
+    private OutboxService.Message recordCompletion(Payment payment) {
+        if (payment.getDoctorId() == null) {
+            payment.setDoctorId(payment.getAppointment().getDoctor().getId());
+        }
+        LocalDate day = payment.getPaidAt().toLocalDate();
+        revenueLedger.recordPayment(payment.getDoctorId(), day, payment.getAmount());
+        eventPublisher.publishEvent(new AnalyticsEvent(payment.getDoctorId(), day, AnalyticsMetric.PAYMENTS, 1));
+        eventPublisher.publishEvent(new AnalyticsEvent(payment.getDoctorId(), day, AnalyticsMetric.REVENUE,
+                payment.getAmount()));
 
-        return RevenueResponse.builder()
-                .totalRevenue(totalRevenue != null ? totalRevenue : 0.0)
-                .totalCompletedPayments(allPayments.size())
-                .averageConsultationFee(allPayments.isEmpty() ? 0.0 : totalRevenue / allPayments.size())
-                .recentPayments(recentPayments)
-                .build();
+        Appointment appointment = payment.getAppointment();
+        return new OutboxService.Message(OutboxEventType.PAYMENT_CONFIRMATION_EMAIL, appointment.getId(), Map.of(
+                "to", appointment.getPatient().getEmail(),
+                "patientName", appointment.getPatient().getFirstName() + " " + appointment.getPatient().getLastName(),
+                "doctorName", "Dr. " + appointment.getDoctor().getFirstName() + " " + appointment.getDoctor().getLastName(),
+                "amount", payment.getAmount(),
+                "appointmentDateTime", appointment.getAppointmentDateTime().toString()));
     }
 
     private PaymentResponse mapToPaymentResponse(Payment payment) {
@@ -0,0 +1,286 @@
+package com.medvault.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.medvault.exception.BadRequestException;
+import com.medvault.exception.ServiceBusyException;
+import com.medvault.exception.UnauthorizedException;
+import com.medvault.repository.ProcessedWebhookEventRepository;
+import com.medvault.util.TokenDigest;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.json.JSONException;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Applies payment gateway webhooks off the request thread.
+ *
+ * {@link #receive} only verifies, dedupes and enqueues, so the endpoint acknowledges at
+ * once; when the bounded queue is full it answers 503 and the gateway redelivers later.
+ * A single worker drains the queue in batches, and each batch is one transaction: the
+ * event ids go into {@code processed_webhook_events}, and every payment in the batch is
+ * loaded with one query and settled through {@link PaymentService#applyGatewayUpdates}.
+ *
+ * A batch that fails is retried event by event after an exponential backoff
+ * ({@code payments.webhook.retry-backoff-ms}, doubled per attempt), so a short database
+ * outage doesn't use up {@code payments.webhook.max-attempts} within milliseconds.
+ *
+ * Redeliveries are caught by an in-memory set of recent event ids first and by the table
+ * after that, which also covers events delivered to another instance. An event lost from
+ * the queue in a crash leaves its payment pending until {@link PaymentReconciler} asks the
+ * gateway about it, as does an event dropped after its last attempt or still waiting
+ * out its backoff at shutdown.
+ */
+@Component
+@Slf4j
+public class PaymentWebhookProcessor implements DisposableBean {
+
+    private static final String INSERT_EVENT_SQL =
+            "INSERT INTO processed_webhook_events (event_id, received_at) VALUES (?, ?)";
+
+    private final PaymentService paymentService;
+    private final PaymentGatewayClient paymentGateway;
+    private final ProcessedWebhookEventRepository eventRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+
+    private final BlockingQueue<QueuedEvent> queue;
+    private final Cache<String, Boolean> recentEventIds;
+    private final int batchSize;
+    private final int maxAttempts;
+    private final long retryBackoffMillis;
+    private final int maxPendingRetries;
+    private final AtomicInteger pendingRetries = new AtomicInteger();
+    private final ScheduledExecutorService retryScheduler;
+    private final int retentionDays;
+    private final Thread worker;
+    private volatile boolean running = true;
+
+    private final Counter acceptedCounter;
+    private final Counter duplicateCounter;
+    private final Counter rejectedCounter;
+    private final Counter droppedCounter;
+
+    public PaymentWebhookProcessor(PaymentService paymentService,
+            PaymentGatewayClient paymentGateway,
+            ProcessedWebhookEventRepository eventRepository,
+            JdbcTemplate jdbcTemplate,
+            TransactionTemplate transactionTemplate,
+            MeterRegistry meterRegistry,
+            @Value("${payments.webhook.queue-capacity:1000}") int queueCapacity,
+            @Value("${payments.webhook.batch-size:100}") int batchSize,
+            @Value("${payments.webhook.max-attempts:3}") int maxAttempts,
+            @Value("${payments.webhook.retry-backoff-ms:1000}") long retryBackoffMillis,
+            @Value("${payments.webhook.recent-ids:100000}") long recentIds,
+            @Value("${payments.webhook.retention-days:7}") int retentionDays) {
+        this.paymentService = paymentService;
+        this.paymentGateway = paymentGateway;
+        this.eventRepository = eventRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        this.recentEventIds = Caffeine.newBuilder()
+                .maximumSize(recentIds)
+                .expireAfterWrite(Duration.ofDays(1))
+                .build();
+        this.batchSize = batchSize;
+        this.maxAttempts = maxAttempts;
+        this.retryBackoffMillis = retryBackoffMillis;
+        // Waiting retries are held outside the queue, so bound them the same way
+        this.maxPendingRetries = queueCapacity;
+        this.retryScheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "payment-webhook-retry");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.retentionDays = retentionDays;
+
+        this.acceptedCounter = webhookCounter(meterRegistry, "accepted");
+        this.duplicateCounter = webhookCounter(meterRegistry, "duplicate");
+        this.rejectedCounter = webhookCounter(meterRegistry, "rejected");
+        this.droppedCounter = webhookCounter(meterRegistry, "dropped");
+        Gauge.builder("medvault.payments.webhooks.queue.depth", queue, BlockingQueue::size)
+                .register(meterRegistry);
+        Gauge.builder("medvault.payments.webhooks.retries.pending", pendingRetries, AtomicInteger::get)
+                .register(meterRegistry);
+
+        this.worker = new Thread(this::drain, "payment-webhook-worker");
+        this.worker.setDaemon(true);
+        this.worker.start();
+    }
+
+    /**
+     * Verify a webhook delivery and queue it for processing.
+     *
+     * @param eventId the gateway's event id; deliveries without one are keyed by a digest of the body
+     * @return false if the event was a duplicate or doesn't concern a payment
+     * @throws UnauthorizedException if the signature doesn't match
+     * @throws ServiceBusyException if the queue is full
+     */
+    public boolean receive(String payload, String signature, String eventId) {
+        if (!paymentGateway.verifyWebhookSignature(payload, signature)) {
+            throw new UnauthorizedException("Invalid webhook signature");
+        }
+        PaymentGateway.PaymentUpdate update;
+        try {
+            update = paymentGateway.parseWebhookEvent(payload);
+        } catch (JSONException e) {
+            throw new BadRequestException("Malformed webhook payload");
+        }
+        if (update == null) {
+            return false;
+        }
+        return accept(eventId != null && !eventId.isBlank() ? eventId : TokenDigest.of(payload).key(), update);
+    }
+
+    private boolean accept(String eventId, PaymentGateway.PaymentUpdate update) {
+        if (recentEventIds.asMap().putIfAbsent(eventId, Boolean.TRUE) != null) {
+            duplicateCounter.increment();
+            return false;
+        }
+        if (!queue.offer(new QueuedEvent(eventId, update, 1))) {
+            recentEventIds.invalidate(eventId);
+            rejectedCounter.increment();
+            throw new ServiceBusyException("Too many payment events, please retry shortly", 1);
+        }
+        acceptedCounter.increment();
+        return true;
+    }
+
+    @Scheduled(cron = "${payments.webhook.prune-cron:0 0 5 * * *}")
+    public void prune() {
+        LocalDateTime cutoff = LocalDateTime.now().minusDays(retentionDays);
+        Integer removed = transactionTemplate.execute(status -> eventRepository.deleteReceivedBefore(cutoff));
+        log.info("Pruned {} processed webhook events received before {}", removed, cutoff);
+    }
+
+    @Override
+    public void destroy() throws InterruptedException {
+        // The worker finishes what is queued, then exits; retries still backing off are left to the reconciler
+        retryScheduler.shutdownNow();
+        running = false;
+        worker.join(TimeUnit.SECONDS.toMillis(10));
+    }
+
+    private void drain() {
+        while (running || !queue.isEmpty()) {
+            try {
+                QueuedEvent first = queue.poll(1, TimeUnit.SECONDS);
+                if (first == null) {
+                    continue;
+                }
+                List<QueuedEvent> batch = new ArrayList<>(batchSize);
+                batch.add(first);
+                queue.drainTo(batch, batchSize - 1);
+                process(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException e) {
+                log.error("Payment webhook worker error", e);
+            }
+        }
+    }
+
+    private void process(List<QueuedEvent> batch) {
+        try {
+            transactionTemplate.executeWithoutResult(status -> apply(batch));
+        } catch (DataIntegrityViolationException e) {
+            // Another instance recorded one of these ids meanwhile; find it by going one at a time
+            for (QueuedEvent event : batch) {
+                try {
+                    transactionTemplate.executeWithoutResult(status -> apply(List.of(event)));
+                } catch (DataIntegrityViolationException duplicate) {
+                    duplicateCounter.increment();
+                } catch (RuntimeException failure) {
+                    retry(List.of(event), failure);
+                }
+            }
+        } catch (RuntimeException e) {
+            retry(batch, e);
+        }
+    }
+
+    private void apply(List<QueuedEvent> batch) {
+        Map<String, QueuedEvent> events = new LinkedHashMap<>();
+        batch.forEach(event -> events.putIfAbsent(event.eventId(), event));
+        eventRepository.findExistingIds(events.keySet()).forEach(events::remove);
+        if (events.isEmpty()) {
+            return;
+        }
+
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        jdbcTemplate.batchUpdate(INSERT_EVENT_SQL, events.keySet().stream()
+                .map(eventId -> new Object[] {eventId, now})
+                .toList());
+        int applied = paymentService.applyGatewayUpdates(events.values().stream()
+                .map(QueuedEvent::update)
+                .toList());
+        log.debug("Applied {} webhook events, {} payments changed", events.size(), applied);
+    }
+
+    private void retry(List<QueuedEvent> events, RuntimeException failure) {
+        log.warn("Failed to apply {} webhook events: {}", events.size(), failure.getMessage());
+        for (QueuedEvent event : events) {
+            if (event.attempt() >= maxAttempts) {
+                drop(event);
+                continue;
+            }
+            if (pendingRetries.incrementAndGet() > maxPendingRetries) {
+                pendingRetries.decrementAndGet();
+                drop(event);
+                continue;
+            }
+            long delay = retryBackoffMillis << Math.min(event.attempt() - 1, 10);
+            try {
+                retryScheduler.schedule(() -> {
+                    pendingRetries.decrementAndGet();
+                    if (!queue.offer(new QueuedEvent(event.eventId(), event.update(), event.attempt() + 1))) {
+                        drop(event);
+                    }
+                }, delay, TimeUnit.MILLISECONDS);
+            } catch (RejectedExecutionException shuttingDown) {
+                pendingRetries.decrementAndGet();
+                drop(event);
+            }
+        }
+    }
+
+    private void drop(QueuedEvent event) {
+        recentEventIds.invalidate(event.eventId());
+        droppedCounter.increment();
+        log.error("Dropped webhook event {} for order {}", event.eventId(), event.update().orderId());
+    }
+
+    private static Counter webhookCounter(MeterRegistry meterRegistry, String outcome) {
+        return Counter.builder("medvault.payments.webhooks")
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+
+    private record QueuedEvent(String eventId, PaymentGateway.PaymentUpdate update, int attempt) {
+    }
+}
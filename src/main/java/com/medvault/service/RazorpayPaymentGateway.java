@@ -0,0 +1,140 @@
+package com.medvault.service;
+
+import com.medvault.exception.PaymentGatewayException;
+import com.razorpay.RazorpayException;
+import com.razorpay.Utils;
+import lombok.extern.slf4j.Slf4j;
+import org.json.JSONArray;
+import org.json.JSONObject;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.MediaType;
+import org.springframework.http.client.JdkClientHttpRequestFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.RestClient;
+import org.springframework.web.client.RestClientException;
+
+import java.net.http.HttpClient;
+import java.time.Duration;
+
+/**
+ * Razorpay over its REST API. The SDK keeps a private static HTTP client whose timeouts
+ * can't be configured, so orders and status lookups go through one shared {@link RestClient} instead: a
+ * single JDK {@link HttpClient} keeps connections to the gateway alive between calls,
+ * and connect and read timeouts bound how long a request thread can wait. The SDK is
+ * still used for signature checks, which are local.
+ */
+@Component
+@ConditionalOnProperty(name = "payment.gateway", havingValue = "razorpay", matchIfMissing = true)
+@Slf4j
+public class RazorpayPaymentGateway implements PaymentGateway {
+
+    private final RestClient restClient;
+    private final String keySecret;
+    private final String webhookSecret;
+
+    public RazorpayPaymentGateway(
+            @Value("${razorpay.key.id:rzp_test_Q13Kh5Own98eXP}") String keyId,
+            @Value("${razorpay.key.secret:}") String keySecret,
+            @Value("${razorpay.webhook.secret:}") String webhookSecret,
+            @Value("${payment.razorpay.base-url:https://api.razorpay.com/v1}") String baseUrl,
+            @Value("${payment.razorpay.connect-timeout-ms:2000}") long connectTimeoutMillis,
+            @Value("${payment.razorpay.read-timeout-ms:5000}") long readTimeoutMillis) {
+        this.keySecret = keySecret;
+        this.webhookSecret = webhookSecret;
+
+        HttpClient httpClient = HttpClient.newBuilder()
+                .connectTimeout(Duration.ofMillis(connectTimeoutMillis))
+                .build();
+        JdkClientHttpRequestFactory requestFactory = new JdkClientHttpRequestFactory(httpClient);
+        requestFactory.setReadTimeout(Duration.ofMillis(readTimeoutMillis));
+
+        this.restClient = RestClient.builder()
+                .baseUrl(baseUrl)
+                .requestFactory(requestFactory)
+                .defaultHeaders(headers -> headers.setBasicAuth(keyId, keySecret))
+                .build();
+    }
+
+    @Override
+    public GatewayOrder createOrder(long amountInPaise, String receipt) {
+        JSONObject orderRequest = new JSONObject();
+        orderRequest.put("amount", amountInPaise);
+        orderRequest.put("currency", "INR");
+        orderRequest.put("receipt", receipt);
+
+        String body = exchange("order " + receipt, restClient.post()
+                .uri("/orders")
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(orderRequest.toString()));
+        JSONObject order = new JSONObject(body);
+        return new GatewayOrder(order.getString("id"), order.getLong("amount"));
+    }
+
+    // Settled once an attempt was captured (refunds included), or once every attempt failed
+    @Override
+    public PaymentUpdate fetchOrderStatus(String orderId) {
+        String body = exchange("status of " + orderId, restClient.get().uri("/orders/{id}/payments", orderId));
+        JSONArray attempts = new JSONObject(body).getJSONArray("items");
+        JSONObject failed = null;
+        boolean open = false;
+        for (int i = 0; i < attempts.length(); i++) {
+            JSONObject attempt = attempts.getJSONObject(i);
+            switch (attempt.getString("status")) {
+                case "captured", "refunded" -> {
+                    return new PaymentUpdate(orderId, attempt.getString("id"), true, null);
+                }
+                case "failed" -> failed = attempt;
+                // created or authorized: the customer may still complete it
+                default -> open = true;
+            }
+        }
+        if (open || failed == null) {
+            return null;
+        }
+        return new PaymentUpdate(orderId, failed.getString("id"), false,
+                failed.optString("error_description", "Payment failed"));
+    }
+
+    private String exchange(String description, RestClient.RequestHeadersSpec<?> request) {
+        try {
+            return request.retrieve().body(String.class);
+        } catch (HttpClientErrorException e) {
+            // The gateway answered and refused the request, which says nothing about its health
+            log.error("Razorpay rejected {}: {} {}", description, e.getStatusCode(), e.getResponseBodyAsString());
+            throw new PaymentGatewayException("Payment gateway rejected the request", false);
+        } catch (RestClientException e) {
+            // Timeouts, connection failures and 5xx responses
+            log.error("Razorpay {} failed: {}", description, e.getMessage());
+            throw new PaymentGatewayException("Payment gateway is not responding, please retry shortly", true);
+        }
+    }
+
+    @Override
+    public boolean verifyPaymentSignature(String orderId, String paymentId, String signature) {
+        JSONObject options = new JSONObject();
+        options.put("razorpay_order_id", orderId);
+        options.put("razorpay_payment_id", paymentId);
+        options.put("razorpay_signature", signature);
+        try {
+            return Utils.verifyPaymentSignature(options, keySecret);
+        } catch (RazorpayException e) {
+            log.error("Error verifying payment signature", e);
+            throw new PaymentGatewayException("Payment verification failed: " + e.getMessage(), false);
+        }
+    }
+
+    @Override
+    public boolean verifyWebhookSignature(String payload, String signature) {
+        if (webhookSecret.isBlank() || signature == null) {
+            return false;
+        }
+        try {
+            return Utils.verifyWebhookSignature(payload, signature, webhookSecret);
+        } catch (RazorpayException e) {
+            log.error("Error verifying webhook signature", e);
+            return false;
+        }
+    }
+}
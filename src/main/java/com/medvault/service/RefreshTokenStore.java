@@ -0,0 +1,56 @@
+package com.medvault.service;
+
+import com.medvault.event.UserAccountChangedEvent;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-memory registry of live refresh tokens, keyed by token id (jti). A refresh
+ * token is single-use: {@link #consume} removes it atomically, so rotation and
+ * reuse detection cost one map operation and no database access.
+ */
+@Component
+@Slf4j
+public class RefreshTokenStore {
+
+    private final Map<String, RefreshSession> sessions = new ConcurrentHashMap<>();
+
+    public String register(String email, long expiresAtMillis) {
+        String tokenId = UUID.randomUUID().toString();
+        sessions.put(tokenId, new RefreshSession(email, expiresAtMillis));
+        return tokenId;
+    }
+
+    // Returns false if the token was already used, revoked or never issued by this store
+    public boolean consume(String tokenId, String email) {
+        RefreshSession session = sessions.remove(tokenId);
+        return session != null
+                && session.email().equals(email)
+                && session.expiresAtMillis() > System.currentTimeMillis();
+    }
+
+    public void revokeAll(String email) {
+        sessions.values().removeIf(session -> session.email().equals(email));
+        log.debug("Revoked refresh tokens for user: {}", email);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onUserAccountChanged(UserAccountChangedEvent event) {
+        revokeAll(event.email());
+    }
+
+    @Scheduled(fixedDelayString = "${jwt.refresh-store.purge-interval-ms:300000}")
+    public void purgeExpired() {
+        long now = System.currentTimeMillis();
+        sessions.values().removeIf(session -> session.expiresAtMillis() <= now);
+    }
+
+    private record RefreshSession(String email, long expiresAtMillis) {
+    }
+}
@@ -0,0 +1,232 @@
+package com.medvault.service;
+
+import com.medvault.event.AppointmentApprovedEvent;
+import com.medvault.event.AppointmentWithdrawnEvent;
+import com.medvault.model.enums.OutboxEventType;
+import com.medvault.repository.AppointmentRepository;
+import com.medvault.repository.AppointmentStatusView;
+import com.medvault.repository.NotificationRepository;
+import com.medvault.util.HashedTimingWheel;
+import com.medvault.util.KeysetCursor;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Fires appointment reminders and scheduled notifications from an in-memory
+ * {@link HashedTimingWheel}.
+ *
+ * Reminders falling due in the next {@code reminders.window-minutes} are loaded in
+ * keyset batches, window by window, so a tick only drains the wheel's current bucket
+ * instead of querying the table. Only delivery state is persisted
+ * ({@code appointments.reminder_sent_at}, {@code notifications.delivered_at}), and each
+ * reminder is claimed with a conditional update in the same transaction that enqueues
+ * its messages: after a restart, or with several instances loading the same window,
+ * a reminder still goes out once. The first window after startup reaches back
+ * {@code reminders.catch-up-hours} for reminders missed while the application was down.
+ */
+@Component
+@Slf4j
+public class ReminderDispatcher {
+
+    private final AppointmentRepository appointmentRepository;
+    private final NotificationRepository notificationRepository;
+    private final NotificationService notificationService;
+    private final OutboxService outboxService;
+    private final TransactionTemplate transactionTemplate;
+    private final MeterRegistry meterRegistry;
+
+    private final HashedTimingWheel<Reminder> wheel;
+    private final Set<Reminder> scheduled = ConcurrentHashMap.newKeySet();
+
+    private final int windowMinutes;
+    private final int batchSize;
+    private final int appointmentLeadHours;
+    private final int catchUpHours;
+    private final int retryDelaySeconds;
+
+    // Everything due before this is in the wheel or already fired; null until the first load
+    private LocalDateTime loadedUntil;
+
+    public ReminderDispatcher(AppointmentRepository appointmentRepository,
+            NotificationRepository notificationRepository,
+            NotificationService notificationService,
+            OutboxService outboxService,
+            TransactionTemplate transactionTemplate,
+            MeterRegistry meterRegistry,
+            @Value("${reminders.tick-ms:1000}") long tickMillis,
+            @Value("${reminders.wheel-size:512}") int wheelSize,
+            @Value("${reminders.window-minutes:10}") int windowMinutes,
+            @Value("${reminders.batch-size:500}") int batchSize,
+            @Value("${reminders.appointment-lead-hours:24}") int appointmentLeadHours,
+            @Value("${reminders.catch-up-hours:24}") int catchUpHours,
+            @Value("${reminders.retry-delay-seconds:60}") int retryDelaySeconds) {
+        this.appointmentRepository = appointmentRepository;
+        this.notificationRepository = notificationRepository;
+        this.notificationService = notificationService;
+        this.outboxService = outboxService;
+        this.transactionTemplate = transactionTemplate;
+        this.meterRegistry = meterRegistry;
+        this.wheel = new HashedTimingWheel<>(tickMillis, wheelSize, System.currentTimeMillis());
+        this.windowMinutes = windowMinutes;
+        this.batchSize = batchSize;
+        this.appointmentLeadHours = appointmentLeadHours;
+        this.catchUpHours = catchUpHours;
+        this.retryDelaySeconds = retryDelaySeconds;
+
+        Gauge.builder("medvault.reminders.scheduled", wheel, HashedTimingWheel::size)
+                .description("Reminders waiting in the timing wheel")
+                .register(meterRegistry);
+    }
+
+    // Must run more often than the window is long, so the wheel never runs dry
+    @Scheduled(fixedDelayString = "${reminders.load-interval-ms:60000}")
+    public synchronized void loadWindow() {
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime from = loadedUntil != null ? loadedUntil : now.minusHours(catchUpHours);
+        LocalDateTime to = now.plusMinutes(windowMinutes);
+        if (!to.isAfter(from)) {
+            return;
+        }
+
+        // Appointments are queried by their own time; a reminder for one already underway is pointless
+        LocalDateTime appointmentsFrom = from.plusHours(appointmentLeadHours);
+        int appointments = load(ReminderType.APPOINTMENT,
+                appointmentsFrom.isAfter(now) ? appointmentsFrom : now, to.plusHours(appointmentLeadHours),
+                appointmentRepository::findAwaitingReminder);
+        int notifications = load(ReminderType.NOTIFICATION, from, to, notificationRepository::findAwaitingDelivery);
+        loadedUntil = to;
+
+        if (appointments + notifications > 0) {
+            log.debug("Loaded {} appointment reminders and {} scheduled notifications due before {}",
+                    appointments, notifications, to);
+        }
+    }
+
+    @Scheduled(fixedRateString = "${reminders.tick-ms:1000}")
+    public void tick() {
+        for (Reminder reminder : wheel.advance(System.currentTimeMillis())) {
+            scheduled.remove(reminder);
+            fire(reminder);
+        }
+    }
+
+    // Approvals inside the loaded window would otherwise be missed; later ones wait for their window
+    @TransactionalEventListener(fallbackExecution = true)
+    public synchronized void onAppointmentApproved(AppointmentApprovedEvent event) {
+        LocalDateTime dueAt = event.appointmentDateTime().minusHours(appointmentLeadHours);
+        if (loadedUntil != null && dueAt.isBefore(loadedUntil)) {
+            schedule(new Reminder(ReminderType.APPOINTMENT, event.appointmentId()), dueAt);
+        }
+    }
+
+    // Saves a claim that would only find the appointment no longer approved
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onAppointmentWithdrawn(AppointmentWithdrawnEvent event) {
+        Reminder reminder = new Reminder(ReminderType.APPOINTMENT, event.appointmentId());
+        LocalDateTime dueAt = event.appointmentDateTime().minusHours(appointmentLeadHours);
+        if (wheel.cancel(reminder, dueAt.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli())) {
+            scheduled.remove(reminder);
+        }
+    }
+
+    private int load(ReminderType type, LocalDateTime from, LocalDateTime to, WindowQuery query) {
+        int loaded = 0;
+        LocalDateTime afterTime = from;
+        Long afterId = 0L;
+        while (true) {
+            List<KeysetCursor> batch = query.find(afterTime, afterId, to, Limit.of(batchSize));
+            for (KeysetCursor row : batch) {
+                LocalDateTime dueAt = type == ReminderType.APPOINTMENT
+                        ? row.timestamp().minusHours(appointmentLeadHours)
+                        : row.timestamp();
+                schedule(new Reminder(type, row.id()), dueAt);
+            }
+            loaded += batch.size();
+            if (batch.size() < batchSize) {
+                return loaded;
+            }
+            KeysetCursor last = batch.get(batch.size() - 1);
+            afterTime = last.timestamp();
+            afterId = last.id();
+        }
+    }
+
+    private void schedule(Reminder reminder, LocalDateTime dueAt) {
+        if (scheduled.add(reminder)) {
+            wheel.schedule(reminder, dueAt.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli());
+        }
+    }
+
+    private void fire(Reminder reminder) {
+        try {
+            Boolean sent = transactionTemplate.execute(status -> switch (reminder.type()) {
+                case APPOINTMENT -> sendAppointmentReminder(reminder.id());
+                case NOTIFICATION -> notificationService.deliverScheduled(reminder.id());
+            });
+            count(reminder, Boolean.TRUE.equals(sent) ? "sent" : "skipped");
+        } catch (Exception e) {
+            log.warn("Reminder {} {} failed, retrying in {}s: {}",
+                    reminder.type(), reminder.id(), retryDelaySeconds, e.getMessage());
+            count(reminder, "retried");
+            schedule(reminder, LocalDateTime.now().plusSeconds(retryDelaySeconds));
+        }
+    }
+
+    // Claim first; the notification and email go through the outbox with the claim
+    private boolean sendAppointmentReminder(Long appointmentId) {
+        if (appointmentRepository.markReminderSent(appointmentId, LocalDateTime.now()) == 0) {
+            return false;
+        }
+
+        AppointmentStatusView appointment = appointmentRepository.findStatusViewById(appointmentId).orElseThrow();
+        outboxService.enqueueAll(List.of(
+                new OutboxService.Message(OutboxEventType.PATIENT_NOTIFICATION, appointmentId, Map.of(
+                        "patientId", appointment.getPatientId(),
+                        "title", "Appointment Reminder",
+                        "message", String.format("Reminder: you have an appointment with %s on %s.",
+                                appointment.getDoctorName(), appointment.getAppointmentDateTime()),
+                        "notificationType", "APPOINTMENT")),
+                new OutboxService.Message(OutboxEventType.APPOINTMENT_REMINDER_EMAIL, appointmentId, Map.of(
+                        "to", appointment.getPatientEmail(),
+                        "patientName", appointment.getPatientName(),
+                        "doctorName", appointment.getDoctorName(),
+                        "appointmentDateTime", appointment.getAppointmentDateTime().toString()))));
+        return true;
+    }
+
+    private void count(Reminder reminder, String outcome) {
+        Counter.builder("medvault.reminders")
+                .tag("type", reminder.type().name())
+                .tag("outcome", outcome)
+                .register(meterRegistry)
+                .increment();
+    }
+
+    private enum ReminderType {
+        APPOINTMENT,
+        NOTIFICATION
+    }
+
+    private record Reminder(ReminderType type, Long id) {
+    }
+
+    @FunctionalInterface
+    private interface WindowQuery {
+        List<KeysetCursor> find(LocalDateTime fromTime, Long afterId, LocalDateTime toTime, Limit limit);
+    }
+}
@@ -0,0 +1,158 @@
+package com.medvault.service;
+
+import com.medvault.model.DoctorRevenue;
+import com.medvault.repository.DailyRevenueRepository;
+import com.medvault.repository.DoctorRevenueRepository;
+import com.medvault.repository.RevenueTotalsView;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Running revenue totals per doctor ({@code doctor_revenue}) and per day
+ * ({@code daily_revenue}), so revenue pages read a row or a few hundred instead of
+ * aggregating every completed payment.
+ *
+ * A completed payment is recorded in the transaction that completes it. The ledger is
+ * rebuilt from the payments table on first start and nightly after that, which also
+ * repairs drift, e.g. from payments removed together with their appointment.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class RevenueLedgerService {
+
+    private static final String DOCTOR_UPSERT_SQL = "INSERT INTO doctor_revenue (doctor_id, payments, revenue, updated_at) " +
+            "VALUES (?, 1, ?, ?) ON DUPLICATE KEY UPDATE payments = payments + 1, " +
+            "revenue = revenue + VALUES(revenue), updated_at = VALUES(updated_at)";
+
+    private static final String DAILY_UPSERT_SQL = "INSERT INTO daily_revenue (ledger_date, payments, revenue, updated_at) " +
+            "VALUES (?, 1, ?, ?) ON DUPLICATE KEY UPDATE payments = payments + 1, " +
+            "revenue = revenue + VALUES(revenue), updated_at = VALUES(updated_at)";
+
+    // Payments created before payments.doctor_id existed
+    private static final String FILL_DOCTOR_IDS_SQL = "UPDATE payments SET doctor_id = " +
+            "(SELECT a.doctor_id FROM appointments a WHERE a.id = payments.appointment_id) WHERE doctor_id IS NULL";
+
+    private static final String DOCTOR_KEYS_SQL = "SELECT DISTINCT doctor_id FROM payments " +
+            "WHERE status = 'COMPLETED' AND doctor_id IS NOT NULL UNION SELECT doctor_id FROM doctor_revenue";
+
+    private static final String DAY_KEYS_SQL = "SELECT DISTINCT CAST(paid_at AS DATE) FROM payments " +
+            "WHERE status = 'COMPLETED' AND paid_at IS NOT NULL UNION SELECT ledger_date FROM daily_revenue";
+
+    // Takes the ledger row's lock (creating the row if needed) without changing it
+    private static final String LOCK_DOCTOR_SQL = "INSERT INTO doctor_revenue (doctor_id, payments, revenue, updated_at) " +
+            "VALUES (?, 0, 0, ?) ON DUPLICATE KEY UPDATE doctor_id = doctor_id";
+
+    private static final String LOCK_DAY_SQL = "INSERT INTO daily_revenue (ledger_date, payments, revenue, updated_at) " +
+            "VALUES (?, 0, 0, ?) ON DUPLICATE KEY UPDATE ledger_date = ledger_date";
+
+    private static final String SUM_DOCTOR_SQL = "SELECT COUNT(*), COALESCE(SUM(amount), 0) FROM payments " +
+            "WHERE doctor_id = ? AND status = 'COMPLETED'";
+
+    private static final String SUM_DAY_SQL = "SELECT COUNT(*), COALESCE(SUM(amount), 0) FROM payments " +
+            "WHERE status = 'COMPLETED' AND paid_at >= ? AND paid_at < ?";
+
+    private static final String SET_DOCTOR_SQL =
+            "UPDATE doctor_revenue SET payments = ?, revenue = ?, updated_at = ? WHERE doctor_id = ?";
+
+    private static final String SET_DAY_SQL =
+            "UPDATE daily_revenue SET payments = ?, revenue = ?, updated_at = ? WHERE ledger_date = ?";
+
+    private final DoctorRevenueRepository doctorRevenueRepository;
+    private final DailyRevenueRepository dailyRevenueRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+
+    // Must join the completing transaction so the ledger can't disagree with the payment
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void recordPayment(Long doctorId, LocalDate day, double amount) {
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        jdbcTemplate.update(DOCTOR_UPSERT_SQL, doctorId, amount, now);
+        jdbcTemplate.update(DAILY_UPSERT_SQL, Date.valueOf(day), amount, now);
+    }
+
+    public DoctorRevenue getDoctorTotals(Long doctorId) {
+        return doctorRevenueRepository.findById(doctorId)
+                .orElseGet(() -> DoctorRevenue.builder().doctorId(doctorId).build());
+    }
+
+    public RevenueTotalsView getPlatformTotals() {
+        return dailyRevenueRepository.getTotals();
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void seed() {
+        Integer filled = transactionTemplate.execute(status -> jdbcTemplate.update(FILL_DOCTOR_IDS_SQL));
+        if (filled != null && filled > 0 || dailyRevenueRepository.count() == 0) {
+            rebuild();
+        }
+    }
+
+    /**
+     * Recompute every ledger row from the payments table, one short transaction per
+     * doctor and per day.
+     *
+     * Each chunk locks its ledger row first and then sums payments with a plain,
+     * non-locking read. {@link #recordPayment} updates the same row in the completing
+     * transaction, so a payment is either committed and counted, or still waiting on
+     * the row lock and added on top afterwards. No locks are taken on payments.
+     */
+    @Scheduled(cron = "${payments.ledger.reconcile-cron:0 30 4 * * *}")
+    public void rebuild() {
+        long started = System.currentTimeMillis();
+        TransactionTemplate chunkTransaction = new TransactionTemplate(transactionTemplate.getTransactionManager());
+        chunkTransaction.setIsolationLevel(TransactionDefinition.ISOLATION_READ_COMMITTED);
+
+        List<Long> doctorIds = jdbcTemplate.queryForList(DOCTOR_KEYS_SQL, Long.class);
+        for (Long doctorId : doctorIds) {
+            chunkTransaction.executeWithoutResult(status -> {
+                Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+                jdbcTemplate.update(LOCK_DOCTOR_SQL, doctorId, now);
+                Totals totals = jdbcTemplate.queryForObject(SUM_DOCTOR_SQL, Totals.MAPPER, doctorId);
+                if (totals.payments() == 0) {
+                    jdbcTemplate.update("DELETE FROM doctor_revenue WHERE doctor_id = ?", doctorId);
+                } else {
+                    jdbcTemplate.update(SET_DOCTOR_SQL, totals.payments(), totals.revenue(), now, doctorId);
+                }
+            });
+        }
+
+        List<Date> days = jdbcTemplate.queryForList(DAY_KEYS_SQL, Date.class);
+        for (Date day : days) {
+            chunkTransaction.executeWithoutResult(status -> {
+                Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+                LocalDate date = day.toLocalDate();
+                jdbcTemplate.update(LOCK_DAY_SQL, day, now);
+                Totals totals = jdbcTemplate.queryForObject(SUM_DAY_SQL, Totals.MAPPER,
+                        Timestamp.valueOf(date.atStartOfDay()), Timestamp.valueOf(date.plusDays(1).atStartOfDay()));
+                if (totals.payments() == 0) {
+                    jdbcTemplate.update("DELETE FROM daily_revenue WHERE ledger_date = ?", day);
+                } else {
+                    jdbcTemplate.update(SET_DAY_SQL, totals.payments(), totals.revenue(), now, day);
+                }
+            });
+        }
+        log.info("Rebuilt revenue ledger for {} doctors and {} days in {} ms",
+                doctorIds.size(), days.size(), System.currentTimeMillis() - started);
+    }
+
+    private record Totals(long payments, double revenue) {
+        static final RowMapper<Totals> MAPPER = (rs, rowNum) -> new Totals(rs.getLong(1), rs.getDouble(2));
+    }
+}
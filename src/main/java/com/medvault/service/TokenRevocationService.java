@@ -0,0 +1,93 @@
+package com.medvault.service;
+
+import com.medvault.event.UserAccountChangedEvent;
+import com.medvault.util.BloomFilter;
+import com.medvault.util.TokenDigest;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.Date;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Denylist for access tokens that must stop working before they expire.
+ *
+ * Individual tokens (logout) go into a Bloom filter backed by an exact map of
+ * digest to expiry, so the common not-revoked case is a few bit probes with no
+ * map lookup and no database access. Whole accounts (deactivation, role or
+ * password change) are revoked with a per-user cutoff: tokens issued before it
+ * are rejected. Both kinds of entry disappear once the tokens they cover expire.
+ */
+@Service
+@Slf4j
+public class TokenRevocationService {
+
+    private final long expectedRevocations;
+    private final double falsePositiveRate;
+    private final long accessTokenLifetimeMillis;
+
+    private final Map<String, Long> revokedTokens = new ConcurrentHashMap<>();
+    private final Map<String, Long> userCutoffs = new ConcurrentHashMap<>();
+    private volatile BloomFilter filter;
+
+    public TokenRevocationService(
+            @Value("${jwt.revocation.expected-entries:100000}") long expectedRevocations,
+            @Value("${jwt.revocation.false-positive-rate:0.01}") double falsePositiveRate,
+            @Value("${jwt.expiration}") long accessTokenLifetimeMillis) {
+        this.expectedRevocations = expectedRevocations;
+        this.falsePositiveRate = falsePositiveRate;
+        this.accessTokenLifetimeMillis = accessTokenLifetimeMillis;
+        this.filter = new BloomFilter(expectedRevocations, falsePositiveRate);
+    }
+
+    // Writers synchronise with rebuild() so no revocation is lost while the filter is swapped
+    public synchronized void revoke(TokenDigest token, Date expiresAt) {
+        if (expiresAt.getTime() <= System.currentTimeMillis()) {
+            return;
+        }
+        revokedTokens.put(token.key(), expiresAt.getTime());
+        filter.put(token);
+    }
+
+    public boolean isRevoked(TokenDigest token) {
+        if (!filter.mightContain(token)) {
+            return false;
+        }
+        Long expiresAt = revokedTokens.get(token.key());
+        return expiresAt != null && expiresAt > System.currentTimeMillis();
+    }
+
+    // Reject every token for this user issued before now
+    public void revokeUser(String email) {
+        userCutoffs.put(email, System.currentTimeMillis());
+        log.info("Revoked outstanding access tokens for user: {}", email);
+    }
+
+    public boolean isRevokedForUser(String email, Date issuedAt) {
+        Long cutoff = userCutoffs.get(email);
+        // JWT iat has second precision, so compare at that granularity
+        return cutoff != null && issuedAt != null && issuedAt.getTime() < (cutoff / 1000) * 1000;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onUserAccountChanged(UserAccountChangedEvent event) {
+        revokeUser(event.email());
+    }
+
+    // Bloom filters cannot delete, so expired entries are dropped by rebuilding from the exact store
+    @Scheduled(fixedDelayString = "${jwt.revocation.rebuild-interval-ms:600000}")
+    public synchronized void rebuild() {
+        long now = System.currentTimeMillis();
+        revokedTokens.values().removeIf(expiresAt -> expiresAt <= now);
+        userCutoffs.values().removeIf(cutoff -> cutoff + accessTokenLifetimeMillis <= now);
+
+        BloomFilter rebuilt = new BloomFilter(
+                Math.max(expectedRevocations, revokedTokens.size() * 2L), falsePositiveRate);
+        revokedTokens.keySet().forEach(key -> rebuilt.put(TokenDigest.fromKey(key)));
+        this.filter = rebuilt;
+    }
+}
@@ -1,9 +1,11 @@
 package com.medvault.service;
 
+import com.medvault.event.UserAccountChangedEvent;
 import com.medvault.model.User;
 import com.medvault.repository.UserRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -17,6 +19,7 @@ import java.util.List;
 public class UserCleanupService {
 
     private final UserRepository userRepository;
+    private final ApplicationEventPublisher eventPublisher;
 
     /**
      * Scheduled task to automatically delete unverified users with expired tokens
@@ -38,6 +41,7 @@ public class UserCleanupService {
 
                 log.info("Deleting expired unverified user: {} (email: {})", user.getId(), user.getEmail());
                 userRepository.delete(user);
+                eventPublisher.publishEvent(new UserAccountChangedEvent(user.getEmail()));
                 deletedCount++;
             }
         }
@@ -61,6 +65,7 @@ public class UserCleanupService {
                     user.getPasswordResetTokenExpiry().isBefore(LocalDateTime.now())) {
 
                 userRepository.delete(user);
+                eventPublisher.publishEvent(new UserAccountChangedEvent(user.getEmail()));
                 deletedCount++;
             }
         }
@@ -1,9 +1,13 @@
 package com. medvault. service;
 
+import com.medvault.event.DoctorScheduleChangedEvent;
+import com.medvault.event.UserAccountChangedEvent;
 import com.medvault.exception.ResourceNotFoundException;
 import com. medvault.model.User;
+import com.medvault.model.enums.Role;
 import com.medvault. repository.UserRepository;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 
 import java.util.Optional;
@@ -13,6 +17,7 @@ import java.util.Optional;
 public class UserService {  // <-- REMOVED "implements UserDetailsService"
 
     private final UserRepository userRepository;
+    private final ApplicationEventPublisher eventPublisher;
 
     // Business logic methods
     public User getUserById(Long id) {
@@ -30,14 +35,24 @@ public class UserService {  // <-- REMOVED "implements UserDetailsService"
     }
 
     public User save(User user) {
-        return userRepository. save(user);
+        User saved = userRepository. save(user);
+        eventPublisher.publishEvent(new UserAccountChangedEvent(saved.getEmail()));
+        return saved;
     }
 
     public User update(User user) {
-        return userRepository.save(user);
+        User updated = userRepository.save(user);
+        eventPublisher.publishEvent(new UserAccountChangedEvent(updated.getEmail()));
+        return updated;
     }
 
     public void delete(Long id) {
-        userRepository.deleteById(id);
+        userRepository.findById(id).ifPresent(user -> {
+            userRepository.delete(user);
+            eventPublisher.publishEvent(new UserAccountChangedEvent(user.getEmail()));
+            if (user.getRole() == Role.DOCTOR) {
+                eventPublisher.publishEvent(new DoctorScheduleChangedEvent(user.getId()));
+            }
+        });
     }
 }
\ No newline at end of file
@@ -0,0 +1,90 @@
+package com.medvault.util;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Consecutive-failure circuit breaker. After {@code failureThreshold} failures in a row
+ * calls are refused for {@code openMillis}; then a single trial call is let through and
+ * its outcome closes the circuit or opens it again. State is swapped with CAS like
+ * {@link TokenBucket}, so callers never block on each other.
+ */
+public class CircuitBreaker {
+
+    public enum Mode {
+        CLOSED,
+        OPEN,
+        HALF_OPEN
+    }
+
+    private final int failureThreshold;
+    private final long openNanos;
+    private final AtomicReference<State> state = new AtomicReference<>(new State(Mode.CLOSED, 0, 0));
+
+    public CircuitBreaker(int failureThreshold, long openMillis) {
+        if (failureThreshold <= 0 || openMillis <= 0) {
+            throw new IllegalArgumentException("Failure threshold and open duration must be positive");
+        }
+        this.failureThreshold = failureThreshold;
+        this.openNanos = openMillis * 1_000_000;
+    }
+
+    /**
+     * Ask to make a call. A granted call must be followed by {@link #onSuccess()} or
+     * {@link #onFailure()}, otherwise a half-open circuit stays half-open.
+     *
+     * @return 0 if the call may go ahead, otherwise the nanoseconds until one might
+     */
+    public long tryAcquire() {
+        while (true) {
+            State current = state.get();
+            switch (current.mode()) {
+                case CLOSED:
+                    return 0;
+                case HALF_OPEN:
+                    // The trial call is still out
+                    return openNanos;
+                default:
+                    long remaining = current.openedAt() + openNanos - System.nanoTime();
+                    if (remaining > 0) {
+                        return remaining;
+                    }
+                    if (state.compareAndSet(current, new State(Mode.HALF_OPEN, current.failures(), current.openedAt()))) {
+                        return 0;
+                    }
+            }
+        }
+    }
+
+    // A success reported while open comes from a call granted before the circuit opened, and is ignored
+    public void onSuccess() {
+        while (true) {
+            State current = state.get();
+            if (current.mode() == Mode.OPEN || (current.mode() == Mode.CLOSED && current.failures() == 0)) {
+                return;
+            }
+            if (state.compareAndSet(current, new State(Mode.CLOSED, 0, 0))) {
+                return;
+            }
+        }
+    }
+
+    public void onFailure() {
+        while (true) {
+            State current = state.get();
+            int failures = current.failures() + 1;
+            State next = current.mode() == Mode.HALF_OPEN || failures >= failureThreshold
+                    ? new State(Mode.OPEN, failures, System.nanoTime())
+                    : new State(current.mode(), failures, current.openedAt());
+            if (state.compareAndSet(current, next)) {
+                return;
+            }
+        }
+    }
+
+    public Mode mode() {
+        return state.get().mode();
+    }
+
+    private record State(Mode mode, int failures, long openedAt) {
+    }
+}
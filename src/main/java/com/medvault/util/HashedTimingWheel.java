@@ -0,0 +1,91 @@
+package com.medvault.util;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * Hashed timing wheel: a ring of buckets, one per tick. A task lands in the bucket
+ * for its deadline's tick, so scheduling is O(1) and each advance only looks at the
+ * buckets for the ticks that passed, never at the whole set of pending tasks.
+ * Tasks more than one rotation away share a bucket and wait for their tick to come round.
+ */
+public class HashedTimingWheel<T> {
+
+    private final long tickMillis;
+    private final List<List<Entry<T>>> buckets;
+    private final int mask;
+    private long nextTick;
+    private int size;
+
+    public HashedTimingWheel(long tickMillis, int wheelSize, long startMillis) {
+        if (tickMillis <= 0 || wheelSize <= 0) {
+            throw new IllegalArgumentException("Tick length and wheel size must be positive");
+        }
+        int bucketCount = Math.max(Integer.highestOneBit(wheelSize - 1) << 1, 1);
+        this.tickMillis = tickMillis;
+        this.buckets = new ArrayList<>(bucketCount);
+        for (int i = 0; i < bucketCount; i++) {
+            this.buckets.add(new ArrayList<>());
+        }
+        this.mask = bucketCount - 1;
+        this.nextTick = startMillis / tickMillis;
+    }
+
+    // Deadlines already in the past fire on the next tick
+    public synchronized void schedule(T task, long deadlineMillis) {
+        long tick = Math.max(deadlineMillis / tickMillis, nextTick);
+        buckets.get((int) (tick & mask)).add(new Entry<>(task, tick));
+        size++;
+    }
+
+    /**
+     * Remove a task scheduled for {@code deadlineMillis}, looking only in that deadline's bucket.
+     * Returns false if it already fired, or if it was scheduled late enough to be due on the next advance.
+     */
+    public synchronized boolean cancel(T task, long deadlineMillis) {
+        long tick = deadlineMillis / tickMillis;
+        if (tick < nextTick) {
+            return false;
+        }
+        boolean removed = buckets.get((int) (tick & mask)).remove(new Entry<>(task, tick));
+        if (removed) {
+            size--;
+        }
+        return removed;
+    }
+
+    /**
+     * Move the wheel up to {@code nowMillis} and return the tasks that fell due. After a
+     * stall longer than a rotation every bucket is visited once, not once per missed tick.
+     */
+    public synchronized List<T> advance(long nowMillis) {
+        long target = nowMillis / tickMillis;
+        if (target < nextTick) {
+            return List.of();
+        }
+
+        List<T> due = new ArrayList<>();
+        long last = Math.min(target, nextTick + buckets.size() - 1);
+        for (long tick = nextTick; tick <= last; tick++) {
+            Iterator<Entry<T>> it = buckets.get((int) (tick & mask)).iterator();
+            while (it.hasNext()) {
+                Entry<T> entry = it.next();
+                if (entry.tick() <= target) {
+                    due.add(entry.task());
+                    it.remove();
+                }
+            }
+        }
+        nextTick = target + 1;
+        size -= due.size();
+        return due;
+    }
+
+    public synchronized int size() {
+        return size;
+    }
+
+    private record Entry<T>(T task, long tick) {
+    }
+}
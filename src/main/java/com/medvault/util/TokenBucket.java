@@ -0,0 +1,49 @@
+package com.medvault.util;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Lock-free token bucket. State is an immutable snapshot swapped with CAS, so
+ * concurrent callers on the same bucket retry instead of blocking.
+ */
+public class TokenBucket {
+
+    private final long capacity;
+    private final double refillPerNano;
+    private final AtomicReference<State> state;
+
+    public TokenBucket(long capacity, long refillPerMinute) {
+        this.capacity = capacity;
+        this.refillPerNano = refillPerMinute / 60_000_000_000.0;
+        this.state = new AtomicReference<>(new State(capacity, System.nanoTime()));
+    }
+
+    /**
+     * Take one token if available.
+     *
+     * @return 0 if the token was granted, otherwise the nanoseconds until one will be
+     */
+    public long tryConsume() {
+        while (true) {
+            State current = state.get();
+            long now = System.nanoTime();
+            double tokens = Math.min(capacity, current.tokens() + (now - current.timestamp()) * refillPerNano);
+
+            if (tokens < 1.0) {
+                return refillPerNano > 0 ? (long) Math.ceil((1.0 - tokens) / refillPerNano) : Long.MAX_VALUE;
+            }
+            if (state.compareAndSet(current, new State(tokens - 1.0, now))) {
+                return 0;
+            }
+        }
+    }
+
+    // A bucket that has refilled completely carries no information and can be dropped
+    public boolean isFull() {
+        State current = state.get();
+        return current.tokens() + (System.nanoTime() - current.timestamp()) * refillPerNano >= capacity;
+    }
+
+    private record State(double tokens, long timestamp) {
+    }
+}
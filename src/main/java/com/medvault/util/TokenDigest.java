@@ -0,0 +1,33 @@
+package com.medvault.util;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+
+/**
+ * SHA-256 fingerprint of a raw JWT. Used as the key for per-token state so the
+ * token itself is never stored, and split into two longs for Bloom filter hashing.
+ */
+public record TokenDigest(String key, long high, long low) {
+
+    public static TokenDigest of(String token) {
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.UTF_8));
+            ByteBuffer buffer = ByteBuffer.wrap(hash);
+            return new TokenDigest(
+                    Base64.getUrlEncoder().withoutPadding().encodeToString(hash),
+                    buffer.getLong(),
+                    buffer.getLong());
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    // Recreate a digest from its stored key
+    public static TokenDigest fromKey(String key) {
+        ByteBuffer buffer = ByteBuffer.wrap(Base64.getUrlDecoder().decode(key));
+        return new TokenDigest(key, buffer.getLong(), buffer.getLong());
+    }
+}
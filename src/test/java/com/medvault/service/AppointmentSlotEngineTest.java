@@ -0,0 +1,145 @@
+package com.medvault.service;
+
+import com.medvault.repository.AppointmentRepository;
+import com.medvault.repository.UserRepository;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class AppointmentSlotEngineTest {
+
+    private static final LocalDateTime DAY = LocalDateTime.now().plusDays(1).withHour(9).withMinute(0).withSecond(0).withNano(0);
+
+    private final AppointmentSlotEngine engine = new AppointmentSlotEngine(
+            mock(AppointmentRepository.class), mock(UserRepository.class), 30, 60);
+
+    @Test
+    void rejectsOverlapForSameDoctorAndSamePatient() {
+        engine.reserve(1L, 100L, DAY);
+
+        assertThrows(IllegalStateException.class, () -> engine.reserve(1L, 101L, DAY.plusMinutes(15)));
+        assertThrows(IllegalStateException.class, () -> engine.reserve(2L, 100L, DAY.minusMinutes(29)));
+
+        // Back-to-back slots and other doctors are fine
+        engine.reserve(1L, 101L, DAY.plusMinutes(30));
+        engine.reserve(2L, 102L, DAY);
+    }
+
+    @Test
+    void releasedSlotCanBeBookedAgain() {
+        engine.reserve(1L, 100L, DAY);
+        engine.release(1L, 100L, DAY);
+
+        engine.reserve(1L, 101L, DAY);
+    }
+
+    @Test
+    void expiredIndexIsReloadedFromTheDatabase() {
+        AppointmentRepository repository = mock(AppointmentRepository.class);
+        AppointmentSlotEngine reloading = new AppointmentSlotEngine(repository, mock(UserRepository.class), 30, 0);
+        when(repository.findActiveDoctorSlotsFrom(eq(1L), any())).thenReturn(List.of(DAY));
+        assertThrows(IllegalStateException.class, () -> reloading.reserve(1L, 100L, DAY.plusMinutes(10)));
+
+        // Cancelled on another instance
+        when(repository.findActiveDoctorSlotsFrom(eq(1L), any())).thenReturn(List.of());
+        reloading.reserve(1L, 100L, DAY.plusMinutes(10));
+    }
+
+    @Test
+    void confirmLocksBothRowsAndRejectsOverlapsFoundInTheTable() {
+        AppointmentRepository repository = mock(AppointmentRepository.class);
+        UserRepository users = mock(UserRepository.class);
+        AppointmentSlotEngine checked = new AppointmentSlotEngine(repository, users, 30, 60);
+
+        checked.confirm(1L, 100L, DAY);
+        verify(users).lockAllById(List.of(1L, 100L));
+        verify(repository).existsActiveDoctorAppointmentBetween(1L, DAY.minusMinutes(30), DAY.plusMinutes(30));
+
+        // e.g. 10:15 booked on another instance, 10:40 requested here
+        when(repository.existsActiveDoctorAppointmentBetween(eq(1L), any(), any())).thenReturn(true);
+        assertThrows(IllegalStateException.class, () -> checked.confirm(1L, 101L, DAY.plusMinutes(25)));
+        when(repository.existsActivePatientAppointmentBetween(eq(102L), any(), any())).thenReturn(true);
+        assertThrows(IllegalStateException.class, () -> checked.confirm(2L, 102L, DAY));
+    }
+
+    @Test
+    void slotKeyAlignsToGrid() {
+        assertEquals(DAY, engine.slotKey(DAY.plusMinutes(29)));
+        assertEquals(DAY.plusMinutes(30), engine.slotKey(DAY.plusMinutes(30)));
+    }
+
+    @Test
+    void concurrentBookingsNeverDoubleBook() throws Exception {
+        int doctors = 20;
+        int patients = 200;
+        int requests = 20_000;
+        Duration slot = engine.getSlotLength();
+
+        Map<Long, List<LocalDateTime>> byDoctor = new ConcurrentHashMap<>();
+        Map<Long, List<LocalDateTime>> byPatient = new ConcurrentHashMap<>();
+        AtomicInteger booked = new AtomicInteger();
+
+        ExecutorService pool = Executors.newFixedThreadPool(32);
+        CountDownLatch start = new CountDownLatch(1);
+        for (int i = 0; i < requests; i++) {
+            pool.execute(() -> {
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                long doctorId = random.nextLong(doctors);
+                long patientId = random.nextLong(patients);
+                // Off-grid start times within one day so overlaps are partial as well as exact
+                LocalDateTime time = DAY.plusMinutes(random.nextInt(0, 8 * 60) / 5 * 5);
+                try {
+                    start.await();
+                    engine.reserve(doctorId, patientId, time);
+                    byDoctor.computeIfAbsent(doctorId, id -> Collections.synchronizedList(new ArrayList<>())).add(time);
+                    byPatient.computeIfAbsent(patientId, id -> Collections.synchronizedList(new ArrayList<>())).add(time);
+                    booked.incrementAndGet();
+                } catch (IllegalStateException conflict) {
+                    // expected for contended slots
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            });
+        }
+        start.countDown();
+        pool.shutdown();
+        assertTrue(pool.awaitTermination(60, TimeUnit.SECONDS));
+
+        assertTrue(booked.get() > 0);
+        assertNoOverlaps(byDoctor, slot);
+        assertNoOverlaps(byPatient, slot);
+    }
+
+    private static void assertNoOverlaps(Map<Long, List<LocalDateTime>> bookings, Duration slot) {
+        bookings.forEach((id, times) -> {
+            List<LocalDateTime> sorted = new ArrayList<>(times);
+            Collections.sort(sorted);
+            for (int i = 1; i < sorted.size(); i++) {
+                Duration gap = Duration.between(sorted.get(i - 1), sorted.get(i));
+                assertTrue(gap.compareTo(slot) >= 0,
+                        "Overlapping bookings for " + id + ": " + sorted.get(i - 1) + " and " + sorted.get(i));
+            }
+        });
+    }
+}
@@ -0,0 +1,112 @@
+package com.medvault.service;
+
+import com.medvault.dto.response.TokenRefreshResponse;
+import com.medvault.exception.UnauthorizedException;
+import com.medvault.repository.PatientRepository;
+import com.medvault.repository.UserRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Base64;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+
+class AuthServiceTest {
+
+    private static final String EMAIL = "patient@example.com";
+
+    private final JwtService jwtService = jwtService();
+    private final RefreshTokenStore refreshTokenStore = new RefreshTokenStore();
+    private final AuthService authService = new AuthService(mock(UserRepository.class),
+            mock(PatientRepository.class), mock(PasswordEncoder.class), jwtService, refreshTokenStore,
+            mock(TokenRevocationService.class), mock(ApplicationEventPublisher.class));
+
+    @Test
+    void refreshRotatesTheRefreshToken() {
+        String issued = issueRefreshToken(EMAIL);
+
+        TokenRefreshResponse rotated = authService.refresh(issued);
+
+        assertNotEquals(issued, rotated.getRefreshToken());
+        assertEquals(EMAIL, jwtService.parseToken(rotated.getToken()).subject());
+        // The rotated token is live
+        authService.refresh(rotated.getRefreshToken());
+    }
+
+    @Test
+    void reusingASpentTokenRevokesEverySessionOfTheUser() {
+        String stolen = issueRefreshToken(EMAIL);
+        String otherDevice = issueRefreshToken(EMAIL);
+        String otherUser = issueRefreshToken("doctor@example.com");
+        TokenRefreshResponse legitimate = authService.refresh(stolen);
+
+        assertThrows(UnauthorizedException.class, () -> authService.refresh(stolen));
+
+        // Neither the rotated token nor the user's other sessions survive the reuse
+        assertThrows(UnauthorizedException.class, () -> authService.refresh(legitimate.getRefreshToken()));
+        assertThrows(UnauthorizedException.class, () -> authService.refresh(otherDevice));
+        authService.refresh(otherUser);
+    }
+
+    @Test
+    void accessTokenIsNotAcceptedAsARefreshToken() {
+        String accessToken = jwtService.generateToken(1L, EMAIL, "PATIENT");
+
+        assertThrows(UnauthorizedException.class, () -> authService.refresh(accessToken));
+        assertThrows(UnauthorizedException.class, () -> authService.refresh("not-a-jwt"));
+    }
+
+    @Test
+    void concurrentRefreshesOfOneTokenRotateItOnce() throws InterruptedException {
+        for (int round = 0; round < 20; round++) {
+            String issued = issueRefreshToken(EMAIL);
+            AtomicInteger rotated = new AtomicInteger();
+
+            ExecutorService pool = Executors.newFixedThreadPool(8);
+            CountDownLatch start = new CountDownLatch(1);
+            for (int i = 0; i < 8; i++) {
+                pool.execute(() -> {
+                    try {
+                        start.await();
+                        authService.refresh(issued);
+                        rotated.incrementAndGet();
+                    } catch (UnauthorizedException replayed) {
+                        // every caller but one
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                });
+            }
+            start.countDown();
+            pool.shutdown();
+            assertTrue(pool.awaitTermination(10, TimeUnit.SECONDS));
+
+            assertEquals(1, rotated.get(), "round " + round);
+        }
+    }
+
+    private String issueRefreshToken(String email) {
+        String tokenId = refreshTokenStore.register(email, jwtService.refreshTokenExpiresAt());
+        return jwtService.generateRefreshToken(tokenId, 1L, email, "PATIENT");
+    }
+
+    private static JwtService jwtService() {
+        JwtService service = new JwtService();
+        ReflectionTestUtils.setField(service, "secretKey", Base64.getEncoder().encodeToString(new byte[32]));
+        ReflectionTestUtils.setField(service, "jwtExpiration", 60_000L);
+        ReflectionTestUtils.setField(service, "refreshExpiration", 600_000L);
+        service.initSigningKey();
+        return service;
+    }
+}
@@ -0,0 +1,172 @@
+package com.medvault.service;
+
+import com.medvault.dto.request.PaymentVerificationRequest;
+import com.medvault.model.Appointment;
+import com.medvault.model.Doctor;
+import com.medvault.model.Patient;
+import com.medvault.model.Payment;
+import com.medvault.model.enums.PaymentStatus;
+import com.medvault.repository.AppointmentRepository;
+import com.medvault.repository.PaymentRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyDouble;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class PaymentServiceTest {
+
+    private static final String ORDER_ID = "order_1";
+
+    private final PaymentRepository paymentRepository = mock(PaymentRepository.class);
+    private final PaymentGatewayClient paymentGateway = mock(PaymentGatewayClient.class);
+    private final RevenueLedgerService revenueLedger = mock(RevenueLedgerService.class);
+    private final PaymentService paymentService = new PaymentService(paymentRepository,
+            mock(AppointmentRepository.class), mock(OutboxService.class), paymentGateway,
+            mock(TransactionTemplate.class), revenueLedger, mock(ApplicationEventPublisher.class));
+
+    // Stands in for the payments row; each read hands out a fresh copy, like a new transaction would
+    private final AtomicReference<PaymentStatus> row = new AtomicReference<>(PaymentStatus.PENDING);
+    private final AtomicInteger recorded = new AtomicInteger();
+
+    PaymentServiceTest() {
+        when(paymentRepository.findForUpdateByRazorpayOrderId(ORDER_ID)).thenAnswer(call -> Optional.of(load()));
+        when(paymentRepository.findWithAppointmentByRazorpayOrderIdIn(any())).thenAnswer(call -> List.of(load()));
+        when(paymentRepository.save(any())).thenAnswer(call -> call.getArgument(0));
+        when(paymentRepository.markCompleted(eq(1L), anyString(), any(), any())).thenAnswer(call -> {
+            PaymentStatus current = row.get();
+            return current != PaymentStatus.COMPLETED && row.compareAndSet(current, PaymentStatus.COMPLETED) ? 1 : 0;
+        });
+        when(paymentRepository.markFailed(eq(1L), any(), any()))
+                .thenAnswer(call -> row.compareAndSet(PaymentStatus.PENDING, PaymentStatus.FAILED) ? 1 : 0);
+        when(paymentGateway.verifyPaymentSignature(eq(ORDER_ID), anyString(), eq("valid"))).thenReturn(true);
+        doAnswer(call -> recorded.incrementAndGet())
+                .when(revenueLedger).recordPayment(anyLong(), any(), anyDouble());
+    }
+
+    @Test
+    void verifyAndWebhookRacingOnOneOrderRecordItOnce() throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(2);
+        try {
+            for (int round = 0; round < 500; round++) {
+                row.set(PaymentStatus.PENDING);
+                recorded.set(0);
+                CountDownLatch start = new CountDownLatch(1);
+
+                Future<?> verify = pool.submit(() -> {
+                    start.await();
+                    try {
+                        paymentService.verifyAndCompletePayment(request("pay_client", "valid"));
+                    } catch (IllegalStateException lostTheClaim) {
+                        // the webhook completed it in between
+                    }
+                    return null;
+                });
+                Future<?> webhook = pool.submit(() -> {
+                    start.await();
+                    return paymentService.applyGatewayUpdates(List.of(
+                            new PaymentGateway.PaymentUpdate(ORDER_ID, "pay_webhook", true, null)));
+                });
+                start.countDown();
+                verify.get();
+                webhook.get();
+
+                assertEquals(PaymentStatus.COMPLETED, row.get());
+                assertEquals(1, recorded.get(), "round " + round);
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    @Test
+    void invalidSignatureOnCompletedPaymentWritesNothing() {
+        row.set(PaymentStatus.COMPLETED);
+
+        assertEquals(PaymentStatus.COMPLETED,
+                paymentService.verifyAndCompletePayment(request("pay_other", "forged")).getStatus());
+        paymentService.verifyAndCompletePayment(request("pay_client", "valid"));
+
+        verify(paymentRepository, never()).save(any());
+        verify(paymentRepository, never()).markCompleted(anyLong(), any(), any(), any());
+        assertEquals(0, recorded.get());
+    }
+
+    @Test
+    void lateFailureEventDoesNotUndoACapture() {
+        paymentService.applyGatewayUpdates(List.of(new PaymentGateway.PaymentUpdate(ORDER_ID, "pay_1", true, null)));
+        int applied = paymentService.applyGatewayUpdates(
+                List.of(new PaymentGateway.PaymentUpdate(ORDER_ID, "pay_0", false, "declined")));
+
+        assertEquals(0, applied);
+        assertEquals(PaymentStatus.COMPLETED, row.get());
+        assertEquals(1, recorded.get());
+    }
+
+    @Test
+    void losingTheClaimInVerifyIsReportedNotRecorded() {
+        when(paymentRepository.markCompleted(eq(1L), anyString(), any(), any())).thenReturn(0);
+
+        assertThrows(IllegalStateException.class,
+                () -> paymentService.verifyAndCompletePayment(request("pay_client", "valid")));
+        assertEquals(0, recorded.get());
+    }
+
+    private Payment load() {
+        Patient patient = new Patient();
+        patient.setId(10L);
+        patient.setEmail("patient@example.com");
+        patient.setFirstName("Pat");
+        patient.setLastName("Ient");
+        Doctor doctor = new Doctor();
+        doctor.setId(20L);
+        doctor.setFirstName("Doc");
+        doctor.setLastName("Tor");
+        Appointment appointment = Appointment.builder()
+                .id(30L)
+                .patient(patient)
+                .doctor(doctor)
+                .appointmentDateTime(LocalDateTime.now().plusDays(1))
+                .build();
+        PaymentStatus status = row.get();
+        return Payment.builder()
+                .id(1L)
+                .appointment(appointment)
+                .doctorId(20L)
+                .amount(500.0)
+                .razorpayOrderId(ORDER_ID)
+                .status(status)
+                .paidAt(status == PaymentStatus.COMPLETED ? LocalDateTime.now() : null)
+                .build();
+    }
+
+    private static PaymentVerificationRequest request(String paymentId, String signature) {
+        return PaymentVerificationRequest.builder()
+                .appointmentId(30L)
+                .razorpayOrderId(ORDER_ID)
+                .razorpayPaymentId(paymentId)
+                .razorpaySignature(signature)
+                .build();
+    }
+}
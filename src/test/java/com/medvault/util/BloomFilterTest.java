@@ -0,0 +1,92 @@
+package com.medvault.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class BloomFilterTest {
+
+    @Test
+    void emptyFilterContainsNothing() {
+        BloomFilter filter = new BloomFilter(1_000, 0.01);
+
+        assertFalse(filter.mightContain(TokenDigest.of("token")));
+    }
+
+    @Test
+    void neverForgetsAnInsertedDigest() {
+        BloomFilter filter = new BloomFilter(10_000, 0.01);
+        for (int i = 0; i < 10_000; i++) {
+            filter.put(TokenDigest.of("revoked-" + i));
+        }
+
+        for (int i = 0; i < 10_000; i++) {
+            assertTrue(filter.mightContain(TokenDigest.of("revoked-" + i)), "revoked-" + i);
+        }
+    }
+
+    @Test
+    void falsePositiveRateStaysNearTheTarget() {
+        BloomFilter filter = new BloomFilter(10_000, 0.01);
+        for (int i = 0; i < 10_000; i++) {
+            filter.put(TokenDigest.of("revoked-" + i));
+        }
+
+        int falsePositives = 0;
+        int probes = 100_000;
+        for (int i = 0; i < probes; i++) {
+            if (filter.mightContain(TokenDigest.of("live-" + i))) {
+                falsePositives++;
+            }
+        }
+        // 1% target; allow for variance
+        assertTrue(falsePositives < probes * 0.02, "false positives " + falsePositives);
+    }
+
+    @Test
+    void digestRecreatedFromItsKeyMatches() {
+        BloomFilter filter = new BloomFilter(100, 0.01);
+        TokenDigest digest = TokenDigest.of("token");
+        filter.put(digest);
+
+        TokenDigest restored = TokenDigest.fromKey(digest.key());
+        assertEquals(digest, restored);
+        assertTrue(filter.mightContain(restored));
+    }
+
+    @Test
+    void concurrentInsertsAreAllVisible() throws InterruptedException {
+        BloomFilter filter = new BloomFilter(32_000, 0.01);
+        ExecutorService pool = Executors.newFixedThreadPool(32);
+        CountDownLatch start = new CountDownLatch(1);
+        for (int t = 0; t < 32; t++) {
+            int thread = t;
+            pool.execute(() -> {
+                try {
+                    start.await();
+                    for (int i = 0; i < 1_000; i++) {
+                        filter.put(TokenDigest.of(thread + "-" + i));
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            });
+        }
+        start.countDown();
+        pool.shutdown();
+        assertTrue(pool.awaitTermination(30, TimeUnit.SECONDS));
+
+        for (int t = 0; t < 32; t++) {
+            for (int i = 0; i < 1_000; i++) {
+                assertTrue(filter.mightContain(TokenDigest.of(t + "-" + i)));
+            }
+        }
+    }
+}
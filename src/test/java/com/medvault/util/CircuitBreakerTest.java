@@ -0,0 +1,155 @@
+package com.medvault.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CircuitBreakerTest {
+
+    private static final long OPEN_MILLIS = 50;
+
+    private final CircuitBreaker breaker = new CircuitBreaker(3, OPEN_MILLIS);
+
+    @Test
+    void opensAfterConsecutiveFailuresAndRefusesCalls() {
+        breaker.onFailure();
+        breaker.onFailure();
+        assertEquals(CircuitBreaker.Mode.CLOSED, breaker.mode());
+        assertEquals(0, breaker.tryAcquire());
+
+        breaker.onFailure();
+        assertEquals(CircuitBreaker.Mode.OPEN, breaker.mode());
+        long wait = breaker.tryAcquire();
+        assertTrue(wait > 0 && wait <= TimeUnit.MILLISECONDS.toNanos(OPEN_MILLIS));
+    }
+
+    @Test
+    void successResetsTheFailureCount() {
+        breaker.onFailure();
+        breaker.onFailure();
+        breaker.onSuccess();
+        breaker.onFailure();
+        breaker.onFailure();
+
+        assertEquals(CircuitBreaker.Mode.CLOSED, breaker.mode());
+    }
+
+    @Test
+    void halfOpenTrialSuccessClosesTheCircuit() throws InterruptedException {
+        open();
+        Thread.sleep(OPEN_MILLIS + 10);
+
+        assertEquals(0, breaker.tryAcquire());
+        assertEquals(CircuitBreaker.Mode.HALF_OPEN, breaker.mode());
+        assertTrue(breaker.tryAcquire() > 0);
+
+        breaker.onSuccess();
+        assertEquals(CircuitBreaker.Mode.CLOSED, breaker.mode());
+        assertEquals(0, breaker.tryAcquire());
+    }
+
+    @Test
+    void halfOpenTrialFailureOpensItAgain() throws InterruptedException {
+        open();
+        Thread.sleep(OPEN_MILLIS + 10);
+        assertEquals(0, breaker.tryAcquire());
+
+        breaker.onFailure();
+        assertEquals(CircuitBreaker.Mode.OPEN, breaker.mode());
+        assertTrue(breaker.tryAcquire() > 0);
+    }
+
+    @Test
+    void lateSuccessFromBeforeTheCircuitOpenedLeavesItOpen() {
+        assertEquals(0, breaker.tryAcquire());
+        open();
+
+        // The call granted above returns only now
+        breaker.onSuccess();
+        assertEquals(CircuitBreaker.Mode.OPEN, breaker.mode());
+    }
+
+    @Test
+    void onlyOneConcurrentCallerGetsTheTrial() throws InterruptedException {
+        for (int round = 0; round < 20; round++) {
+            CircuitBreaker contended = new CircuitBreaker(1, 5);
+            contended.onFailure();
+            Thread.sleep(10);
+
+            AtomicInteger granted = new AtomicInteger();
+            runConcurrently(32, () -> {
+                if (contended.tryAcquire() == 0) {
+                    granted.incrementAndGet();
+                }
+            });
+            assertEquals(1, granted.get(), "round " + round);
+            assertEquals(CircuitBreaker.Mode.HALF_OPEN, contended.mode());
+        }
+    }
+
+    @Test
+    void concurrentFailuresAreNotLost() throws InterruptedException {
+        CircuitBreaker contended = new CircuitBreaker(64, 60_000);
+
+        runConcurrently(64, contended::onFailure);
+
+        assertEquals(CircuitBreaker.Mode.OPEN, contended.mode());
+    }
+
+    @Test
+    void racingSuccessesAndFailuresSettleInAValidState() throws InterruptedException {
+        for (int round = 0; round < 50; round++) {
+            CircuitBreaker contended = new CircuitBreaker(3, 60_000);
+            AtomicInteger calls = new AtomicInteger();
+            runConcurrently(16, () -> {
+                if (calls.incrementAndGet() % 2 == 0) {
+                    contended.onSuccess();
+                } else {
+                    contended.onFailure();
+                }
+            });
+
+            // Once open, nothing reported afterwards can close it before the open period ends
+            if (contended.mode() == CircuitBreaker.Mode.OPEN) {
+                contended.onSuccess();
+                assertEquals(CircuitBreaker.Mode.OPEN, contended.mode());
+                assertTrue(contended.tryAcquire() > 0);
+            } else {
+                assertEquals(CircuitBreaker.Mode.CLOSED, contended.mode());
+                assertEquals(0, contended.tryAcquire());
+            }
+        }
+    }
+
+    private void open() {
+        for (int i = 0; i < 3; i++) {
+            breaker.onFailure();
+        }
+        assertEquals(CircuitBreaker.Mode.OPEN, breaker.mode());
+    }
+
+    private static void runConcurrently(int threads, Runnable task) throws InterruptedException {
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        for (int i = 0; i < threads; i++) {
+            pool.execute(() -> {
+                try {
+                    start.await();
+                    task.run();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            });
+        }
+        start.countDown();
+        pool.shutdown();
+        assertTrue(pool.awaitTermination(10, TimeUnit.SECONDS));
+    }
+}
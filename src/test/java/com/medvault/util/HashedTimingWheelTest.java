@@ -0,0 +1,94 @@
+package com.medvault.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class HashedTimingWheelTest {
+
+    // 10 ms ticks on a 4-bucket wheel, so one rotation is 40 ms
+    private final HashedTimingWheel<String> wheel = new HashedTimingWheel<>(10, 4, 0);
+
+    @Test
+    void taskFiresOnTheTickContainingItsDeadline() {
+        wheel.schedule("a", 25);
+
+        assertEquals(List.of(), wheel.advance(19));
+        assertEquals(List.of("a"), wheel.advance(20));
+        assertEquals(0, wheel.size());
+    }
+
+    @Test
+    void tasksDueExactlyOnATickBoundaryFireOnThatTick() {
+        wheel.schedule("boundary", 30);
+        wheel.schedule("just-before", 29);
+
+        assertEquals(List.of("just-before"), wheel.advance(29));
+        assertEquals(List.of("boundary"), wheel.advance(30));
+    }
+
+    @Test
+    void laterRoundsWaitInTheSharedBucket() {
+        // Ticks 2, 6 and 10 all map to bucket 2
+        wheel.schedule("round-0", 20);
+        wheel.schedule("round-1", 60);
+        wheel.schedule("round-2", 100);
+
+        assertEquals(List.of("round-0"), wheel.advance(20));
+        assertEquals(List.of(), wheel.advance(59));
+        assertEquals(List.of("round-1"), wheel.advance(60));
+        assertEquals(1, wheel.size());
+        assertEquals(List.of("round-2"), wheel.advance(100));
+    }
+
+    @Test
+    void stallLongerThanARotationFiresEverythingDue() {
+        wheel.schedule("a", 10);
+        wheel.schedule("b", 50);
+        wheel.schedule("c", 130);
+        wheel.schedule("later", 200);
+
+        List<String> due = wheel.advance(150);
+        assertEquals(3, due.size());
+        assertTrue(due.containsAll(List.of("a", "b", "c")));
+        assertEquals(List.of("later"), wheel.advance(200));
+    }
+
+    @Test
+    void pastDeadlinesFireOnTheNextTick() {
+        wheel.advance(100);
+        wheel.schedule("late", 40);
+
+        assertEquals(List.of(), wheel.advance(109));
+        assertEquals(List.of("late"), wheel.advance(110));
+    }
+
+    @Test
+    void cancelledTaskNeverFires() {
+        wheel.schedule("kept", 60);
+        wheel.schedule("cancelled", 60);
+        wheel.schedule("other-round", 20);
+
+        assertTrue(wheel.cancel("cancelled", 60));
+        assertFalse(wheel.cancel("cancelled", 60));
+        // Same bucket, different round: the deadline has to match too
+        assertFalse(wheel.cancel("other-round", 60));
+        assertEquals(2, wheel.size());
+
+        assertEquals(List.of("other-round"), wheel.advance(20));
+        assertEquals(List.of("kept"), wheel.advance(60));
+    }
+
+    @Test
+    void cancelAfterFiringReturnsFalse() {
+        wheel.schedule("a", 10);
+        wheel.advance(10);
+
+        assertFalse(wheel.cancel("a", 10));
+        assertEquals(0, wheel.size());
+    }
+}
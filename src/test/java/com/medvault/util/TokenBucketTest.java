@@ -0,0 +1,87 @@
+package com.medvault.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TokenBucketTest {
+
+    @Test
+    void grantsUpToCapacityThenReportsTheWait() {
+        // One token a second
+        TokenBucket bucket = new TokenBucket(3, 60);
+
+        for (int i = 0; i < 3; i++) {
+            assertEquals(0, bucket.tryConsume());
+        }
+        long wait = bucket.tryConsume();
+        assertTrue(wait > 0 && wait <= TimeUnit.SECONDS.toNanos(1), "wait " + wait);
+    }
+
+    @Test
+    void refillsOverTime() throws InterruptedException {
+        // One token every 10 ms
+        TokenBucket bucket = new TokenBucket(1, 6_000);
+        assertEquals(0, bucket.tryConsume());
+        assertTrue(bucket.tryConsume() > 0);
+
+        Thread.sleep(20);
+        assertEquals(0, bucket.tryConsume());
+    }
+
+    @Test
+    void bucketWithoutRefillWaitsForever() {
+        TokenBucket bucket = new TokenBucket(1, 0);
+        bucket.tryConsume();
+
+        assertEquals(Long.MAX_VALUE, bucket.tryConsume());
+    }
+
+    @Test
+    void isFullOnlyOnceEveryTokenIsBack() throws InterruptedException {
+        TokenBucket bucket = new TokenBucket(2, 6_000);
+        assertTrue(bucket.isFull());
+
+        bucket.tryConsume();
+        assertFalse(bucket.isFull());
+
+        Thread.sleep(20);
+        assertTrue(bucket.isFull());
+    }
+
+    @Test
+    void concurrentCallersNeverGetMoreThanCapacity() throws InterruptedException {
+        TokenBucket bucket = new TokenBucket(1_000, 0);
+        AtomicInteger granted = new AtomicInteger();
+
+        ExecutorService pool = Executors.newFixedThreadPool(32);
+        CountDownLatch start = new CountDownLatch(1);
+        for (int i = 0; i < 32; i++) {
+            pool.execute(() -> {
+                try {
+                    start.await();
+                    for (int j = 0; j < 100; j++) {
+                        if (bucket.tryConsume() == 0) {
+                            granted.incrementAndGet();
+                        }
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            });
+        }
+        start.countDown();
+        pool.shutdown();
+        assertTrue(pool.awaitTermination(10, TimeUnit.SECONDS));
+
+        assertEquals(1_000, granted.get());
+    }
+}